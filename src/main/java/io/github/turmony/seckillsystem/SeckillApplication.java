@@ -3,11 +3,13 @@ package io.github.turmony.seckillsystem;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 秒杀系统启动类
  */
 @SpringBootApplication
+@EnableScheduling
 public class SeckillApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,131 @@
+package io.github.turmony.seckillsystem.archive;
+
+import io.github.turmony.seckillsystem.entity.SeckillOrder;
+import io.github.turmony.seckillsystem.mapper.SeckillOrderArchiveMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 冷订单归档存储
+ *
+ * 归档订单保存在MySQL归档表 seckill_order_archive 中（所有节点共享，压缩行格式）：
+ * 1. 以 order_id 为主键，写入使用 INSERT IGNORE，重复归档同一批订单不会产生重复数据
+ * 2. (user_id, create_time, id) 索引支持与热表相同的游标翻页，查询某个用户的归档订单不需要扫描其他用户的数据
+ *
+ * 读取失败时只返回热数据，不影响订单查询；
+ * 未开启归档（seckill.order.archive.enabled 为false，与归档任务共用开关）时不访问归档表，读取直接返回空，归档表DDL可以不执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveStore {
+
+    public static final String ARCHIVE_TABLE = "seckill_order_archive";
+
+    private final SeckillOrderArchiveMapper seckillOrderArchiveMapper;
+
+    @Value("${seckill.order.archive.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 是否开启归档（未开启时不读写归档表）
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 写入一批归档订单（由归档任务在删除原表数据的同一个事务内调用）
+     *
+     * @param orders 订单列表
+     * @return 实际写入条数（已归档过的订单不重复写入）
+     */
+    public int append(List<SeckillOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return 0;
+        }
+        return seckillOrderArchiveMapper.insertIgnoreBatch(orders);
+    }
+
+    /**
+     * 游标分页查询用户的归档订单
+     *
+     * @param userId     用户ID
+     * @param status     订单状态，null表示全部
+     * @param cursorTime 游标位置的创建时间，null表示第一页
+     * @param cursorId   游标位置的主键，null表示第一页
+     * @param limit      最多返回条数
+     * @return 归档订单（按创建时间、主键倒序），没有时返回空列表
+     */
+    public List<SeckillOrder> getUserOrders(Long userId, Integer status,
+                                            LocalDateTime cursorTime, Long cursorId, int limit) {
+        if (!enabled || userId == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return seckillOrderArchiveMapper.selectUserOrdersAfter(userId, status, cursorTime, cursorId, limit);
+        } catch (Exception e) {
+            log.error("读取归档订单失败，用户ID: {}, 错误: {}", userId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 按订单ID查询归档订单
+     *
+     * @param orderId 订单ID
+     * @return 归档订单，不存在时返回null
+     */
+    public SeckillOrder getByOrderId(String orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        List<SeckillOrder> orders = getByOrderIds(Collections.singletonList(orderId));
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    /**
+     * 按订单ID批量查询归档订单
+     *
+     * @param orderIds 订单ID
+     * @return 归档订单（不保证顺序），没有时返回空列表
+     */
+    public List<SeckillOrder> getByOrderIds(Collection<String> orderIds) {
+        if (!enabled || orderIds == null || orderIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return seckillOrderArchiveMapper.selectByOrderIds(orderIds);
+        } catch (Exception e) {
+            log.error("读取归档订单失败，订单数: {}, 错误: {}", orderIds.size(), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 获取归档统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("table", ARCHIVE_TABLE);
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        try {
+            stats.put("total", seckillOrderArchiveMapper.count());
+        } catch (Exception e) {
+            stats.put("error", e.getMessage());
+        }
+        return stats;
+    }
+}
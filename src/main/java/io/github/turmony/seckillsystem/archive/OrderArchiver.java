@@ -0,0 +1,195 @@
+package io.github.turmony.seckillsystem.archive;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillOrder;
+import io.github.turmony.seckillsystem.mapper.SeckillOrderMapper;
+import io.github.turmony.seckillsystem.shard.OrderShardRouter;
+import io.github.turmony.seckillsystem.util.RedissonLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 冷订单归档任务
+ *
+ * 流程（逐张表执行：原表 seckill_order + 各物理分表）：
+ * 1. 按主键升序分批读取已完成且超过保留天数的订单（从上一批最后的主键之后继续）
+ * 2. 每批在一个事务内写入归档表 seckill_order_archive 并删除原表中的这批订单，失败时整批回滚，留到下次归档
+ *
+ * 各节点的定时任务同时触发，通过Redisson分布式锁保证同一时间只有一个节点执行归档；
+ * 未开启归档时定时任务和手动触发都不执行（订单查询此时不读取归档表，归档出去的订单会查不到）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderArchiver {
+
+    private final SeckillOrderMapper seckillOrderMapper;
+    private final OrderShardRouter orderShardRouter;
+    private final OrderArchiveStore orderArchiveStore;
+    private final RedissonLockUtil redissonLockUtil;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${seckill.order.archive.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 订单保留天数，超过的已完成订单会被归档
+     */
+    @Value("${seckill.order.archive.days:30}")
+    private int retainDays;
+
+    /**
+     * 每批写入归档表、删除原表数据的条数（一个事务）
+     */
+    @Value("${seckill.order.archive.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * 每张表单次归档的最大订单数
+     */
+    @Value("${seckill.order.archive.max-per-run:100000}")
+    private int maxPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 最近一次归档结果
+     */
+    private volatile Map<String, Object> lastResult = Collections.emptyMap();
+
+    /**
+     * 定时归档（默认每天凌晨3点30分）
+     */
+    @Scheduled(cron = "${seckill.order.archive.cron:0 30 3 * * ?}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        archive();
+    }
+
+    /**
+     * 执行一次归档
+     *
+     * @return 归档结果
+     */
+    public Map<String, Object> archive() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!enabled) {
+            result.put("message", "未开启订单归档（seckill.order.archive.enabled）");
+            return result;
+        }
+        if (!running.compareAndSet(false, true)) {
+            result.put("message", "归档任务正在执行中");
+            return result;
+        }
+        // leaseTime 为 -1 时由Redisson看门狗续期，归档耗时再长也不会中途失去锁
+        if (!redissonLockUtil.tryLock(RedisKeyConstant.SECKILL_ORDER_ARCHIVE_LOCK, 0, -1, TimeUnit.SECONDS)) {
+            running.set(false);
+            result.put("message", "其他节点正在执行归档");
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+        LocalDateTime before = LocalDateTime.now().minusDays(retainDays);
+        log.info("📦 开始归档订单，创建时间早于: {}", before);
+
+        try {
+            // 物理表名 -> 分表下标；分表前的订单仍在原表中，原表始终参与归档
+            Map<String, Integer> tableShards = new LinkedHashMap<>();
+            tableShards.put(OrderShardRouter.LOGIC_TABLE, null);
+            if (orderShardRouter.isSharded()) {
+                for (int i = 0; i < orderShardRouter.getShardCount(); i++) {
+                    tableShards.put(OrderShardRouter.physicalTable(i), i);
+                }
+            }
+
+            Map<String, Integer> archivedByTable = new LinkedHashMap<>();
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : tableShards.entrySet()) {
+                int count = archiveTable(entry.getKey(), entry.getValue(), before);
+                archivedByTable.put(entry.getKey(), count);
+                total += count;
+            }
+
+            long costTime = System.currentTimeMillis() - startTime;
+            result.put("before", before);
+            result.put("total", total);
+            result.put("tables", archivedByTable);
+            result.put("costTime", costTime + "ms");
+            result.put("finishTime", LocalDateTime.now());
+            lastResult = result;
+
+            log.info("✅ 订单归档完成，共归档: {} 条，耗时: {}ms", total, costTime);
+            return result;
+        } finally {
+            redissonLockUtil.unlock(RedisKeyConstant.SECKILL_ORDER_ARCHIVE_LOCK);
+            running.set(false);
+        }
+    }
+
+    /**
+     * 最近一次归档结果
+     */
+    public Map<String, Object> getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * 归档单张表
+     *
+     * @return 归档并删除的订单数
+     */
+    private int archiveTable(String table, Integer shard, LocalDateTime before) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        Long afterId = null;
+        while (archived < maxPerRun) {
+            int limit = Math.min(batchSize, maxPerRun - archived);
+            Long cursorId = afterId;
+            List<SeckillOrder> batch = orderShardRouter.route(shard,
+                    () -> seckillOrderMapper.selectArchivableOrders(before, cursorId, limit));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = batch.stream().map(SeckillOrder::getId).collect(Collectors.toList());
+            Integer deleted;
+            try {
+                // 写入归档表和删除原表在同一个事务内：要么整批移入归档表，要么都不变
+                deleted = orderShardRouter.route(shard, () -> transactionTemplate.execute(status -> {
+                    orderArchiveStore.append(batch);
+                    return seckillOrderMapper.deleteBatchIds(ids);
+                }));
+            } catch (Exception e) {
+                log.error("❌ 归档失败，表: {}, 本批数量: {}, 错误: {}", table, batch.size(), e.getMessage(), e);
+                break;
+            }
+
+            archived += deleted == null ? 0 : deleted;
+            afterId = ids.get(ids.size() - 1);
+            if (batch.size() < limit) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("表 {} 归档完成，移入归档表: {} 条", table, archived);
+        }
+        return archived;
+    }
+}
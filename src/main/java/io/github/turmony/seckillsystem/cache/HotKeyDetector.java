@@ -0,0 +1,309 @@
+package io.github.turmony.seckillsystem.cache;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 本节点热点Key探测
+ *
+ * RedisUtil、LuaScriptUtil 每次访问Key时调用 record，按 1/sample-rate 采样计入 Count-Min Sketch：
+ * 1. depth 行 × width 列的计数器，每行用不同的种子哈希，估计值取各行最小值（只会高估，不会低估）
+ * 2. 每隔 decay-ms 所有计数器减半（衰减窗口），估计值约等于最近两个窗口的访问次数，冷下来的Key自然降级
+ * 3. 估计访问次数（计数 × 采样率）超过 threshold 的Key晋升为热点，衰减后低于 threshold 的一半时降级（避免反复晋升）
+ * 4. 热点Key最多保留 max-hot-keys 个，满了之后只有比当前最冷的热点更热的Key才能替换进来
+ *
+ * 晋升、降级通过监听器通知本地缓存（商品基础信息L1、库存镜像），在单独的线程中回调，不占用请求线程
+ * 探测结果只在本节点有效，各节点按自己的流量独立判断
+ */
+@Slf4j
+@Component
+public class HotKeyDetector {
+
+    @Value("${seckill.hotkey.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 采样率：每 sample-rate 次访问计入1次
+     */
+    @Value("${seckill.hotkey.sample-rate:8}")
+    private int sampleRate;
+
+    /**
+     * Count-Min Sketch 行数（哈希函数个数）
+     */
+    @Value("${seckill.hotkey.depth:4}")
+    private int depth;
+
+    /**
+     * Count-Min Sketch 每行计数器个数（取2的幂）
+     */
+    @Value("${seckill.hotkey.width:4096}")
+    private int width;
+
+    /**
+     * 晋升阈值：衰减窗口内的估计访问次数
+     */
+    @Value("${seckill.hotkey.threshold:1000}")
+    private long threshold;
+
+    /**
+     * 最多同时保留的热点Key数
+     */
+    @Value("${seckill.hotkey.max-hot-keys:64}")
+    private int maxHotKeys;
+
+    private AtomicLongArray counters;
+    private long[] seeds;
+    private int mask;
+
+    /**
+     * 当前热点Key -> 最近一次估计访问次数
+     */
+    private final Map<String, Long> hotKeys = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> promotionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> demotionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 监听器回调线程（晋升、降级都很少发生，单线程即可）
+     */
+    private ExecutorService notifyExecutor;
+
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder promotedCount = new LongAdder();
+    private final LongAdder demotedCount = new LongAdder();
+    private final LongAdder decayCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        width = Integer.highestOneBit(Math.max(width, 64) - 1) << 1;
+        mask = width - 1;
+        counters = new AtomicLongArray(depth * width);
+        seeds = new long[depth];
+        for (int i = 0; i < depth; i++) {
+            seeds[i] = ThreadLocalRandom.current().nextLong() | 1L;
+        }
+        notifyExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(1000),
+                r -> {
+                    Thread thread = new Thread(r, "hot-key-notifier");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        log.info("热点Key探测初始化完成，采样率: 1/{}, Sketch: {}x{}, 阈值: {}", sampleRate, depth, width, threshold);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        notifyExecutor.shutdown();
+    }
+
+    /**
+     * 记录一次Key访问（按采样率计入）
+     *
+     * @param key Redis Key
+     */
+    public void record(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        sampledCount.increment();
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(indexOf(i, hash)));
+        }
+        estimate *= Math.max(sampleRate, 1);
+        if (estimate >= threshold && !hotKeys.containsKey(key)) {
+            promote(key, estimate);
+        }
+    }
+
+    /**
+     * 是否为当前热点Key
+     */
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 注册晋升监听器（参数为晋升的Key）
+     */
+    public void addPromotionListener(Consumer<String> listener) {
+        promotionListeners.add(listener);
+    }
+
+    /**
+     * 注册降级监听器（参数为降级的Key）
+     */
+    public void addDemotionListener(Consumer<String> listener) {
+        demotionListeners.add(listener);
+    }
+
+    /**
+     * 衰减：所有计数器减半，并重新估计热点Key，低于阈值一半的降级
+     */
+    @Scheduled(fixedDelayString = "${seckill.hotkey.decay-ms:1000}")
+    public void decay() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            if (counters.get(i) != 0) {
+                counters.getAndUpdate(i, value -> value >>> 1);
+            }
+        }
+        decayCount.increment();
+
+        for (String key : hotKeys.keySet()) {
+            long estimate = estimate(key);
+            if (estimate * 2 < threshold) {
+                if (hotKeys.remove(key) != null) {
+                    demotedCount.increment();
+                    log.info("热点Key降级: {}, 估计访问次数: {}", key, estimate);
+                    notifyListeners(demotionListeners, key);
+                }
+            } else {
+                hotKeys.put(key, estimate);
+            }
+        }
+    }
+
+    /**
+     * 当前热点Key（按估计访问次数从高到低）
+     *
+     * @param limit 最多返回条数
+     */
+    public List<Map<String, Object>> topKeys(int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(hotKeys.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (Map.Entry<String, Long> entry : entries) {
+            if (result.size() >= limit) {
+                break;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", entry.getKey());
+            item.put("estimate", entry.getValue());
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 探测统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("sampleRate", sampleRate);
+        stats.put("depth", depth);
+        stats.put("width", width);
+        stats.put("threshold", threshold);
+        stats.put("hotKeyCount", hotKeys.size());
+        stats.put("maxHotKeys", maxHotKeys);
+        stats.put("sampledCount", sampledCount.sum());
+        stats.put("promotedCount", promotedCount.sum());
+        stats.put("demotedCount", demotedCount.sum());
+        stats.put("decayCount", decayCount.sum());
+        return stats;
+    }
+
+    /**
+     * 从库存Key（seckill:stock:{goodsId}）解析商品ID
+     *
+     * @return 不是库存Key（回滚记录、账本等同前缀的Key）时返回null
+     */
+    public static Long stockGoodsIdOf(String key) {
+        if (!key.startsWith(RedisKeyConstant.SECKILL_STOCK_PREFIX)) {
+            return null;
+        }
+        String suffix = key.substring(RedisKeyConstant.SECKILL_STOCK_PREFIX.length());
+        if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.valueOf(suffix);
+    }
+
+    /**
+     * 晋升：热点数已满时替换当前最冷的热点（只在它比新Key更冷时）
+     */
+    private synchronized void promote(String key, long estimate) {
+        if (hotKeys.containsKey(key)) {
+            return;
+        }
+        if (hotKeys.size() >= maxHotKeys) {
+            String coldest = null;
+            long coldestEstimate = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : hotKeys.entrySet()) {
+                if (entry.getValue() < coldestEstimate) {
+                    coldest = entry.getKey();
+                    coldestEstimate = entry.getValue();
+                }
+            }
+            if (coldest == null || coldestEstimate >= estimate) {
+                return;
+            }
+            hotKeys.remove(coldest);
+            demotedCount.increment();
+            notifyListeners(demotionListeners, coldest);
+        }
+        hotKeys.put(key, estimate);
+        promotedCount.increment();
+        log.info("热点Key晋升: {}, 估计访问次数: {}", key, estimate);
+        notifyListeners(promotionListeners, key);
+    }
+
+    private long estimate(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, counters.get(indexOf(i, hash)));
+        }
+        return estimate * Math.max(sampleRate, 1);
+    }
+
+    private int indexOf(int row, int hash) {
+        long h = (hash ^ seeds[row]) * 0x9E3779B97F4A7C15L;
+        return row * width + ((int) (h ^ (h >>> 32)) & mask);
+    }
+
+    private void notifyListeners(List<Consumer<String>> listeners, String key) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        notifyExecutor.execute(() -> {
+            for (Consumer<String> listener : listeners) {
+                try {
+                    listener.accept(key);
+                } catch (Exception e) {
+                    log.warn("热点Key监听器执行失败，Key: {}, 错误: {}", key, e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.turmony.seckillsystem.cache;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.vo.SeckillOrderVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单状态缓存
+ * 以Hash结构保存订单VO（排队中/成功/失败 + 展示字段），供订单结果轮询直接读取，不访问MySQL
+ *
+ * Key格式: seckill:order:status:{orderId}
+ * 字段值统一使用字符串存储，时间使用毫秒时间戳
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusCache {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_GOODS_ID = "goodsId";
+    private static final String FIELD_ORDER_NO = "orderNo";
+    private static final String FIELD_ORDER_ID = "orderId";
+    private static final String FIELD_GOODS_NAME = "goodsName";
+    private static final String FIELD_GOODS_IMG = "goodsImg";
+    private static final String FIELD_SECKILL_PRICE = "seckillPrice";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_CREATE_TIME = "createTime";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 订单状态缓存过期时间（秒），默认30分钟
+     */
+    @Value("${seckill.order.status-ttl:1800}")
+    private long statusTtlSeconds;
+
+    /**
+     * 写入完整的订单状态
+     * 立即写入，结果轮询马上可见，且一定早于MQ消费者在事务提交后的状态更新；
+     * 如果当前处于事务中，事务回滚时删除这条缓存（订单没有落库，不能留下排队中的状态）
+     *
+     * @param vo 订单VO
+     */
+    public void put(SeckillOrderVO vo) {
+        if (vo == null || vo.getOrderId() == null) {
+            return;
+        }
+        String key = RedisKeyConstant.getSeckillOrderStatusKey(vo.getOrderId());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        evict(vo.getOrderId());
+                    }
+                }
+            });
+        }
+        Map<String, String> hash = toHash(vo);
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                    operations.opsForHash().putAll(key, hash);
+                    operations.expire(key, statusTtlSeconds, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            // 缓存写入失败不影响主流程，查询时会回源MySQL
+            log.warn("写入订单状态缓存失败，订单ID: {}, 错误: {}", vo.getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 只更新订单状态字段
+     * 缓存已过期时不写入，避免产生只有status字段的残缺Hash
+     * 如果当前处于事务中，则在事务提交后再写入，事务回滚时缓存保持原状态，不会与MySQL不一致
+     *
+     * @param orderId 订单ID
+     * @param status  订单状态：0-排队中 1-成功 2-失败
+     */
+    public void updateStatus(String orderId, Integer status) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doUpdateStatus(orderId, status);
+                }
+            });
+        } else {
+            doUpdateStatus(orderId, status);
+        }
+    }
+
+    private void evict(String orderId) {
+        try {
+            stringRedisTemplate.delete(RedisKeyConstant.getSeckillOrderStatusKey(orderId));
+        } catch (Exception e) {
+            log.warn("删除订单状态缓存失败，订单ID: {}, 错误: {}", orderId, e.getMessage());
+        }
+    }
+
+    private void doUpdateStatus(String orderId, Integer status) {
+        String key = RedisKeyConstant.getSeckillOrderStatusKey(orderId);
+        try {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+                stringRedisTemplate.opsForHash().put(key, FIELD_STATUS, String.valueOf(status));
+            }
+        } catch (Exception e) {
+            log.warn("更新订单状态缓存失败，订单ID: {}, 错误: {}", orderId, e.getMessage());
+        }
+    }
+
+    /**
+     * 读取订单状态
+     *
+     * @param orderId 订单ID
+     * @return 订单VO，未命中返回null
+     */
+    public SeckillOrderVO get(String orderId) {
+        try {
+            Map<Object, Object> hash = stringRedisTemplate.opsForHash()
+                    .entries(RedisKeyConstant.getSeckillOrderStatusKey(orderId));
+            return fromHash(hash);
+        } catch (Exception e) {
+            log.warn("读取订单状态缓存失败，订单ID: {}, 错误: {}", orderId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 批量读取订单状态（一次Pipeline执行多个HGETALL）
+     *
+     * @param orderIds 订单ID列表
+     * @return 命中的订单，Key为订单ID；未命中的订单不包含在结果中
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, SeckillOrderVO> multiGet(List<String> orderIds) {
+        Map<String, SeckillOrderVO> result = new LinkedHashMap<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            return result;
+        }
+        try {
+            List<Object> hashes = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                    for (String orderId : orderIds) {
+                        operations.opsForHash().entries(RedisKeyConstant.getSeckillOrderStatusKey(orderId));
+                    }
+                    return null;
+                }
+            });
+            for (int i = 0; i < orderIds.size() && i < hashes.size(); i++) {
+                SeckillOrderVO vo = fromHash((Map<Object, Object>) hashes.get(i));
+                if (vo != null) {
+                    result.put(orderIds.get(i), vo);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("批量读取订单状态缓存失败，数量: {}, 错误: {}", orderIds.size(), e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 批量写入订单状态（一次Pipeline）
+     *
+     * @param voList 订单VO列表
+     */
+    public void putAll(List<SeckillOrderVO> voList) {
+        if (voList == null || voList.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                    for (SeckillOrderVO vo : voList) {
+                        if (vo.getOrderId() == null) {
+                            continue;
+                        }
+                        String key = RedisKeyConstant.getSeckillOrderStatusKey(vo.getOrderId());
+                        operations.opsForHash().putAll(key, toHash(vo));
+                        operations.expire(key, statusTtlSeconds, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("批量写入订单状态缓存失败，数量: {}, 错误: {}", voList.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * VO转Hash
+     */
+    private Map<String, String> toHash(SeckillOrderVO vo) {
+        Map<String, String> hash = new HashMap<>();
+        putIfNotNull(hash, FIELD_ID, vo.getId());
+        putIfNotNull(hash, FIELD_USER_ID, vo.getUserId());
+        putIfNotNull(hash, FIELD_GOODS_ID, vo.getGoodsId());
+        putIfNotNull(hash, FIELD_ORDER_NO, vo.getOrderNo());
+        putIfNotNull(hash, FIELD_ORDER_ID, vo.getOrderId());
+        putIfNotNull(hash, FIELD_GOODS_NAME, vo.getGoodsName());
+        putIfNotNull(hash, FIELD_GOODS_IMG, vo.getGoodsImg());
+        putIfNotNull(hash, FIELD_SECKILL_PRICE, vo.getSeckillPrice() == null ? null : vo.getSeckillPrice().toPlainString());
+        putIfNotNull(hash, FIELD_STATUS, vo.getStatus());
+        if (vo.getCreateTime() != null) {
+            hash.put(FIELD_CREATE_TIME, String.valueOf(
+                    vo.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+        return hash;
+    }
+
+    /**
+     * Hash转VO
+     * 缺少userId或status的Hash视为未命中（归属校验和状态判断都依赖这两个字段）
+     */
+    private SeckillOrderVO fromHash(Map<Object, Object> hash) {
+        if (hash == null || hash.isEmpty()
+                || hash.get(FIELD_USER_ID) == null || hash.get(FIELD_STATUS) == null) {
+            return null;
+        }
+        SeckillOrderVO vo = new SeckillOrderVO();
+        vo.setId(toLong(hash.get(FIELD_ID)));
+        vo.setUserId(toLong(hash.get(FIELD_USER_ID)));
+        vo.setGoodsId(toLong(hash.get(FIELD_GOODS_ID)));
+        vo.setOrderNo((String) hash.get(FIELD_ORDER_NO));
+        vo.setOrderId((String) hash.get(FIELD_ORDER_ID));
+        vo.setGoodsName((String) hash.get(FIELD_GOODS_NAME));
+        vo.setGoodsImg((String) hash.get(FIELD_GOODS_IMG));
+        Object price = hash.get(FIELD_SECKILL_PRICE);
+        vo.setSeckillPrice(price == null ? null : new BigDecimal((String) price));
+        vo.setStatus(Integer.valueOf((String) hash.get(FIELD_STATUS)));
+        Long createTime = toLong(hash.get(FIELD_CREATE_TIME));
+        if (createTime != null) {
+            vo.setCreateTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(createTime), ZoneId.systemDefault()));
+        }
+        return vo;
+    }
+
+    private static void putIfNotNull(Map<String, String> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, value.toString());
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : Long.valueOf((String) value);
+    }
+}
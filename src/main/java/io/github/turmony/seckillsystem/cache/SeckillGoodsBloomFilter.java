@@ -0,0 +1,264 @@
+package io.github.turmony.seckillsystem.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀商品ID布隆过滤器（防缓存穿透）
+ *
+ * 1. 启动时由 SeckillGoodsInitializer 根据数据库中的全部秒杀商品构建
+ * 2. 新增商品时放入，并通过Redis Pub/Sub通知其他节点放入
+ * 3. 布隆过滤器不支持删除，删除商品时通知所有节点从数据库重建；另有定时重建兜底
+ *
+ * 构建完成前 mightContain 始终返回true，不拦截任何请求
+ *
+ * 重建期间（从读取商品ID开始）新增的商品会被记录下来，新过滤器替换旧过滤器之后再补放入，
+ * 避免读取数据库之后新增、且只放入了旧过滤器的商品被新过滤器拦截
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsBloomFilter implements MessageListener {
+
+    private static final String MESSAGE_ADD_PREFIX = "add:";
+    private static final String MESSAGE_REBUILD = "rebuild";
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${seckill.goods.bloom.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${seckill.goods.bloom.fpp:0.001}")
+    private double fpp;
+
+    /**
+     * 当前生效的布隆过滤器，重建时整体替换，null表示尚未构建
+     */
+    private volatile BloomFilter<Long> bloomFilter;
+
+    private volatile LocalDateTime lastBuildTime;
+
+    /**
+     * 进行中的重建数（warmup 与定时重建可能同时进行）
+     */
+    private final AtomicInteger rebuilding = new AtomicInteger();
+
+    /**
+     * 重建期间新增的商品ID，所有重建结束后清空
+     */
+    private final Set<Long> addedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder rejectCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisKeyConstant.SECKILL_GOODS_BLOOM_CHANNEL));
+    }
+
+    /**
+     * 商品ID是否可能存在
+     *
+     * @param goodsId 商品ID
+     * @return false表示一定不存在；true表示可能存在（或过滤器尚未构建）
+     */
+    public boolean mightContain(Long goodsId) {
+        if (goodsId == null) {
+            return false;
+        }
+        BloomFilter<Long> current = bloomFilter;
+        if (current == null || current.mightContain(goodsId)) {
+            return true;
+        }
+        rejectCount.increment();
+        return false;
+    }
+
+    /**
+     * 开始重建：在读取全部商品ID之前调用，之后新增的商品会在 finishRebuild 时补放入新过滤器
+     * 必须与 finishRebuild 或 abortRebuild 成对调用
+     */
+    public void beginRebuild() {
+        rebuilding.incrementAndGet();
+    }
+
+    /**
+     * 完成重建：用给定的商品ID集合构建新过滤器并替换，再补放入重建期间新增的商品
+     *
+     * @param goodsIds 全部秒杀商品ID（beginRebuild 之后读取）
+     */
+    public void finishRebuild(Collection<Long> goodsIds) {
+        try {
+            BloomFilter<Long> filter = BloomFilter.create(Funnels.longFunnel(),
+                    Math.max(expectedInsertions, goodsIds.size()), fpp);
+            goodsIds.forEach(filter::put);
+            bloomFilter = filter;
+            // 先替换再补放：替换前读到旧过滤器的 putLocal 已经记录在集合中
+            addedDuringRebuild.forEach(filter::put);
+            lastBuildTime = LocalDateTime.now();
+            log.info("秒杀商品布隆过滤器构建完成，商品数: {}, 重建期间新增: {}",
+                    goodsIds.size(), addedDuringRebuild.size());
+        } finally {
+            endRebuild();
+        }
+    }
+
+    /**
+     * 放弃重建（读取商品ID失败时调用）
+     */
+    public void abortRebuild() {
+        endRebuild();
+    }
+
+    /**
+     * 从数据库重建布隆过滤器
+     */
+    public void rebuildFromDb() {
+        beginRebuild();
+        List<Long> goodsIds;
+        try {
+            goodsIds = seckillGoodsMapper.selectList(
+                            new QueryWrapper<SeckillGoods>().select("goods_id"))
+                    .stream()
+                    .map(SeckillGoods::getGoodsId)
+                    .collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            abortRebuild();
+            throw e;
+        }
+        finishRebuild(goodsIds);
+    }
+
+    /**
+     * 定时重建（兜底：清理已删除商品、修复丢失的通知）
+     */
+    @Scheduled(initialDelayString = "${seckill.goods.bloom.rebuild-interval-ms:600000}",
+            fixedDelayString = "${seckill.goods.bloom.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuildFromDb();
+        } catch (Exception e) {
+            log.error("定时重建秒杀商品布隆过滤器失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 新增商品：本节点放入，并通知其他节点
+     *
+     * @param goodsId 商品ID
+     */
+    public void add(Long goodsId) {
+        putLocal(goodsId);
+        publish(MESSAGE_ADD_PREFIX + goodsId);
+    }
+
+    /**
+     * 删除商品：通知所有节点（包括本节点）从数据库重建
+     */
+    public void requestRebuild() {
+        publish(MESSAGE_REBUILD);
+    }
+
+    /**
+     * 统计信息：近似元素数、当前误判率、估算内存占用、拦截次数
+     */
+    public Map<String, Object> getStats() {
+        BloomFilter<Long> current = bloomFilter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", current != null);
+        stats.put("expectedInsertions", expectedInsertions);
+        stats.put("configuredFpp", fpp);
+        if (current != null) {
+            stats.put("approximateElementCount", current.approximateElementCount());
+            stats.put("expectedFpp", current.expectedFpp());
+            stats.put("estimatedMemoryBytes", estimateMemoryBytes(Math.max(expectedInsertions,
+                    current.approximateElementCount()), fpp));
+        }
+        stats.put("rejectCount", rejectCount.sum());
+        stats.put("lastBuildTime", lastBuildTime);
+        return stats;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            if (MESSAGE_REBUILD.equals(body)) {
+                rebuildFromDb();
+            } else if (body.startsWith(MESSAGE_ADD_PREFIX)) {
+                putLocal(Long.valueOf(body.substring(MESSAGE_ADD_PREFIX.length())));
+            } else {
+                log.warn("布隆过滤器通知格式错误: {}", body);
+            }
+        } catch (Exception e) {
+            log.error("处理布隆过滤器通知失败: {}, 错误: {}", body, e.getMessage());
+        }
+    }
+
+    private void endRebuild() {
+        if (rebuilding.decrementAndGet() == 0) {
+            addedDuringRebuild.clear();
+        }
+    }
+
+    private void putLocal(Long goodsId) {
+        if (goodsId == null) {
+            return;
+        }
+        // 先记录再读取当前过滤器，保证放入旧过滤器的商品一定能在重建完成时补放入新过滤器
+        if (rebuilding.get() > 0) {
+            addedDuringRebuild.add(goodsId);
+        }
+        BloomFilter<Long> current = bloomFilter;
+        if (current != null) {
+            // Guava BloomFilter 的 put/mightContain 是线程安全的
+            current.put(goodsId);
+        }
+    }
+
+    private void publish(String message) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.SECKILL_GOODS_BLOOM_CHANNEL, message);
+        } catch (Exception e) {
+            // 通知失败时其他节点在定时重建后恢复
+            log.warn("发布布隆过滤器通知失败: {}, 错误: {}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * 估算位数组占用内存：m = -n * ln(p) / (ln2)^2 位
+     */
+    private static long estimateMemoryBytes(long n, double p) {
+        double bits = -n * Math.log(p) / (Math.log(2) * Math.log(2));
+        return (long) Math.ceil(bits / 8);
+    }
+}
@@ -0,0 +1,650 @@
+package io.github.turmony.seckillsystem.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.Goods;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.GoodsMapper;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
+import io.github.turmony.seckillsystem.util.RedissonLockUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀商品两级缓存
+ *
+ * L1：本地Guava缓存（容量有限，短过期时间兜底）
+ * L2：Redis，Key格式 seckill:goods:vo:{goodsId}，保存组装好的VO（二进制序列化，见 SeckillGoodsEntryRedisSerializer）
+ * 回源：seckill_goods + goods 两张表组装
+ *
+ * 缓存中只保存不常变化的基础字段（商品信息、秒杀价、起止时间），
+ * 实时库存、秒杀状态和倒计时由调用方在每次请求时计算
+ *
+ * 商品新增/修改/删除时调用 invalidate，删除L2并通过Redis Pub/Sub通知所有节点清除L1
+ *
+ * 缓存击穿保护：
+ * 1. 单飞加载：同一节点同一商品同时只有一个加载任务，其余请求等待该任务的结果
+ * 2. 跨节点互斥：加载前获取短时分布式锁，未获取到的节点轮询Redis等待其他节点的加载结果
+ * 3. 逻辑过期：L2保存逻辑过期时间，物理过期时间额外多出 stale-ttl；
+ *    逻辑过期后先返回旧值，同时后台刷新（stale-while-revalidate）
+ * 4. 提前刷新：按 XFetch 算法在逻辑过期前以一定概率提前触发后台刷新，加载越慢越早刷新
+ *
+ * 缓存穿透保护：数据库中不存在的商品写入短时空值条目（data为null），过期前不再回源
+ *
+ * 热点商品（HotKeyDetector 探测到库存Key为热点）额外固定在本地：
+ * 不受L1容量淘汰和 local-ttl 过期影响，由后台每隔 refresh-ms 批量从L2刷新，热点商品不会出现同步回源
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsCache implements MessageListener {
+
+    /**
+     * 清除全部本地缓存的通知内容
+     */
+    private static final String INVALIDATE_ALL = "*";
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final GoodsMapper goodsMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, CacheEntry> seckillGoodsEntryRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final RedissonLockUtil redissonLockUtil;
+    private final HotKeyDetector hotKeyDetector;
+
+    @Value("${seckill.goods.cache.local-max-size:1000}")
+    private long localMaxSize;
+
+    @Value("${seckill.goods.cache.local-ttl:60}")
+    private long localTtlSeconds;
+
+    /**
+     * L2逻辑过期时间（秒）
+     */
+    @Value("${seckill.goods.cache.redis-ttl:3600}")
+    private long redisTtlSeconds;
+
+    /**
+     * 逻辑过期后仍可返回旧值的时间（秒），L2物理过期时间 = redis-ttl + stale-ttl
+     */
+    @Value("${seckill.goods.cache.stale-ttl:300}")
+    private long staleTtlSeconds;
+
+    /**
+     * XFetch 提前刷新系数，越大越早刷新，0表示关闭提前刷新
+     */
+    @Value("${seckill.goods.cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    /**
+     * 跨节点加载互斥锁的持有时间（毫秒）
+     */
+    @Value("${seckill.goods.cache.mutex-lease-ms:3000}")
+    private long mutexLeaseMs;
+
+    /**
+     * 缓存未命中时等待加载结果的最长时间（毫秒）
+     */
+    @Value("${seckill.goods.cache.load-timeout-ms:3000}")
+    private long loadTimeoutMs;
+
+    /**
+     * 空值条目过期时间（秒）
+     */
+    @Value("${seckill.goods.cache.negative-ttl:60}")
+    private long negativeTtlSeconds;
+
+    /**
+     * 本地缓存（L1），Value只在本类内部使用，对外始终返回副本
+     */
+    private Cache<Long, CacheEntry> localCache;
+
+    /**
+     * 当前热点商品ID
+     */
+    private final Set<Long> hotGoodsIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 固定在本地的热点商品条目（优先于L1读取）
+     */
+    private final Map<Long, CacheEntry> hotEntries = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点正在进行的加载任务（单飞）
+     */
+    private final Map<Long, CompletableFuture<CacheEntry>> loadingFutures = new ConcurrentHashMap<>();
+
+    /**
+     * 加载线程池（未命中加载与后台刷新共用）
+     */
+    private ThreadPoolExecutor loadExecutor;
+
+    /**
+     * 本地缓存清除监听器（参数为商品ID，null表示全部），供依赖本缓存的派生缓存同步清除
+     */
+    private final List<Consumer<Long>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder dbLoadCount = new LongAdder();
+    private final LongAdder singleFlightWaitCount = new LongAdder();
+    private final LongAdder earlyRefreshCount = new LongAdder();
+    private final LongAdder staleServedCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = CacheBuilder.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        AtomicInteger threadIndex = new AtomicInteger();
+        loadExecutor = new ThreadPoolExecutor(2, 8, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1000),
+                r -> {
+                    Thread thread = new Thread(r, "goods-cache-loader-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisKeyConstant.SECKILL_GOODS_INVALIDATE_CHANNEL));
+        log.info("秒杀商品缓存失效频道订阅成功: {}", RedisKeyConstant.SECKILL_GOODS_INVALIDATE_CHANNEL);
+
+        hotKeyDetector.addPromotionListener(key -> {
+            Long goodsId = HotKeyDetector.stockGoodsIdOf(key);
+            if (goodsId != null) {
+                pinHot(goodsId);
+            }
+        });
+        hotKeyDetector.addDemotionListener(key -> {
+            Long goodsId = HotKeyDetector.stockGoodsIdOf(key);
+            if (goodsId != null) {
+                hotGoodsIds.remove(goodsId);
+                hotEntries.remove(goodsId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        loadExecutor.shutdown();
+    }
+
+    /**
+     * 读取秒杀商品基础信息（L1 -> L2 -> MySQL）
+     *
+     * @param goodsId 商品ID
+     * @return 秒杀商品VO副本（不含实时库存和秒杀状态），不存在返回null
+     */
+    public SeckillGoodsVO get(Long goodsId) {
+        CacheEntry entry = getLocal(goodsId);
+        if (entry == null) {
+            entry = getFromRedis(goodsId);
+            if (entry == null) {
+                // L2也未命中：单飞加载并等待结果
+                entry = awaitLoad(goodsId, 0);
+            }
+            putLocal(goodsId, entry);
+        }
+
+        if (entry.getData() == null) {
+            // 空值条目：商品不存在
+            negativeHitCount.increment();
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now >= entry.getExpireAt()) {
+            // 逻辑已过期：返回旧值，后台刷新
+            staleServedCount.increment();
+            refreshAsync(goodsId, entry.getExpireAt());
+        } else if (shouldRefreshEarly(entry, now)) {
+            earlyRefreshCount.increment();
+            refreshAsync(goodsId, entry.getExpireAt());
+        }
+        return copyOf(entry.getData());
+    }
+
+    /**
+     * 批量读取秒杀商品基础信息
+     * L1命中的直接使用，其余一次MGET读取L2，仍未命中的逐个走单飞加载
+     *
+     * @param goodsIds 商品ID列表
+     * @return 与goodsIds顺序一致的VO副本列表，不存在的商品不包含在结果中
+     */
+    public List<SeckillGoodsVO> multiGet(List<Long> goodsIds) {
+        Map<Long, CacheEntry> entries = new HashMap<>();
+        List<Long> missIds = new ArrayList<>();
+        for (Long goodsId : goodsIds) {
+            CacheEntry entry = getLocal(goodsId);
+            if (entry != null) {
+                entries.put(goodsId, entry);
+            } else {
+                missIds.add(goodsId);
+            }
+        }
+
+        if (!missIds.isEmpty()) {
+            List<String> keys = missIds.stream()
+                    .map(RedisKeyConstant::getSeckillGoodsVoKey)
+                    .collect(Collectors.toList());
+            List<CacheEntry> values = null;
+            try {
+                values = seckillGoodsEntryRedisTemplate.opsForValue().multiGet(keys);
+            } catch (Exception e) {
+                log.warn("批量读取秒杀商品缓存失败，数量: {}, 错误: {}", keys.size(), e.getMessage());
+            }
+            for (int i = 0; i < missIds.size(); i++) {
+                CacheEntry entry = values == null ? null : values.get(i);
+                if (entry != null) {
+                    putLocal(missIds.get(i), entry);
+                    entries.put(missIds.get(i), entry);
+                }
+            }
+        }
+
+        List<SeckillGoodsVO> result = new ArrayList<>(goodsIds.size());
+        for (Long goodsId : goodsIds) {
+            CacheEntry entry = entries.get(goodsId);
+            // L2未命中或需要刷新的条目交给get处理（单飞加载、逻辑过期刷新）
+            SeckillGoodsVO vo = entry == null || System.currentTimeMillis() >= entry.getExpireAt()
+                    ? get(goodsId)
+                    : entry.getData() == null ? null : copyOf(entry.getData());
+            if (vo != null) {
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 使缓存失效：删除L2，并通知所有节点（包括本节点）清除L1
+     *
+     * @param goodsId 商品ID
+     */
+    public void invalidate(Long goodsId) {
+        if (goodsId == null) {
+            return;
+        }
+        evictLocal(goodsId);
+        try {
+            stringRedisTemplate.delete(RedisKeyConstant.getSeckillGoodsVoKey(goodsId));
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.SECKILL_GOODS_INVALIDATE_CHANNEL, goodsId.toString());
+        } catch (Exception e) {
+            // 通知失败时其他节点的L1最多在 local-ttl 后过期
+            log.warn("秒杀商品缓存失效通知失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+        }
+
+        // 延时双删：失效前已开始的加载任务可能把旧数据写回缓存
+        CompletableFuture.runAsync(() -> {
+            evictLocal(goodsId);
+            try {
+                stringRedisTemplate.delete(RedisKeyConstant.getSeckillGoodsVoKey(goodsId));
+                stringRedisTemplate.convertAndSend(RedisKeyConstant.SECKILL_GOODS_INVALIDATE_CHANNEL, goodsId.toString());
+            } catch (Exception e) {
+                log.warn("秒杀商品缓存延时删除失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+            }
+        }, CompletableFuture.delayedExecutor(mutexLeaseMs, TimeUnit.MILLISECONDS, loadExecutor));
+    }
+
+    /**
+     * 通知所有节点清除全部L1（L2由调用方按商品删除）
+     */
+    public void invalidateAllLocal() {
+        evictAllLocal();
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.SECKILL_GOODS_INVALIDATE_CHANNEL, INVALIDATE_ALL);
+        } catch (Exception e) {
+            log.warn("秒杀商品缓存全部失效通知失败，错误: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 注册本地缓存清除监听器
+     *
+     * @param listener 参数为被清除的商品ID，null表示全部清除
+     */
+    public void addEvictionListener(Consumer<Long> listener) {
+        evictionListeners.add(listener);
+    }
+
+    /**
+     * 定时从L2批量刷新固定在本地的热点商品（一次MGET）
+     * 失效通知丢失时，热点商品的本地数据最多延迟 refresh-ms
+     */
+    @Scheduled(fixedDelayString = "${seckill.hotkey.refresh-ms:5000}")
+    public void refreshHot() {
+        if (hotEntries.isEmpty()) {
+            return;
+        }
+        // 已降级但被并发写回的条目在这里清理
+        hotEntries.keySet().retainAll(hotGoodsIds);
+        List<Long> goodsIds = new ArrayList<>(hotEntries.keySet());
+        if (goodsIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = goodsIds.stream()
+                .map(RedisKeyConstant::getSeckillGoodsVoKey)
+                .collect(Collectors.toList());
+        try {
+            List<CacheEntry> values = seckillGoodsEntryRedisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; i < goodsIds.size(); i++) {
+                CacheEntry entry = values == null ? null : values.get(i);
+                if (entry != null) {
+                    hotEntries.replace(goodsIds.get(i), entry);
+                } else {
+                    // L2已失效（商品修改、删除）：交给正常读取流程加载，加载后重新固定
+                    hotEntries.remove(goodsIds.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("刷新热点秒杀商品缓存失败，数量: {}, 错误: {}", goodsIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 本地缓存统计
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = localCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", localCache.size());
+        result.put("maxSize", localMaxSize);
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("hotGoodsCount", hotGoodsIds.size());
+        result.put("hotPinnedCount", hotEntries.size());
+        result.put("loadingCount", loadingFutures.size());
+        result.put("dbLoadCount", dbLoadCount.sum());
+        result.put("singleFlightWaitCount", singleFlightWaitCount.sum());
+        result.put("earlyRefreshCount", earlyRefreshCount.sum());
+        result.put("staleServedCount", staleServedCount.sum());
+        result.put("negativeHitCount", negativeHitCount.sum());
+        return result;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (INVALIDATE_ALL.equals(body)) {
+            evictAllLocal();
+            log.info("收到秒杀商品缓存全部失效通知，已清除本地缓存");
+            return;
+        }
+        try {
+            evictLocal(Long.valueOf(body));
+            log.debug("收到秒杀商品缓存失效通知，商品ID: {}", body);
+        } catch (NumberFormatException e) {
+            log.warn("秒杀商品缓存失效通知格式错误: {}", body);
+        }
+    }
+
+    /**
+     * 读取本地条目：先读固定的热点条目，再读L1
+     */
+    private CacheEntry getLocal(Long goodsId) {
+        CacheEntry entry = hotEntries.get(goodsId);
+        return entry != null ? entry : localCache.getIfPresent(goodsId);
+    }
+
+    /**
+     * 写入本地条目：热点商品同时固定在本地
+     */
+    private void putLocal(Long goodsId, CacheEntry entry) {
+        localCache.put(goodsId, entry);
+        if (hotGoodsIds.contains(goodsId)) {
+            hotEntries.put(goodsId, entry);
+        }
+    }
+
+    /**
+     * 热点晋升：已有本地或L2条目时立即固定，否则等下一次加载后固定
+     */
+    private void pinHot(Long goodsId) {
+        hotGoodsIds.add(goodsId);
+        CacheEntry entry = localCache.getIfPresent(goodsId);
+        if (entry == null) {
+            entry = getFromRedis(goodsId);
+        }
+        if (entry != null) {
+            putLocal(goodsId, entry);
+        }
+        log.info("热点秒杀商品固定到本地缓存，商品ID: {}", goodsId);
+    }
+
+    private void evictLocal(Long goodsId) {
+        hotEntries.remove(goodsId);
+        localCache.invalidate(goodsId);
+        evictionListeners.forEach(listener -> listener.accept(goodsId));
+    }
+
+    private void evictAllLocal() {
+        hotEntries.clear();
+        localCache.invalidateAll();
+        evictionListeners.forEach(listener -> listener.accept(null));
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expireAt 时提前刷新
+     * delta为上次加载耗时，ln(rand) 为负数，越接近过期、加载越慢，触发概率越高
+     */
+    private boolean shouldRefreshEarly(CacheEntry entry, long now) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double delta = Math.max(entry.getLoadCostMs(), 1);
+        double random = ThreadLocalRandom.current().nextDouble();
+        return now - delta * earlyRefreshBeta * Math.log(random) >= entry.getExpireAt();
+    }
+
+    /**
+     * 后台刷新（已有加载任务时不重复提交）
+     */
+    private void refreshAsync(Long goodsId, long previousExpireAt) {
+        submitLoad(goodsId, previousExpireAt);
+    }
+
+    /**
+     * 等待加载结果（未命中时调用）
+     */
+    private CacheEntry awaitLoad(Long goodsId, long previousExpireAt) {
+        CompletableFuture<CacheEntry> future = submitLoad(goodsId, previousExpireAt);
+        try {
+            return future.get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("系统繁忙，请稍后重试");
+        } catch (TimeoutException e) {
+            log.warn("等待秒杀商品加载超时，商品ID: {}", goodsId);
+            throw new RuntimeException("系统繁忙，请稍后重试");
+        } catch (ExecutionException e) {
+            log.error("秒杀商品加载失败，商品ID: {}, 错误: {}", goodsId, e.getCause().getMessage());
+            throw new RuntimeException("系统繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 提交加载任务：同一商品在本节点同时只有一个加载任务
+     */
+    private CompletableFuture<CacheEntry> submitLoad(Long goodsId, long previousExpireAt) {
+        CompletableFuture<CacheEntry> future = loadingFutures.get(goodsId);
+        if (future != null) {
+            singleFlightWaitCount.increment();
+            return future;
+        }
+
+        CompletableFuture<CacheEntry> created = new CompletableFuture<>();
+        future = loadingFutures.putIfAbsent(goodsId, created);
+        if (future != null) {
+            singleFlightWaitCount.increment();
+            return future;
+        }
+
+        loadExecutor.execute(() -> {
+            try {
+                created.complete(loadWithMutex(goodsId, previousExpireAt));
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                loadingFutures.remove(goodsId, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * 在跨节点互斥锁保护下加载
+     * 未获取到锁说明其他节点正在加载，轮询Redis等待其结果；等待超时后本节点自行加载
+     *
+     * @param previousExpireAt 旧值的逻辑过期时间，Redis中出现更新的值即视为其他节点已加载完成
+     */
+    private CacheEntry loadWithMutex(Long goodsId, long previousExpireAt) throws InterruptedException {
+        String lockKey = RedisKeyConstant.getSeckillGoodsLoadLockKey(goodsId);
+        boolean locked = redissonLockUtil.tryLock(lockKey, 0, mutexLeaseMs, TimeUnit.MILLISECONDS);
+        try {
+            long deadline = System.currentTimeMillis() + mutexLeaseMs;
+            while (!locked && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+                CacheEntry loaded = getFromRedis(goodsId);
+                if (loaded != null && loaded.getExpireAt() > previousExpireAt) {
+                    putLocal(goodsId, loaded);
+                    return loaded;
+                }
+            }
+
+            // 双重检查：获取锁期间其他节点可能已经完成加载
+            CacheEntry current = getFromRedis(goodsId);
+            if (current != null && current.getExpireAt() > previousExpireAt
+                    && current.getExpireAt() > System.currentTimeMillis()) {
+                putLocal(goodsId, current);
+                return current;
+            }
+
+            long startTime = System.currentTimeMillis();
+            SeckillGoodsVO vo = loadFromDb(goodsId);
+            dbLoadCount.increment();
+            long loadCostMs = System.currentTimeMillis() - startTime;
+
+            // 不存在的商品写入短时空值条目，防止反复回源
+            long ttlSeconds = vo == null ? negativeTtlSeconds : redisTtlSeconds;
+            CacheEntry entry = new CacheEntry(vo, System.currentTimeMillis() + ttlSeconds * 1000, loadCostMs);
+            putToRedis(goodsId, entry);
+            putLocal(goodsId, entry);
+            return entry;
+        } finally {
+            if (locked) {
+                redissonLockUtil.unlock(lockKey);
+            }
+        }
+    }
+
+    private CacheEntry getFromRedis(Long goodsId) {
+        try {
+            return seckillGoodsEntryRedisTemplate.opsForValue().get(RedisKeyConstant.getSeckillGoodsVoKey(goodsId));
+        } catch (Exception e) {
+            log.warn("读取秒杀商品缓存失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putToRedis(Long goodsId, CacheEntry entry) {
+        // 空值条目不保留过期后的旧值
+        long expireSeconds = entry.getData() == null ? negativeTtlSeconds : redisTtlSeconds + staleTtlSeconds;
+        try {
+            seckillGoodsEntryRedisTemplate.opsForValue().set(RedisKeyConstant.getSeckillGoodsVoKey(goodsId),
+                    entry, expireSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入秒杀商品缓存失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+        }
+    }
+
+    /**
+     * 从MySQL组装秒杀商品基础信息
+     */
+    private SeckillGoodsVO loadFromDb(Long goodsId) {
+        log.info("秒杀商品缓存未命中，从数据库加载，商品ID: {}", goodsId);
+        SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
+                new QueryWrapper<SeckillGoods>().eq("goods_id", goodsId)
+        );
+        if (seckillGoods == null) {
+            return null;
+        }
+
+        SeckillGoodsVO vo = new SeckillGoodsVO();
+        BeanUtils.copyProperties(seckillGoods, vo);
+        Goods goods = goodsMapper.selectById(goodsId);
+        if (goods != null) {
+            vo.setGoodsName(goods.getName());
+            vo.setGoodsTitle(goods.getTitle());
+            vo.setGoodsImg(goods.getImg());
+            vo.setGoodsDetail(goods.getDetail());
+            vo.setGoodsPrice(goods.getPrice());
+        }
+        // 库存和状态每次请求实时计算，不进入缓存
+        vo.setStockCount(null);
+        vo.setStatus(null);
+        vo.setRemainSeconds(null);
+        vo.setEndRemainSeconds(null);
+        return vo;
+    }
+
+    private static SeckillGoodsVO copyOf(SeckillGoodsVO source) {
+        SeckillGoodsVO copy = new SeckillGoodsVO();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    /**
+     * 缓存条目：商品基础信息 + 逻辑过期时间 + 加载耗时（用于提前刷新）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CacheEntry {
+        private SeckillGoodsVO data;
+        private long expireAt;
+        private long loadCostMs;
+    }
+}
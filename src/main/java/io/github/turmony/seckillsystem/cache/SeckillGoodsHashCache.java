@@ -0,0 +1,230 @@
+package io.github.turmony.seckillsystem.cache;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 秒杀活动数据缓存
+ * 以Hash结构保存秒杀商品的每个属性（一个字段一个属性），读取时用HMGET只取需要的字段，修改时只写变化的字段
+ *
+ * Key格式: seckill:goods:{goodsId}
+ * 字段值统一使用字符串存储，时间使用毫秒时间戳（Lua脚本可直接与 TIME 比较）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsHashCache {
+
+    public static final String FIELD_ID = "id";
+    public static final String FIELD_GOODS_ID = "goodsId";
+    public static final String FIELD_NAME = "name";
+    public static final String FIELD_SECKILL_PRICE = "seckillPrice";
+    public static final String FIELD_STOCK_COUNT = "stockCount";
+    public static final String FIELD_START_TIME = "startTime";
+    public static final String FIELD_END_TIME = "endTime";
+    public static final String FIELD_STATUS = "status";
+    public static final String FIELD_VERSION = "version";
+    public static final String FIELD_CREATE_TIME = "createTime";
+    public static final String FIELD_UPDATE_TIME = "updateTime";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 写入完整的秒杀商品（整体替换旧Key，兼容升级前的字符串格式，也清除已不存在的字段）
+     *
+     * @param seckillGoods 秒杀商品
+     */
+    public void put(SeckillGoods seckillGoods) {
+        putAll(List.of(seckillGoods));
+    }
+
+    /**
+     * 批量写入完整的秒杀商品（一次Pipeline）
+     *
+     * @param seckillGoodsList 秒杀商品列表
+     */
+    public void putAll(List<SeckillGoods> seckillGoodsList) {
+        if (seckillGoodsList == null || seckillGoodsList.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                String tempSuffix = newTempSuffix();
+                for (SeckillGoods seckillGoods : seckillGoodsList) {
+                    replaceInPipeline(operations, RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId()),
+                            toHash(seckillGoods), tempSuffix);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 在调用方的Pipeline中整体替换一个商品的Hash：先写入临时Key再RENAME
+     * RENAME是原子的，下单读取活动数据时要么读到旧Hash要么读到新Hash，不会遇到Key已删除、新字段尚未写入的空窗
+     *
+     * @param operations Pipeline中的操作对象
+     * @param key        商品Hash Key
+     * @param hash       完整字段
+     * @param tempSuffix 临时Key后缀（newTempSuffix 生成，同一批次共用）
+     */
+    public static void replaceInPipeline(RedisOperations<String, String> operations, String key,
+                                         Map<String, String> hash, String tempSuffix) {
+        if (hash.isEmpty()) {
+            operations.delete(key);
+            return;
+        }
+        String tempKey = key + tempSuffix;
+        operations.opsForHash().putAll(tempKey, hash);
+        operations.rename(tempKey, key);
+    }
+
+    /**
+     * 生成本批次整体替换使用的临时Key后缀，不同节点/线程同时写入同一商品时互不覆盖
+     */
+    public static String newTempSuffix() {
+        return ":tmp:" + UUID.randomUUID();
+    }
+
+    /**
+     * Key不存在时写入完整的秒杀商品（已存在时不删除重写，避免进行中的活动出现短暂的Key缺失）
+     *
+     * @param seckillGoods 秒杀商品
+     * @return 是否写入
+     */
+    public boolean putIfAbsent(SeckillGoods seckillGoods) {
+        String key = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return false;
+        }
+        stringRedisTemplate.opsForHash().putAll(key, toHash(seckillGoods));
+        return true;
+    }
+
+    /**
+     * 只更新非null的字段，不重写整个对象
+     * Key不存在时不写入，避免产生只有部分字段的残缺Hash
+     *
+     * @param seckillGoods 包含变化字段的秒杀商品（goodsId必填）
+     * @return Key存在并已更新返回true；Key不存在返回false，由调用方写入完整数据
+     */
+    public boolean updateFields(SeckillGoods seckillGoods) {
+        String key = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+            return false;
+        }
+        Map<String, String> fields = toHash(seckillGoods);
+        if (!fields.isEmpty()) {
+            stringRedisTemplate.opsForHash().putAll(key, fields);
+        }
+        return true;
+    }
+
+    /**
+     * 按字段读取（HMGET）
+     *
+     * @param goodsId 商品ID
+     * @param fields  需要的字段，如 FIELD_START_TIME、FIELD_END_TIME
+     * @return 只填充了所需字段的秒杀商品；Key不存在（所有字段都为null）时返回null
+     */
+    public SeckillGoods get(Long goodsId, String... fields) {
+        try {
+            List<Object> values = stringRedisTemplate.opsForHash()
+                    .multiGet(RedisKeyConstant.getSeckillGoodsKey(goodsId), Arrays.asList((Object[]) fields));
+            Map<String, String> hash = new HashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                Object value = values.get(i);
+                if (value != null) {
+                    hash.put(fields[i], (String) value);
+                }
+            }
+            return hash.isEmpty() ? null : fromHash(hash);
+        } catch (Exception e) {
+            log.warn("读取秒杀活动数据失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 秒杀商品转Hash（只包含非null字段）
+     */
+    public static Map<String, String> toHash(SeckillGoods seckillGoods) {
+        Map<String, String> hash = new HashMap<>();
+        putIfNotNull(hash, FIELD_ID, seckillGoods.getId());
+        putIfNotNull(hash, FIELD_GOODS_ID, seckillGoods.getGoodsId());
+        putIfNotNull(hash, FIELD_NAME, seckillGoods.getName());
+        putIfNotNull(hash, FIELD_SECKILL_PRICE, seckillGoods.getSeckillPrice() == null
+                ? null : seckillGoods.getSeckillPrice().toPlainString());
+        putIfNotNull(hash, FIELD_STOCK_COUNT, seckillGoods.getStockCount());
+        putIfNotNull(hash, FIELD_START_TIME, toMillis(seckillGoods.getStartTime()));
+        putIfNotNull(hash, FIELD_END_TIME, toMillis(seckillGoods.getEndTime()));
+        putIfNotNull(hash, FIELD_STATUS, seckillGoods.getStatus());
+        putIfNotNull(hash, FIELD_VERSION, seckillGoods.getVersion());
+        putIfNotNull(hash, FIELD_CREATE_TIME, toMillis(seckillGoods.getCreateTime()));
+        putIfNotNull(hash, FIELD_UPDATE_TIME, toMillis(seckillGoods.getUpdateTime()));
+        return hash;
+    }
+
+    /**
+     * Hash转秒杀商品（缺少的字段为null）
+     */
+    public static SeckillGoods fromHash(Map<String, String> hash) {
+        SeckillGoods seckillGoods = new SeckillGoods();
+        seckillGoods.setId(toLong(hash.get(FIELD_ID)));
+        seckillGoods.setGoodsId(toLong(hash.get(FIELD_GOODS_ID)));
+        seckillGoods.setName(hash.get(FIELD_NAME));
+        String price = hash.get(FIELD_SECKILL_PRICE);
+        seckillGoods.setSeckillPrice(price == null ? null : new BigDecimal(price));
+        seckillGoods.setStockCount(toInteger(hash.get(FIELD_STOCK_COUNT)));
+        seckillGoods.setStartTime(toTime(hash.get(FIELD_START_TIME)));
+        seckillGoods.setEndTime(toTime(hash.get(FIELD_END_TIME)));
+        seckillGoods.setStatus(toInteger(hash.get(FIELD_STATUS)));
+        seckillGoods.setVersion(toInteger(hash.get(FIELD_VERSION)));
+        seckillGoods.setCreateTime(toTime(hash.get(FIELD_CREATE_TIME)));
+        seckillGoods.setUpdateTime(toTime(hash.get(FIELD_UPDATE_TIME)));
+        return seckillGoods;
+    }
+
+    private static void putIfNotNull(Map<String, String> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, String.valueOf(value));
+        }
+    }
+
+    private static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Long toLong(String value) {
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    private static Integer toInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static LocalDateTime toTime(String millis) {
+        return millis == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault());
+    }
+}
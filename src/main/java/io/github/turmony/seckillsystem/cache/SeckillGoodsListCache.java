@@ -0,0 +1,210 @@
+package io.github.turmony.seckillsystem.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.util.RedissonLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀商品列表索引
+ *
+ * 使用 ZSET seckill:goods:list 保存全部秒杀商品ID，score为创建时间（毫秒），
+ * 列表页按score倒序分页（ZREVRANGE），总数取 ZCARD，不再执行 COUNT + LIMIT 查询
+ *
+ * 由商品新增/修改/删除及预热维护；索引不存在时从MySQL重建（只查询 goods_id 和 create_time）
+ *
+ * 重建完成的索引总是包含一个标记成员（score 为 -inf，不是商品ID），用于区分"已构建但没有商品"和"索引不存在"；
+ * 每次重建使用独立的临时Key，多个节点/线程同时重建不会互相覆盖，从MySQL重建时通过Redisson分布式锁只由一个节点执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsListCache {
+
+    /**
+     * 索引已构建的标记成员
+     */
+    private static final String BUILT_MARKER = "built";
+
+    /**
+     * 从MySQL重建索引的分布式锁
+     */
+    private static final String REBUILD_LOCK = "seckill:lock:goods:list:rebuild";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final RedissonLockUtil redissonLockUtil;
+
+    /**
+     * 分页读取商品ID（按创建时间倒序）
+     *
+     * @param offset 起始位置
+     * @param size   数量
+     * @return 商品ID列表
+     */
+    public List<Long> page(long offset, long size) {
+        ensureBuilt();
+        Set<String> members = stringRedisTemplate.opsForZSet()
+                .reverseRange(RedisKeyConstant.SECKILL_GOODS_LIST, offset, offset + size - 1);
+        if (members == null || members.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> goodsIds = new ArrayList<>(members.size());
+        for (String member : members) {
+            if (!BUILT_MARKER.equals(member)) {
+                goodsIds.add(Long.valueOf(member));
+            }
+        }
+        return goodsIds;
+    }
+
+    /**
+     * 商品总数
+     */
+    public long count() {
+        Long count = stringRedisTemplate.opsForZSet().zCard(RedisKeyConstant.SECKILL_GOODS_LIST);
+        if (count == null || count == 0) {
+            return 0;
+        }
+        return isBuilt() ? count - 1 : count;
+    }
+
+    /**
+     * 新增商品时加入索引
+     */
+    public void add(SeckillGoods seckillGoods) {
+        stringRedisTemplate.opsForZSet().add(RedisKeyConstant.SECKILL_GOODS_LIST,
+                seckillGoods.getGoodsId().toString(), scoreOf(seckillGoods));
+    }
+
+    /**
+     * 修改商品时确保在索引中（已存在时保持原有排序）
+     */
+    public void addIfAbsent(SeckillGoods seckillGoods) {
+        stringRedisTemplate.opsForZSet().addIfAbsent(RedisKeyConstant.SECKILL_GOODS_LIST,
+                seckillGoods.getGoodsId().toString(), scoreOf(seckillGoods));
+    }
+
+    /**
+     * 删除商品时移出索引
+     */
+    public void remove(Long goodsId) {
+        stringRedisTemplate.opsForZSet().remove(RedisKeyConstant.SECKILL_GOODS_LIST, goodsId.toString());
+    }
+
+    /**
+     * 用给定的商品全量重建索引
+     * 先写入临时Key再RENAME，重建过程中列表页不会读到不完整的数据
+     *
+     * @param seckillGoodsList 全部秒杀商品
+     */
+    public void rebuild(List<SeckillGoods> seckillGoodsList) {
+        String tempKey = beginRebuild();
+        boolean finished = false;
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                    RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                    for (SeckillGoods seckillGoods : seckillGoodsList) {
+                        addToRebuild(operations, tempKey, seckillGoods);
+                    }
+                    return null;
+                }
+            });
+            finishRebuild(tempKey, seckillGoodsList.size());
+            finished = true;
+        } finally {
+            if (!finished) {
+                abortRebuild(tempKey);
+            }
+        }
+    }
+
+    /**
+     * 开始分批重建：生成本次重建专用的临时Key
+     * 预热引擎在各批次的Pipeline中调用 addToRebuild 写入临时Key，全部完成后调用 finishRebuild，失败时调用 abortRebuild
+     */
+    public String beginRebuild() {
+        return RedisKeyConstant.SECKILL_GOODS_LIST + ":rebuild:" + UUID.randomUUID();
+    }
+
+    /**
+     * 在调用方的Pipeline中把商品写入重建临时Key
+     */
+    public void addToRebuild(RedisOperations<String, String> operations, String tempKey, SeckillGoods seckillGoods) {
+        operations.opsForZSet().add(tempKey, seckillGoods.getGoodsId().toString(), scoreOf(seckillGoods));
+    }
+
+    /**
+     * 完成重建：写入已构建标记后用临时Key替换正式索引
+     * 没有商品时临时Key中只有标记，替换后列表为空但不会被当作索引不存在而反复从MySQL重建
+     *
+     * @param tempKey 临时Key
+     * @param count   写入的商品数
+     */
+    public void finishRebuild(String tempKey, long count) {
+        stringRedisTemplate.opsForZSet().add(tempKey, BUILT_MARKER, Double.NEGATIVE_INFINITY);
+        stringRedisTemplate.rename(tempKey, RedisKeyConstant.SECKILL_GOODS_LIST);
+        log.info("秒杀商品列表索引重建完成，商品数: {}", count);
+    }
+
+    /**
+     * 放弃重建：删除临时Key
+     */
+    public void abortRebuild(String tempKey) {
+        stringRedisTemplate.delete(tempKey);
+    }
+
+    /**
+     * 索引未构建时从MySQL重建
+     * 只有新增商品写入的不完整索引（缺少标记）同样视为未构建
+     */
+    private void ensureBuilt() {
+        if (isBuilt()) {
+            return;
+        }
+        // 等待其他节点的重建完成；超时后直接读取当前索引，不阻塞列表页
+        if (!redissonLockUtil.tryLock(REBUILD_LOCK, 3, 30, TimeUnit.SECONDS)) {
+            return;
+        }
+        try {
+            if (isBuilt()) {
+                return;
+            }
+            log.info("秒杀商品列表索引不存在，从数据库重建");
+            rebuild(seckillGoodsMapper.selectList(
+                    new QueryWrapper<SeckillGoods>().select("goods_id", "create_time")));
+        } finally {
+            redissonLockUtil.unlock(REBUILD_LOCK);
+        }
+    }
+
+    private boolean isBuilt() {
+        return stringRedisTemplate.opsForZSet().score(RedisKeyConstant.SECKILL_GOODS_LIST, BUILT_MARKER) != null;
+    }
+
+    private static double scoreOf(SeckillGoods seckillGoods) {
+        LocalDateTime createTime = seckillGoods.getCreateTime() != null
+                ? seckillGoods.getCreateTime() : LocalDateTime.now();
+        return createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
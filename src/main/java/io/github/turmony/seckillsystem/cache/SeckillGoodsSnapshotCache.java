@@ -0,0 +1,168 @@
+package io.github.turmony.seckillsystem.cache;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.github.turmony.seckillsystem.common.Result;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 秒杀商品静态数据快照（预序列化JSON + ETag）
+ *
+ * 商品详情和列表页除库存、秒杀状态、倒计时外对所有用户都相同，
+ * 这部分按 Result 结构提前序列化成字节数组，并以内容哈希作为ETag：
+ * 1. 客户端带 If-None-Match 且ETag一致时直接返回304，不再传输响应体
+ * 2. 库存、状态、倒计时通过 /dynamic 接口单独获取，响应体很小
+ *
+ * 商品缓存本地失效时（修改/删除/跨节点通知）同步清除对应详情快照和全部列表快照
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsSnapshotCache {
+
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillGoodsListCache seckillGoodsListCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 快照过期时间(秒)，列表页新增商品（ZSET变化）最多延迟这么久可见
+     */
+    @Value("${seckill.goods.snapshot.ttl:10}")
+    private long ttlSeconds;
+
+    @Value("${seckill.goods.snapshot.max-size:1000}")
+    private long maxSize;
+
+    private Cache<Long, Snapshot> detailSnapshots;
+
+    /**
+     * 列表快照，Key: 页码:每页大小
+     */
+    private Cache<String, Snapshot> listSnapshots;
+
+    private final LongAdder renderCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        detailSnapshots = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        listSnapshots = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        seckillGoodsCache.addEvictionListener(goodsId -> {
+            if (goodsId == null) {
+                detailSnapshots.invalidateAll();
+            } else {
+                detailSnapshots.invalidate(goodsId);
+            }
+            // 无法确定商品在哪一页，列表快照全部清除
+            listSnapshots.invalidateAll();
+        });
+    }
+
+    /**
+     * 获取商品详情快照
+     *
+     * @param goodsId 商品ID
+     * @return 快照，商品不存在时返回null
+     */
+    public Snapshot getDetail(Long goodsId) {
+        Snapshot snapshot = detailSnapshots.getIfPresent(goodsId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        SeckillGoodsVO vo = seckillGoodsCache.get(goodsId);
+        if (vo == null) {
+            return null;
+        }
+        snapshot = render(Result.success(vo));
+        detailSnapshots.put(goodsId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * 获取列表页快照
+     *
+     * @param current 当前页
+     * @param size    每页大小
+     * @return 快照
+     */
+    public Snapshot getList(long current, long size) {
+        try {
+            return listSnapshots.get(current + ":" + size, () -> {
+                List<Long> goodsIds = seckillGoodsListCache.page((current - 1) * size, size);
+                Page<SeckillGoodsVO> page = new Page<>(current, size, seckillGoodsListCache.count());
+                page.setRecords(goodsIds.isEmpty() ? new ArrayList<>() : seckillGoodsCache.multiGet(goodsIds));
+                return render(Result.success(page));
+            });
+        } catch (ExecutionException e) {
+            throw new RuntimeException("生成商品列表快照失败", e.getCause());
+        }
+    }
+
+    /**
+     * 快照统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("detailSize", detailSnapshots.size());
+        stats.put("detailHitRate", detailSnapshots.stats().hitRate());
+        stats.put("listSize", listSnapshots.size());
+        stats.put("listHitRate", listSnapshots.stats().hitRate());
+        stats.put("renderCount", renderCount.sum());
+        return stats;
+    }
+
+    private Snapshot render(Result<?> result) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(result);
+            renderCount.increment();
+            return new Snapshot(body, "\"" + Hashing.murmur3_128().hashBytes(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化商品快照失败", e);
+        }
+    }
+
+    /**
+     * 预序列化的响应体及其ETag
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        /**
+         * JSON响应体（库存、状态、倒计时字段为null）
+         */
+        private byte[] body;
+
+        /**
+         * 响应体内容哈希（带双引号的强ETag）
+         */
+        private String etag;
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.turmony.seckillsystem.cache;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 库存账本（对账用计数器）
+ *
+ * Key格式: seckill:stock:ledger:{goodsId}（Hash）
+ * - initial：库存初始化（预热、新增、重置）时的库存，由初始化Lua脚本与写入库存在同一个原子操作中重置（LuaScriptUtil.initStock）
+ * - deducted：累计扣减数，由扣减Lua脚本与DECRBY在同一个原子操作中累加
+ * - rolledBack：累计回滚数，由回滚Lua脚本与INCRBY在同一个原子操作中累加（按订单ID幂等）
+ * - success：累计成功订单数，订单处理成功且事务提交后累加
+ *
+ * 不变式：initial = 剩余库存 + 处理中（deducted - rolledBack - success）+ success
+ * 库存每次被重新初始化时账本一起重置，对账只看本次初始化之后的变化
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillStockLedger {
+
+    public static final String FIELD_INITIAL = "initial";
+    public static final String FIELD_DEDUCTED = "deducted";
+    public static final String FIELD_ROLLED_BACK = "rolledBack";
+    public static final String FIELD_SUCCESS = "success";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 记录一个成功订单
+     * 如果当前处于事务中，则在事务提交后再累加，事务回滚时不计数
+     *
+     * @param goodsId 商品ID
+     */
+    public void recordSuccess(Long goodsId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementSuccess(goodsId);
+                }
+            });
+        } else {
+            incrementSuccess(goodsId);
+        }
+    }
+
+    private void incrementSuccess(Long goodsId) {
+        try {
+            stringRedisTemplate.opsForHash().increment(RedisKeyConstant.getSeckillStockLedgerKey(goodsId),
+                    FIELD_SUCCESS, 1);
+        } catch (Exception e) {
+            // 计数失败只影响对账结果（表现为数据库偏差），不影响订单
+            log.warn("库存账本累加成功订单数失败，商品ID: {}, 错误: {}", goodsId, e.getMessage());
+        }
+    }
+}
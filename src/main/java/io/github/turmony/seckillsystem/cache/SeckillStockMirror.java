@@ -0,0 +1,416 @@
+package io.github.turmony.seckillsystem.cache;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.util.RedisUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本节点库存镜像（只用于展示）
+ *
+ * 商品详情、列表展示的库存允许几百毫秒的延迟，从本地镜像读取，不再每次访问Redis；
+ * 库存扣减仍然只走Redis Lua脚本，与镜像无关
+ *
+ * 数据结构：开放寻址哈希表，goodsId 和库存都是 long 原始类型，不产生装箱对象
+ * 1. 商品集合变化（新增商品）时复制出新表整体替换（写少）
+ * 2. 库存更新直接写 AtomicLongArray 对应槽位，读取无锁
+ *
+ * 数据来源：
+ * 1. 预热时写入
+ * 2. Redis键空间通知（库存Key被修改时标记为脏，每隔 notify-flush-ms 对脏槽位做一次MGET）；
+ *    需要在Redis服务端预先配置 notify-keyspace-events（至少包含 K$g），应用启动时只检查、不修改服务端配置
+ * 3. 定时对全部商品做批量MGET兜底（通知丢失、未开启键空间通知时）
+ * 4. HotKeyDetector 探测到热点库存Key时，不在镜像中的商品立即读一次Redis加入镜像（之后随定时刷新）
+ *
+ * 超过 max-stale-ms 未刷新的槽位视为未命中，由调用方直接读Redis
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillStockMirror implements MessageListener {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int MGET_BATCH_SIZE = 500;
+    private static final String NOTIFY_CONFIG = "notify-keyspace-events";
+
+    private final RedisUtil redisUtil;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final HotKeyDetector hotKeyDetector;
+
+    @Value("${seckill.stock.mirror.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 镜像数据最大允许延迟（毫秒），超过则读Redis
+     */
+    @Value("${seckill.stock.mirror.max-stale-ms:3000}")
+    private long maxStaleMs;
+
+    /**
+     * 是否订阅库存Key的键空间通知（前提：Redis服务端已配置 notify-keyspace-events 包含 K$g）
+     */
+    @Value("${seckill.stock.mirror.keyspace-notify:false}")
+    private boolean keyspaceNotify;
+
+    @Value("${spring.data.redis.database:0}")
+    private int database;
+
+    /**
+     * 当前哈希表，商品集合变化时整体替换
+     */
+    private volatile Table table = new Table(16);
+
+    /**
+     * 是否有被通知标记为脏的槽位
+     */
+    private volatile boolean dirty;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder notifyCount = new LongAdder();
+    private final LongAdder refreshKeyCount = new LongAdder();
+    private final LongAdder hotPromotedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            hotKeyDetector.addPromotionListener(this::onHotKey);
+        }
+        if (!enabled || !keyspaceNotify) {
+            return;
+        }
+        try {
+            // 只检查服务端配置，不执行 CONFIG SET：notify-keyspace-events 是整个Redis实例的配置，由运维统一设置
+            String current = stringRedisTemplate.execute((RedisCallback<String>) connection -> {
+                Properties config = connection.serverCommands().getConfig(NOTIFY_CONFIG);
+                return config == null ? "" : config.getProperty(NOTIFY_CONFIG, "");
+            });
+            String required = mergeNotifyFlags(current);
+            if (!required.equals(current)) {
+                log.warn("Redis未开启库存镜像需要的键空间通知（当前 {}: \"{}\"，需要设置为 \"{}\"），库存镜像只依赖定时刷新",
+                        NOTIFY_CONFIG, current, required);
+            }
+        } catch (Exception e) {
+            // 云Redis等不允许CONFIG命令时无法检查，需要确认服务端已开启
+            log.warn("无法读取Redis {} 配置，请确认服务端已开启库存Key的键空间通知，错误: {}", NOTIFY_CONFIG, e.getMessage());
+        }
+        String pattern = "__keyspace@" + database + "__:" + RedisKeyConstant.SECKILL_STOCK_PREFIX + "*";
+        redisMessageListenerContainer.addMessageListener(this, new PatternTopic(pattern));
+        log.info("库存镜像订阅键空间通知: {}", pattern);
+    }
+
+    /**
+     * 计算满足库存镜像需要的 notify-keyspace-events：在现有配置上补充缺少的标记
+     * K: 键空间通知，$: 字符串命令（SET/DECRBY/INCRBY），g: 通用命令（DEL/EXPIRE）；A 已包含 $ 和 g
+     *
+     * @param current 服务端当前配置
+     * @return 需要设置的配置，已满足时原样返回
+     */
+    static String mergeNotifyFlags(String current) {
+        StringBuilder merged = new StringBuilder(current == null ? "" : current);
+        boolean all = merged.indexOf("A") >= 0;
+        for (char flag : new char[]{'K', '$', 'g'}) {
+            if (merged.indexOf(String.valueOf(flag)) < 0 && (flag == 'K' || !all)) {
+                merged.append(flag);
+            }
+        }
+        return merged.toString();
+    }
+
+    /**
+     * 读取镜像库存
+     *
+     * @param goodsId 商品ID
+     * @return 库存；不在镜像中或已超过最大延迟时返回null
+     */
+    public Long get(Long goodsId) {
+        if (!enabled || goodsId == null) {
+            return null;
+        }
+        Table current = table;
+        int index = current.indexOf(goodsId);
+        if (index < 0) {
+            missCount.increment();
+            return null;
+        }
+        long updatedAt = current.updatedAt.get(index);
+        if (updatedAt == 0 || System.currentTimeMillis() - updatedAt > maxStaleMs) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return current.values.get(index);
+    }
+
+    /**
+     * 写入库存（预热、调用方读Redis回填时调用）
+     *
+     * @param goodsId 商品ID
+     * @param stock   库存
+     */
+    public void put(Long goodsId, long stock) {
+        if (!enabled || goodsId == null || goodsId == EMPTY_KEY) {
+            return;
+        }
+        Table current = table;
+        int index = current.indexOf(goodsId);
+        if (index < 0) {
+            synchronized (this) {
+                current = table;
+                index = current.indexOf(goodsId);
+                if (index < 0) {
+                    current = current.copyWith(goodsId);
+                    index = current.indexOf(goodsId);
+                    table = current;
+                }
+            }
+        }
+        current.set(index, stock, System.currentTimeMillis());
+    }
+
+    /**
+     * 商品删除时移出镜像
+     *
+     * @param goodsId 商品ID
+     */
+    public synchronized void remove(Long goodsId) {
+        if (goodsId != null && table.indexOf(goodsId) >= 0) {
+            table = table.copyWithout(goodsId);
+        }
+    }
+
+    /**
+     * 键空间通知：只标记脏槽位，由定时任务合并成MGET，避免每次扣减都触发一次GET
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        int start = channel.indexOf(RedisKeyConstant.SECKILL_STOCK_PREFIX);
+        if (start < 0) {
+            return;
+        }
+        String suffix = channel.substring(start + RedisKeyConstant.SECKILL_STOCK_PREFIX.length());
+        // 同前缀下的回滚记录等Key不是库存
+        if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+            return;
+        }
+        Table current = table;
+        int index = current.indexOf(Long.parseLong(suffix));
+        if (index >= 0) {
+            current.dirty.set(index, 1);
+            dirty = true;
+            notifyCount.increment();
+        }
+    }
+
+    /**
+     * 刷新被通知修改过的库存
+     */
+    @Scheduled(fixedDelayString = "${seckill.stock.mirror.notify-flush-ms:100}")
+    public void flushDirty() {
+        if (!enabled || !dirty) {
+            return;
+        }
+        dirty = false;
+        Table current = table;
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != EMPTY_KEY && current.dirty.getAndSet(i, 0) == 1) {
+                indexes.add(i);
+            }
+        }
+        refresh(current, indexes);
+    }
+
+    /**
+     * 定时全量刷新（兜底）
+     */
+    @Scheduled(fixedDelayString = "${seckill.stock.mirror.refresh-ms:1000}")
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        Table current = table;
+        List<Integer> indexes = new ArrayList<>(current.size);
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != EMPTY_KEY) {
+                indexes.add(i);
+            }
+        }
+        refresh(current, indexes);
+    }
+
+    /**
+     * 镜像统计
+     */
+    public Map<String, Object> getStats() {
+        Table current = table;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", current.size);
+        stats.put("capacity", current.keys.length);
+        stats.put("hitCount", hitCount.sum());
+        stats.put("missCount", missCount.sum());
+        stats.put("notifyCount", notifyCount.sum());
+        stats.put("refreshKeyCount", refreshKeyCount.sum());
+        stats.put("hotPromotedCount", hotPromotedCount.sum());
+        return stats;
+    }
+
+    /**
+     * 热点库存Key晋升：不在镜像中的商品读一次Redis加入镜像，之后的展示读取不再访问Redis
+     */
+    private void onHotKey(String key) {
+        Long goodsId = HotKeyDetector.stockGoodsIdOf(key);
+        if (goodsId == null || table.indexOf(goodsId) >= 0) {
+            return;
+        }
+        Long stock = redisUtil.getLong(key);
+        if (stock != null) {
+            put(goodsId, stock);
+            hotPromotedCount.increment();
+            log.info("热点商品库存加入本地镜像，商品ID: {}, 库存: {}", goodsId, stock);
+        }
+    }
+
+    /**
+     * 分批MGET刷新指定槽位；Key不存在的槽位标记为未加载
+     */
+    private void refresh(Table current, List<Integer> indexes) {
+        for (int from = 0; from < indexes.size(); from += MGET_BATCH_SIZE) {
+            List<Integer> batch = indexes.subList(from, Math.min(from + MGET_BATCH_SIZE, indexes.size()));
+            List<String> keys = new ArrayList<>(batch.size());
+            for (int index : batch) {
+                keys.add(RedisKeyConstant.getSeckillStockKey(current.keys[index]));
+            }
+            try {
+                List<Long> stocks = redisUtil.multiGetLong(keys);
+                long now = System.currentTimeMillis();
+                for (int i = 0; i < batch.size(); i++) {
+                    Long stock = stocks.get(i);
+                    current.set(batch.get(i), stock == null ? 0 : stock, stock == null ? 0 : now);
+                }
+                refreshKeyCount.add(batch.size());
+            } catch (Exception e) {
+                // 刷新失败时镜像数据逐渐超过最大延迟，读取自动回退到Redis
+                log.warn("刷新库存镜像失败，数量: {}, 错误: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 开放寻址哈希表（线性探测，负载因子不超过0.5）
+     * keys 创建后不再修改；values、updatedAt、dirty 按槽位原子更新
+     */
+    private static final class Table {
+
+        final long[] keys;
+        final AtomicLongArray values;
+        final AtomicLongArray updatedAt;
+        final AtomicIntegerArray dirty;
+        final int mask;
+        final int size;
+
+        Table(int capacity) {
+            this(newKeys(capacity), 0);
+        }
+
+        private Table(long[] keys, int size) {
+            this.keys = keys;
+            this.values = new AtomicLongArray(keys.length);
+            this.updatedAt = new AtomicLongArray(keys.length);
+            this.dirty = new AtomicIntegerArray(keys.length);
+            this.mask = keys.length - 1;
+            this.size = size;
+        }
+
+        int indexOf(long goodsId) {
+            int index = slot(goodsId, mask);
+            while (true) {
+                long key = keys[index];
+                if (key == goodsId) {
+                    return index;
+                }
+                if (key == EMPTY_KEY) {
+                    return -1;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        void set(int index, long value, long time) {
+            values.set(index, value);
+            updatedAt.set(index, time);
+        }
+
+        Table copyWith(long goodsId) {
+            int capacity = keys.length;
+            while ((size + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+            Table copy = rehash(capacity, size + 1, EMPTY_KEY);
+            copy.insert(goodsId);
+            return copy;
+        }
+
+        Table copyWithout(long goodsId) {
+            return rehash(keys.length, size - 1, goodsId);
+        }
+
+        /**
+         * 复制到指定容量的新表（跳过 excluded），库存和更新时间一并复制
+         */
+        private Table rehash(int capacity, int newSize, long excluded) {
+            Table copy = new Table(newKeys(capacity), newSize);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY_KEY && keys[i] != excluded) {
+                    int index = copy.insert(keys[i]);
+                    copy.set(index, values.get(i), updatedAt.get(i));
+                }
+            }
+            return copy;
+        }
+
+        private int insert(long goodsId) {
+            int index = slot(goodsId, mask);
+            while (keys[index] != EMPTY_KEY) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = goodsId;
+            return index;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY_KEY);
+            return keys;
+        }
+
+        private static int slot(long goodsId, int mask) {
+            long h = goodsId * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -35,4 +35,9 @@ public class MQConstant {
      * 死信路由键（可选）
      */
     public static final String SECKILL_DEAD_ROUTING_KEY = "seckill.order.dead";
-}
\ No newline at end of file
+
+    /**
+     * 秒杀订单监听器ID（用于运行期调整消费者并发）
+     */
+    public static final String SECKILL_LISTENER_ID = "seckillOrderListener";
+}
@@ -4,23 +4,77 @@ import java.lang.annotation.*;
 
 /**
  * 限流注解
- * 使用Guava的RateLimiter实现接口限流
+ * LOCAL：使用Guava的RateLimiter在本节点限流
+ * CLUSTER：所有节点共享Redis限流（见 ClusterRateLimiter），Redis不可用时降级为本地限流
+ *
+ * 可以在同一个方法上声明多个，先检查按用户/IP/商品的规则，再检查接口总量（同类规则按声明顺序），例如接口总量 + 每个用户：
+ * <pre>
+ * &#64;RateLimit(permitsPerSecond = 500)
+ * &#64;RateLimit(permitsPerSecond = 5, dimension = RateLimit.Dimension.USER)
+ * </pre>
  *
  * @author turmony
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
+@Repeatable(RateLimits.class)
 public @interface RateLimit {
 
     /**
-     * 每秒允许的请求数量
+     * 每秒允许的请求数量（dimension 不为 METHOD 时是每个用户/IP/商品各自的速率）
      * 默认1000个请求/秒
      */
     double permitsPerSecond() default 1000.0;
 
+    /**
+     * 限流范围，默认本节点
+     */
+    Scope scope() default Scope.LOCAL;
+
+    /**
+     * 限流维度，默认整个接口共用一个限流器
+     */
+    Dimension dimension() default Dimension.METHOD;
+
     /**
      * 限流失败时的提示信息
      */
     String message() default "系统繁忙，请稍后重试";
-}
\ No newline at end of file
+
+    /**
+     * 限流范围
+     */
+    enum Scope {
+        /**
+         * 每个节点独立限流，集群总速率 = permitsPerSecond × 节点数
+         */
+        LOCAL,
+        /**
+         * 集群共享限流，集群总速率 = permitsPerSecond
+         */
+        CLUSTER
+    }
+
+    /**
+     * 限流维度
+     */
+    enum Dimension {
+        /**
+         * 整个接口
+         */
+        METHOD,
+        /**
+         * 每个用户（登录拦截器写入的请求属性 userId），未登录的请求不受该限流器限制
+         */
+        USER,
+        /**
+         * 每个客户端IP（连接地址；部署在反向代理之后时需配置 server.forward-headers-strategy）
+         */
+        IP,
+        /**
+         * 每个商品（名为 goodsId 的参数，或带 getGoodsId() 的请求体参数）
+         */
+        GOODS
+    }
+}
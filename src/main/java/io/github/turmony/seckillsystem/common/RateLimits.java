@@ -0,0 +1,16 @@
+package io.github.turmony.seckillsystem.common;
+
+import java.lang.annotation.*;
+
+/**
+ * 同一个方法上声明多个 @RateLimit 时的容器注解
+ *
+ * @author turmony
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimits {
+
+    RateLimit[] value();
+}
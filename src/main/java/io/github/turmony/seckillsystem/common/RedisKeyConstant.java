@@ -11,17 +11,82 @@ public class RedisKeyConstant {
     public static final String SECKILL_TOKEN_PREFIX = "seckill:token:%s:%s";
 
     /**
-     * 秒杀商品缓存Key前缀
+     * 秒杀活动数据Key前缀（Hash，一个字段一个属性，时间为毫秒时间戳）
      * 完整格式: seckill:goods:{goodsId}
      */
     public static final String SECKILL_GOODS_PREFIX = "seckill:goods:";
 
+    /**
+     * 秒杀商品展示缓存Key前缀（组装好的VO，不含实时库存和状态）
+     * 完整格式: seckill:goods:vo:{goodsId}
+     */
+    public static final String SECKILL_GOODS_VO_PREFIX = "seckill:goods:vo:";
+
+    /**
+     * 秒杀活动已清理标记Key前缀（活动调度器清理活动数据时写入，带过期时间）
+     * 完整格式: seckill:goods:evicted:{goodsId}
+     */
+    public static final String SECKILL_GOODS_EVICTED_PREFIX = "seckill:goods:evicted:";
+
+    /**
+     * 秒杀商品缓存加载锁Key前缀
+     * 完整格式: seckill:lock:goods:load:{goodsId}
+     */
+    public static final String SECKILL_GOODS_LOAD_LOCK_PREFIX = "seckill:lock:goods:load:";
+
+    /**
+     * 冷订单归档任务锁（同一时间只有一个节点执行归档）
+     */
+    public static final String SECKILL_ORDER_ARCHIVE_LOCK = "seckill:lock:order:archive";
+
+    /**
+     * 秒杀商品缓存失效通知频道（Pub/Sub）
+     * 消息格式: {goodsId}，"*" 表示全部
+     */
+    public static final String SECKILL_GOODS_INVALIDATE_CHANNEL = "seckill:channel:goods:invalidate";
+
+    /**
+     * 秒杀商品布隆过滤器同步频道（Pub/Sub）
+     * 消息格式: add:{goodsId} 或 rebuild
+     */
+    public static final String SECKILL_GOODS_BLOOM_CHANNEL = "seckill:channel:goods:bloom";
+
     /**
      * 秒杀商品库存Key前缀
      * 完整格式: seckill:stock:{goodsId}
      */
     public static final String SECKILL_STOCK_PREFIX = "seckill:stock:";
 
+    /**
+     * 库存回滚记录Key前缀（Set，成员为已回滚的订单ID）
+     * 完整格式: seckill:stock:rollback:{goodsId}
+     */
+    public static final String SECKILL_STOCK_ROLLBACK_PREFIX = "seckill:stock:rollback:";
+
+    /**
+     * 库存账本Key前缀（Hash：initial-初始库存，deducted-累计扣减，rolledBack-累计回滚，success-累计成功订单）
+     * 完整格式: seckill:stock:ledger:{goodsId}
+     */
+    public static final String SECKILL_STOCK_LEDGER_PREFIX = "seckill:stock:ledger:";
+
+    /**
+     * 订单状态缓存Key前缀（Hash，字段为订单VO的各个属性）
+     * 完整格式: seckill:order:status:{orderId}
+     */
+    public static final String SECKILL_ORDER_STATUS_PREFIX = "seckill:order:status:";
+
+    /**
+     * 订单处理结果通知频道（Pub/Sub）
+     * 消息格式: {orderId}:{status}
+     */
+    public static final String SECKILL_ORDER_RESULT_CHANNEL = "seckill:channel:order:result";
+
+    /**
+     * 集群限流Key前缀（GCRA理论到达时间，微秒）
+     * 完整格式: seckill:ratelimit:{限流器名称}
+     */
+    public static final String SECKILL_RATE_LIMIT_PREFIX = "seckill:ratelimit:";
+
     /**
      * 秒杀商品列表Key
      * 用于缓存所有秒杀商品ID列表
@@ -58,6 +123,33 @@ public class RedisKeyConstant {
         return SECKILL_GOODS_PREFIX + goodsId;
     }
 
+    /**
+     * 获取秒杀商品展示缓存Key
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String getSeckillGoodsVoKey(Long goodsId) {
+        return SECKILL_GOODS_VO_PREFIX + goodsId;
+    }
+
+    /**
+     * 获取秒杀活动已清理标记Key
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String getSeckillGoodsEvictedKey(Long goodsId) {
+        return SECKILL_GOODS_EVICTED_PREFIX + goodsId;
+    }
+
+    /**
+     * 获取秒杀商品缓存加载锁Key（防止多个节点同时回源）
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String getSeckillGoodsLoadLockKey(Long goodsId) {
+        return SECKILL_GOODS_LOAD_LOCK_PREFIX + goodsId;
+    }
+
     /**
      * 获取秒杀库存Key
      * @param goodsId 商品ID
@@ -67,6 +159,42 @@ public class RedisKeyConstant {
         return SECKILL_STOCK_PREFIX + goodsId;
     }
 
+    /**
+     * 获取库存回滚记录Key
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String getSeckillStockRollbackKey(Long goodsId) {
+        return SECKILL_STOCK_ROLLBACK_PREFIX + goodsId;
+    }
+
+    /**
+     * 获取库存账本Key
+     * @param goodsId 商品ID
+     * @return Redis Key
+     */
+    public static String getSeckillStockLedgerKey(Long goodsId) {
+        return SECKILL_STOCK_LEDGER_PREFIX + goodsId;
+    }
+
+    /**
+     * 获取集群限流Key
+     * @param name 限流器名称
+     * @return Redis Key
+     */
+    public static String getSeckillRateLimitKey(String name) {
+        return SECKILL_RATE_LIMIT_PREFIX + name;
+    }
+
+    /**
+     * 获取订单状态缓存Key
+     * @param orderId 订单ID
+     * @return Redis Key
+     */
+    public static String getSeckillOrderStatusKey(String orderId) {
+        return SECKILL_ORDER_STATUS_PREFIX + orderId;
+    }
+
     /**
      * 获取秒杀令牌Key
      * @param userId 用户ID
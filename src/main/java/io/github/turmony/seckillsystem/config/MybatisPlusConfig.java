@@ -0,0 +1,36 @@
+package io.github.turmony.seckillsystem.config;
+
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
+import io.github.turmony.seckillsystem.shard.OrderShardContext;
+import io.github.turmony.seckillsystem.shard.OrderShardRouter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis-Plus配置类
+ */
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 配置MyBatis-Plus插件
+     * 动态表名：当前线程设置了订单分表下标时，将SQL中的 seckill_order 改写为对应的物理分表
+     */
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+
+        DynamicTableNameInnerInterceptor dynamicTableNameInterceptor = new DynamicTableNameInnerInterceptor();
+        dynamicTableNameInterceptor.setTableNameHandler((sql, tableName) -> {
+            Integer shard = OrderShardContext.get();
+            if (shard != null && OrderShardRouter.LOGIC_TABLE.equalsIgnoreCase(tableName)) {
+                return OrderShardRouter.physicalTable(shard);
+            }
+            return tableName;
+        });
+        interceptor.addInnerInterceptor(dynamicTableNameInterceptor);
+
+        return interceptor;
+    }
+}
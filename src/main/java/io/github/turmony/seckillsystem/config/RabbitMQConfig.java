@@ -7,6 +7,7 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,6 +18,19 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQConfig {
 
+    /**
+     * 消费者并发与预取数量统一从 spring.rabbitmq.listener.simple 读取，
+     * 运行期由 ConsumerAutoScaler 在此范围内动态调整
+     */
+    @Value("${spring.rabbitmq.listener.simple.concurrency:3}")
+    private int concurrency;
+
+    @Value("${spring.rabbitmq.listener.simple.max-concurrency:10}")
+    private int maxConcurrency;
+
+    @Value("${spring.rabbitmq.listener.simple.prefetch:1}")
+    private int prefetch;
+
     /**
      * 配置消息转换器
      * 使用Jackson将对象转换为JSON格式
@@ -65,11 +79,11 @@ public class RabbitMQConfig {
         factory.setMessageConverter(messageConverter());
 
         // 设置并发消费者数量
-        factory.setConcurrentConsumers(3);
-        factory.setMaxConcurrentConsumers(10);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(maxConcurrency);
 
         // 设置预取数量（每次从队列获取的消息数）
-        factory.setPrefetchCount(1);
+        factory.setPrefetchCount(prefetch);
 
         // 手动确认模式（建议使用，更可靠）
         factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
@@ -1,8 +1,10 @@
 package io.github.turmony.seckillsystem.config;
 
-import com.google.common.util.concurrent.RateLimiter;
 import io.github.turmony.seckillsystem.common.RateLimit;
 import io.github.turmony.seckillsystem.common.Result;
+import io.github.turmony.seckillsystem.ratelimit.RateLimitRegistry;
+import io.github.turmony.seckillsystem.ratelimit.RateLimitSpec;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -11,58 +13,56 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 限流切面
- * 基于Guava的RateLimiter实现接口限流
+ * LOCAL：基于Guava的RateLimiter实现本节点限流
+ * CLUSTER：交给 ClusterRateLimiter（Redis GCRA + 本地预取许可）
+ * USER / IP / GOODS 维度按键限流，见 RateLimitRegistry
  *
  * @author turmony
  */
 @Slf4j
 @Aspect
 @Component
+@RequiredArgsConstructor
 public class RateLimitAspect {
 
     /**
-     * 存储每个接口的限流器
-     * Key: 方法全限定名
-     * Value: RateLimiter实例
+     * 每个方法的限流规则（首次调用时解析注解并缓存）
      */
-    private final ConcurrentHashMap<String, RateLimiter> rateLimiterMap = new ConcurrentHashMap<>();
+    private final RateLimitRegistry rateLimitRegistry;
 
     /**
      * 环绕通知，处理限流逻辑
      */
-    @Around("@annotation(io.github.turmony.seckillsystem.common.RateLimit)")
+    @Around("@annotation(io.github.turmony.seckillsystem.common.RateLimit)"
+            + " || @annotation(io.github.turmony.seckillsystem.common.RateLimits)")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
         // 获取方法签名
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
 
-        // 获取RateLimit注解
-        RateLimit rateLimit = method.getAnnotation(RateLimit.class);
-        if (rateLimit == null) {
-            return joinPoint.proceed();
-        }
-
-        // 获取方法全限定名作为key
-        String key = method.getDeclaringClass().getName() + "." + method.getName();
-
-        // 获取或创建限流器
-        RateLimiter rateLimiter = rateLimiterMap.computeIfAbsent(key,
-                k -> RateLimiter.create(rateLimit.permitsPerSecond()));
-
-        // 尝试获取令牌
-        boolean acquired = rateLimiter.tryAcquire();
-
-        if (!acquired) {
+        // 依次尝试获取令牌（按键限流的规则在前）
+        Object[] args = joinPoint.getArgs();
+        for (RateLimitSpec spec : rateLimitRegistry.specsOf(method)) {
+            if (spec.tryAcquire(args)) {
+                continue;
+            }
             // 限流触发，返回失败响应
-            log.warn("接口限流触发: {}, 限流配置: {}请求/秒", key, rateLimit.permitsPerSecond());
+            RateLimit rateLimit = spec.getRateLimit();
+            if (rateLimit.dimension() == RateLimit.Dimension.METHOD) {
+                log.warn("接口限流触发: {}, 限流范围: {}, 限流配置: {}请求/秒",
+                        spec.getName(), rateLimit.scope(), rateLimit.permitsPerSecond());
+            } else {
+                // 按键限流通常是单个客户端刷接口，不逐条打印警告
+                log.debug("接口限流触发: {}, 限流范围: {}, 限流配置: {}请求/秒",
+                        spec.getName(), rateLimit.scope(), rateLimit.permitsPerSecond());
+            }
             return Result.error(rateLimit.message());
         }
 
         // 获取令牌成功，执行方法
         return joinPoint.proceed();
     }
-}
\ No newline at end of file
+}
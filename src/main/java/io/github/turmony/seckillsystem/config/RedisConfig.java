@@ -2,10 +2,14 @@ package io.github.turmony.seckillsystem.config;
 
 
 import com.alibaba.fastjson.support.spring.FastJsonRedisSerializer;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.serializer.SeckillGoodsEntryRedisSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -42,4 +46,34 @@ public class RedisConfig {
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
+
+    /**
+     * 秒杀商品展示缓存（L2）专用RedisTemplate，Value使用二进制序列化
+     */
+    @Bean
+    public RedisTemplate<String, SeckillGoodsCache.CacheEntry> seckillGoodsEntryRedisTemplate(
+            RedisConnectionFactory redisConnectionFactory) {
+        return typedRedisTemplate(redisConnectionFactory, new SeckillGoodsEntryRedisSerializer());
+    }
+
+    /**
+     * 配置Redis消息监听容器
+     * 用于订阅Pub/Sub频道（订单结果通知等），各业务组件自行注册监听器
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    private static <V> RedisTemplate<String, V> typedRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                                   RedisSerializer<V> valueSerializer) {
+        RedisTemplate<String, V> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(redisConnectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.afterPropertiesSet();
+        return redisTemplate;
+    }
 }
@@ -0,0 +1,50 @@
+package io.github.turmony.seckillsystem.controller;
+
+import io.github.turmony.seckillsystem.common.Result;
+import io.github.turmony.seckillsystem.service.mq.ConsumerAutoScaler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀订单消费者管理控制器
+ * 查看消费者并发自动调节的当前设置与决策记录
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/mq/consumer")
+@RequiredArgsConstructor
+public class MQConsumerAdminController {
+
+    private final ConsumerAutoScaler consumerAutoScaler;
+
+    /**
+     * 查看当前消费者并发、预取数量及最近一次采样的指标
+     */
+    @GetMapping("/status")
+    public Result<Map<String, Object>> getStatus() {
+        return Result.success(consumerAutoScaler.getStatus());
+    }
+
+    /**
+     * 查看最近的调节决策（最新的在前）
+     */
+    @GetMapping("/decisions")
+    public Result<List<ConsumerAutoScaler.ScaleDecision>> getDecisions() {
+        return Result.success(consumerAutoScaler.getDecisions());
+    }
+
+    /**
+     * 开启或关闭自动调节
+     * @param enabled true-开启 false-关闭
+     */
+    @PutMapping("/autoscale")
+    public Result<String> setAutoScale(@RequestParam boolean enabled) {
+        log.info("手动{}消费者并发自动调节", enabled ? "开启" : "关闭");
+        consumerAutoScaler.setEnabled(enabled);
+        return Result.success(enabled ? "自动调节已开启" : "自动调节已关闭");
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.turmony.seckillsystem.controller;
 
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
 import io.github.turmony.seckillsystem.common.RateLimit;
 import io.github.turmony.seckillsystem.common.Result;
 import io.github.turmony.seckillsystem.dto.SecKillTokenDTO;
@@ -19,6 +20,9 @@ public class SecKillTokenController {
     @Autowired
     private SecKillTokenService secKillTokenService;
 
+    @Autowired
+    private SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+
     /**
      * 生成秒杀令牌
      * 用户访问秒杀商品详情页时调用此接口获取令牌
@@ -29,12 +33,17 @@ public class SecKillTokenController {
      */
     @GetMapping("/generate")
     @RateLimit(permitsPerSecond = 500, message = "请求过于频繁")
+    @RateLimit(permitsPerSecond = 2, dimension = RateLimit.Dimension.USER, message = "请求过于频繁")
     public Result<SecKillTokenDTO> generateToken(
             @RequestParam Long userId,
             @RequestParam Long goodsId) {
 
         log.info("生成秒杀令牌请求, userId:{}, goodsId:{}", userId, goodsId);
 
+        if (!seckillGoodsBloomFilter.mightContain(goodsId)) {
+            return Result.error("秒杀商品不存在");
+        }
+
         // 生成令牌
         String token = secKillTokenService.generateToken(userId, goodsId);
 
@@ -1,14 +1,31 @@
 package io.github.turmony.seckillsystem.controller;
 
+import io.github.turmony.seckillsystem.cache.HotKeyDetector;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsSnapshotCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockMirror;
 import io.github.turmony.seckillsystem.common.RedisKeyConstant;
 import io.github.turmony.seckillsystem.common.Result;
-import io.github.turmony.seckillsystem.entity.SeckillGoods;
-import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.reconcile.StockReconciler;
+import io.github.turmony.seckillsystem.service.SeckillGoodsAdminService;
 import io.github.turmony.seckillsystem.util.RedisUtil;
+import io.github.turmony.seckillsystem.warmup.SeckillActivityScheduler;
+import io.github.turmony.seckillsystem.warmup.SeckillGoodsWarmer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,11 +40,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SeckillGoodsAdminController {
 
-    private final SeckillGoodsMapper seckillGoodsMapper;
     private final RedisUtil redisUtil;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+    private final SeckillGoodsSnapshotCache seckillGoodsSnapshotCache;
+    private final SeckillStockMirror seckillStockMirror;
+    private final HotKeyDetector hotKeyDetector;
+    private final SeckillGoodsWarmer seckillGoodsWarmer;
+    private final SeckillActivityScheduler seckillActivityScheduler;
+    private final SeckillGoodsAdminService seckillGoodsAdminService;
+    private final StockReconciler stockReconciler;
 
     /**
-     * 手动触发预热秒杀商品到Redis
+     * 手动触发预热秒杀商品到Redis（会用MySQL库存覆盖Redis中的库存并重置库存账本）
      * @return 预热结果
      */
     @PostMapping("/preload")
@@ -35,41 +60,16 @@ public class SeckillGoodsAdminController {
         log.info("手动触发秒杀商品预热");
 
         try {
-            // 1. 查询所有秒杀商品
-            List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(null);
+            // 游标流式读取 + 分批Pipeline写入，用MySQL库存覆盖Redis库存，同时删除展示缓存并通知各节点清除本地缓存
+            Map<String, Object> resultMap = seckillGoodsWarmer.warmup(true, true);
 
-            if (seckillGoodsList == null || seckillGoodsList.isEmpty()) {
-                return Result.error("没有需要预热的秒杀商品");
+            if (resultMap.containsKey("message")) {
+                return Result.error((String) resultMap.get("message"));
             }
-
-            // 2. 批量预热
-            int successCount = 0;
-            int failCount = 0;
-
-            for (SeckillGoods seckillGoods : seckillGoodsList) {
-                try {
-                    String goodsKey = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
-                    String stockKey = RedisKeyConstant.getSeckillStockKey(seckillGoods.getGoodsId());
-
-                    redisUtil.set(goodsKey, seckillGoods);
-                    redisUtil.set(stockKey, seckillGoods.getStockCount());
-
-                    successCount++;
-                } catch (Exception e) {
-                    failCount++;
-                    log.error("预热失败，商品ID: {}, 错误: {}", seckillGoods.getGoodsId(), e.getMessage());
-                }
+            if (Integer.valueOf(0).equals(resultMap.get("totalCount"))) {
+                return Result.error("没有需要预热的秒杀商品");
             }
 
-            // 3. 返回预热结果
-            Map<String, Object> resultMap = new HashMap<>();
-            resultMap.put("totalCount", seckillGoodsList.size());
-            resultMap.put("successCount", successCount);
-            resultMap.put("failCount", failCount);
-
-            log.info("预热完成: 总数={}, 成功={}, 失败={}",
-                    seckillGoodsList.size(), successCount, failCount);
-
             return Result.success(resultMap);
 
         } catch (Exception e) {
@@ -87,21 +87,13 @@ public class SeckillGoodsAdminController {
         log.info("手动清除秒杀商品缓存");
 
         try {
-            List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(null);
+            // SCAN + UNLINK，不查询数据库，也不逐个商品发送DEL
+            long deleted = seckillGoodsAdminService.clearCache();
 
-            if (seckillGoodsList == null || seckillGoodsList.isEmpty()) {
+            if (deleted == 0) {
                 return Result.success("没有需要清除的缓存");
             }
-
-            for (SeckillGoods goods : seckillGoodsList) {
-                String goodsKey = RedisKeyConstant.getSeckillGoodsKey(goods.getGoodsId());
-                String stockKey = RedisKeyConstant.getSeckillStockKey(goods.getGoodsId());
-
-                redisUtil.del(goodsKey, stockKey);
-            }
-
-            log.info("成功清除 {} 个秒杀商品的缓存", seckillGoodsList.size());
-            return Result.success("缓存清除成功，共清除 " + seckillGoodsList.size() + " 个商品缓存");
+            return Result.success("缓存清除成功，共清除 " + deleted + " 个Key");
 
         } catch (Exception e) {
             log.error("清除缓存失败: {}", e.getMessage(), e);
@@ -110,7 +102,87 @@ public class SeckillGoodsAdminController {
     }
 
     /**
-     * 查看Redis中的库存数据
+     * 查看秒杀商品本地缓存统计
+     * @return 缓存大小、命中率等
+     */
+    @GetMapping("/cache/goods/stats")
+    public Result<Map<String, Object>> getGoodsCacheStats() {
+        return Result.success(seckillGoodsCache.getStats());
+    }
+
+    /**
+     * 查看商品静态快照统计（快照数量、命中率、序列化次数）
+     */
+    @GetMapping("/cache/snapshot/stats")
+    public Result<Map<String, Object>> getSnapshotStats() {
+        return Result.success(seckillGoodsSnapshotCache.getStats());
+    }
+
+    /**
+     * 查看本节点库存镜像统计（商品数、命中率、键空间通知次数）
+     */
+    @GetMapping("/cache/stock/mirror/stats")
+    public Result<Map<String, Object>> getStockMirrorStats() {
+        return Result.success(seckillStockMirror.getStats());
+    }
+
+    /**
+     * 查看本节点当前热点Key（按估计访问次数从高到低）及探测统计
+     * @param limit 最多返回的热点Key数
+     */
+    @GetMapping("/cache/hotkeys")
+    public Result<Map<String, Object>> getHotKeys(@RequestParam(defaultValue = "20") Integer limit) {
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("stats", hotKeyDetector.getStats());
+        resultMap.put("topKeys", hotKeyDetector.topKeys(limit));
+        return Result.success(resultMap);
+    }
+
+    /**
+     * 查看秒杀活动调度器统计（活动计划数、时间轮任务数、待执行任务数、预热/清理次数、过期丢弃的任务数）
+     */
+    @GetMapping("/activity/scheduler/stats")
+    public Result<Map<String, Object>> getActivitySchedulerStats() {
+        return Result.success(seckillActivityScheduler.getStats());
+    }
+
+    /**
+     * 手动触发一轮库存对账（Redis库存与账本、MySQL库存与成功订单数）
+     */
+    @PostMapping("/stock/reconcile")
+    public Result<Map<String, Object>> reconcileStock() {
+        log.info("手动触发库存对账");
+        return Result.success(stockReconciler.reconcile());
+    }
+
+    /**
+     * 查看库存对账统计（最近一轮汇总、累计修正次数、已确认偏差的商品明细）
+     */
+    @GetMapping("/stock/reconcile/stats")
+    public Result<Map<String, Object>> getStockReconcileStats() {
+        return Result.success(stockReconciler.getStats());
+    }
+
+    /**
+     * 查看商品ID布隆过滤器统计（近似元素数、误判率、估算内存、拦截次数）
+     */
+    @GetMapping("/bloom/stats")
+    public Result<Map<String, Object>> getBloomStats() {
+        return Result.success(seckillGoodsBloomFilter.getStats());
+    }
+
+    /**
+     * 通知所有节点从数据库重建布隆过滤器
+     */
+    @PostMapping("/bloom/rebuild")
+    public Result<String> rebuildBloom() {
+        log.info("手动触发布隆过滤器重建");
+        seckillGoodsBloomFilter.requestRebuild();
+        return Result.success("已通知所有节点重建布隆过滤器");
+    }
+
+    /**
+     * 查看Redis中的库存数据（SCAN + 分批MGET）
      * @return 所有商品的库存信息
      */
     @GetMapping("/cache/stock")
@@ -118,15 +190,8 @@ public class SeckillGoodsAdminController {
         log.info("查询Redis中的库存数据");
 
         try {
-            List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(null);
             Map<Long, Long> stockMap = new HashMap<>();
-
-            for (SeckillGoods goods : seckillGoodsList) {
-                String stockKey = RedisKeyConstant.getSeckillStockKey(goods.getGoodsId());
-                Long stock = redisUtil.getLong(stockKey);
-                stockMap.put(goods.getGoodsId(), stock != null ? stock : 0L);
-            }
-
+            seckillGoodsAdminService.scanStock(stockMap::putAll);
             return Result.success(stockMap);
 
         } catch (Exception e) {
@@ -135,6 +200,31 @@ public class SeckillGoodsAdminController {
         }
     }
 
+    /**
+     * 流式查看Redis中的库存数据（每行一个JSON：{"goodsId":1,"stock":100}）
+     * 每批MGET的结果读到后立即写出，商品很多时不在内存中组装完整结果
+     */
+    @GetMapping(value = "/cache/stock/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamStockFromRedis() {
+        log.info("流式查询Redis中的库存数据");
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            long total = seckillGoodsAdminService.scanStock(batch -> {
+                try {
+                    for (Map.Entry<Long, Long> entry : batch.entrySet()) {
+                        writer.write("{\"goodsId\":" + entry.getKey() + ",\"stock\":" + entry.getValue() + "}\n");
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("流式查询库存完成，商品数: {}", total);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     /**
      * 重置指定商品的库存到初始值
      * @param goodsId 商品ID
@@ -145,26 +235,86 @@ public class SeckillGoodsAdminController {
         log.info("重置商品库存，商品ID: {}", goodsId);
 
         try {
-            // 从数据库获取初始库存
-            SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
-                    new com.baomidou.mybatisplus.core.conditions.query.QueryWrapper<SeckillGoods>()
-                            .eq("goods_id", goodsId)
-            );
+            Map<String, Object> resultMap = seckillGoodsAdminService.resetStock(List.of(goodsId));
 
-            if (seckillGoods == null) {
+            @SuppressWarnings("unchecked")
+            Map<Long, Long> stocks = (Map<Long, Long>) resultMap.get("stocks");
+            if (!stocks.containsKey(goodsId)) {
                 return Result.error("秒杀商品不存在");
             }
 
-            // 重置Redis中的库存
-            String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
-            redisUtil.set(stockKey, seckillGoods.getStockCount());
-
-            log.info("库存重置成功，商品ID: {}, 库存: {}", goodsId, seckillGoods.getStockCount());
-            return Result.success("库存重置成功，当前库存: " + seckillGoods.getStockCount());
+            log.info("库存重置成功，商品ID: {}, 库存: {}", goodsId, stocks.get(goodsId));
+            return Result.success("库存重置成功，当前库存: " + stocks.get(goodsId));
 
         } catch (Exception e) {
             log.error("重置库存失败: {}", e.getMessage(), e);
             return Result.error("重置库存失败: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量重置商品库存到初始值（分批查询数据库，每批由 stock_init Lua脚本写入库存并重置库存账本）
+     * @param goodsIds 商品ID列表
+     * @return 重置数量、不存在的商品ID、重置后的库存
+     */
+    @PutMapping("/stock/reset")
+    public Result<Map<String, Object>> resetStockBatch(@RequestBody List<Long> goodsIds) {
+        log.info("批量重置商品库存，商品数: {}", goodsIds == null ? 0 : goodsIds.size());
+
+        if (goodsIds == null || goodsIds.isEmpty()) {
+            return Result.error("商品ID列表不能为空");
+        }
+
+        try {
+            return Result.success(seckillGoodsAdminService.resetStock(goodsIds));
+        } catch (Exception e) {
+            log.error("批量重置库存失败: {}", e.getMessage(), e);
+            return Result.error("批量重置库存失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按条件从数据库恢复秒杀商品的活动数据和库存（会覆盖Redis中的库存）
+     * @param status    商品状态（可选）
+     * @param startFrom 开始时间下限（可选）
+     * @param startTo   开始时间上限（可选）
+     * @return 恢复结果
+     */
+    @PostMapping("/cache/restore")
+    public Result<Map<String, Object>> restoreFromDb(
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startTo) {
+        log.info("按条件恢复秒杀商品，status: {}, startFrom: {}, startTo: {}", status, startFrom, startTo);
+
+        try {
+            Map<String, Object> resultMap = seckillGoodsAdminService.restoreFromDb(status, startFrom, startTo);
+
+            if (Integer.valueOf(0).equals(resultMap.get("totalCount"))) {
+                return Result.error("没有符合条件的秒杀商品");
+            }
+            return Result.success(resultMap);
+
+        } catch (Exception e) {
+            log.error("恢复秒杀商品失败: {}", e.getMessage(), e);
+            return Result.error("恢复秒杀商品失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查看指定商品已回滚的库存数量（回滚记录集合中的订单数）
+     * @param goodsId 商品ID
+     * @return 回滚数量
+     */
+    @GetMapping("/stock/rollback/{goodsId}")
+    public Result<Map<String, Object>> getRollbackCount(@PathVariable Long goodsId) {
+        String rollbackKey = RedisKeyConstant.getSeckillStockRollbackKey(goodsId);
+        long rollbackCount = redisUtil.sSize(rollbackKey);
+
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("goodsId", goodsId);
+        resultMap.put("rollbackCount", rollbackCount);
+        resultMap.put("expireSeconds", redisUtil.getExpire(rollbackKey));
+        return Result.success(resultMap);
+    }
+}
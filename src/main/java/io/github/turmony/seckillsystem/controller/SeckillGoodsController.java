@@ -1,18 +1,27 @@
 package io.github.turmony.seckillsystem.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsSnapshotCache;
 import io.github.turmony.seckillsystem.common.RateLimit;
 import io.github.turmony.seckillsystem.common.Result;
 import io.github.turmony.seckillsystem.dto.SeckillOrderDTO;
 import io.github.turmony.seckillsystem.service.SeckillGoodsService;
 import io.github.turmony.seckillsystem.service.SeckillOrderService;
 import io.github.turmony.seckillsystem.service.SecKillTokenService;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsDynamicVO;
 import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 秒杀商品控制器
  * 提供秒杀商品列表、详情查询和秒杀下单接口
@@ -26,9 +35,16 @@ public class SeckillGoodsController {
     private final SeckillGoodsService seckillGoodsService;
     private final SeckillOrderService seckillOrderService;
     private final SecKillTokenService secKillTokenService;
+    private final SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+    private final SeckillGoodsSnapshotCache seckillGoodsSnapshotCache;
+
+    /**
+     * 每页最大条数（静态快照按页码和每页大小缓存，限制组合数量）
+     */
+    private static final long MAX_PAGE_SIZE = 100;
 
     /**
-     * 获取秒杀商品列表（从Redis读取）
+     * 获取秒杀商品列表（从Redis读取：ZSET分页 + 批量读取商品缓存和库存）
      * @param current 当前页，默认第1页
      * @param size 每页大小，默认10条
      * @return 分页的秒杀商品列表
@@ -52,6 +68,11 @@ public class SeckillGoodsController {
     public Result<SeckillGoodsVO> getSeckillGoodsDetail(@PathVariable Long goodsId) {
         log.info("查询秒杀商品详情，商品ID: {}", goodsId);
 
+        // 布隆过滤器判定不存在的商品ID直接拒绝，不访问Redis和MySQL
+        if (!seckillGoodsBloomFilter.mightContain(goodsId)) {
+            return Result.error("秒杀商品不存在");
+        }
+
         SeckillGoodsVO seckillGoodsVO = seckillGoodsService.getSeckillGoodsByGoodsId(goodsId);
 
         if (seckillGoodsVO == null) {
@@ -62,6 +83,75 @@ public class SeckillGoodsController {
         return Result.success(seckillGoodsVO);
     }
 
+    /**
+     * 获取秒杀商品列表静态快照（不含库存、状态、倒计时）
+     * 响应带ETag，客户端携带 If-None-Match 且内容未变化时返回304
+     * @param current 当前页，默认第1页
+     * @param size 每页大小，默认10条
+     * @return 预序列化的列表JSON
+     */
+    @GetMapping("/list/static")
+    public ResponseEntity<byte[]> getSeckillGoodsListStatic(
+            @RequestParam(defaultValue = "1") Long current,
+            @RequestParam(defaultValue = "10") Long size) {
+
+        long pageNo = Math.max(current, 1);
+        long pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return toResponse(seckillGoodsSnapshotCache.getList(pageNo, pageSize));
+    }
+
+    /**
+     * 批量获取秒杀商品实时库存、状态和倒计时（配合静态快照使用）
+     * @param goodsIds 商品ID列表，逗号分隔
+     * @return 动态信息列表
+     */
+    @GetMapping("/list/dynamic")
+    public Result<List<SeckillGoodsDynamicVO>> getSeckillGoodsListDynamic(@RequestParam List<Long> goodsIds) {
+        if (goodsIds.size() > MAX_PAGE_SIZE) {
+            return Result.error("商品ID数量不能超过" + MAX_PAGE_SIZE);
+        }
+        return Result.success(seckillGoodsService.getSeckillGoodsDynamic(goodsIds));
+    }
+
+    /**
+     * 获取秒杀商品详情静态快照（不含库存、状态、倒计时）
+     * 响应带ETag，客户端携带 If-None-Match 且内容未变化时返回304
+     * @param goodsId 商品ID
+     * @return 预序列化的详情JSON
+     */
+    @GetMapping("/detail/{goodsId}/static")
+    public ResponseEntity<?> getSeckillGoodsDetailStatic(@PathVariable Long goodsId) {
+        if (!seckillGoodsBloomFilter.mightContain(goodsId)) {
+            return ResponseEntity.ok(Result.error("秒杀商品不存在"));
+        }
+
+        SeckillGoodsSnapshotCache.Snapshot snapshot = seckillGoodsSnapshotCache.getDetail(goodsId);
+        if (snapshot == null) {
+            log.warn("秒杀商品不存在，商品ID: {}", goodsId);
+            return ResponseEntity.ok(Result.error("秒杀商品不存在"));
+        }
+        return toResponse(snapshot);
+    }
+
+    /**
+     * 获取秒杀商品实时库存、状态和倒计时（配合静态快照使用）
+     * @param goodsId 商品ID
+     * @return 动态信息
+     */
+    @GetMapping("/detail/{goodsId}/dynamic")
+    public Result<SeckillGoodsDynamicVO> getSeckillGoodsDetailDynamic(@PathVariable Long goodsId) {
+        if (!seckillGoodsBloomFilter.mightContain(goodsId)) {
+            return Result.error("秒杀商品不存在");
+        }
+
+        List<SeckillGoodsDynamicVO> dynamicList =
+                seckillGoodsService.getSeckillGoodsDynamic(Collections.singletonList(goodsId));
+        if (dynamicList.isEmpty()) {
+            return Result.error("秒杀商品不存在");
+        }
+        return Result.success(dynamicList.get(0));
+    }
+
     /**
      * 秒杀下单接口
      *
@@ -77,13 +167,19 @@ public class SeckillGoodsController {
      * @return 秒杀结果（订单ID或错误信息）
      */
     @PostMapping("/order")
-    @RateLimit(permitsPerSecond = 1000, message = "秒杀人数过多，请稍后重试")
+    @RateLimit(permitsPerSecond = 1000, scope = RateLimit.Scope.CLUSTER, message = "秒杀人数过多，请稍后重试")
+    @RateLimit(permitsPerSecond = 5, dimension = RateLimit.Dimension.USER, message = "请求过于频繁")
     public Result<String> seckill(
             @RequestParam Long userId,
             @Valid @RequestBody SeckillOrderDTO orderDTO) {
 
         log.info("=== 秒杀请求开始 === 用户ID: {}, 商品ID: {}", userId, orderDTO.getGoodsId());
 
+        if (!seckillGoodsBloomFilter.mightContain(orderDTO.getGoodsId())) {
+            log.warn("❌ 秒杀商品不存在（布隆过滤器拦截），商品ID: {}", orderDTO.getGoodsId());
+            return Result.error("秒杀商品不存在");
+        }
+
         // ============ Step 1: 验证秒杀令牌（接口幂等性保证） ============
         boolean tokenValid = secKillTokenService.validateAndConsumeToken(
                 userId, orderDTO.getGoodsId(), orderDTO.getToken());
@@ -111,4 +207,16 @@ public class SeckillGoodsController {
             return Result.error(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 快照转响应：带ETag，要求客户端每次协商（no-cache）
+     * If-None-Match 与ETag一致时由Spring MVC直接返回304，不输出响应体
+     */
+    private ResponseEntity<byte[]> toResponse(SeckillGoodsSnapshotCache.Snapshot snapshot) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.getEtag())
+                .body(snapshot.getBody());
+    }
+}
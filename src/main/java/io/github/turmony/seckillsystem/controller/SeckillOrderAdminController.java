@@ -0,0 +1,106 @@
+package io.github.turmony.seckillsystem.controller;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.turmony.seckillsystem.archive.OrderArchiveStore;
+import io.github.turmony.seckillsystem.archive.OrderArchiver;
+import io.github.turmony.seckillsystem.common.Result;
+import io.github.turmony.seckillsystem.entity.SeckillOrder;
+import io.github.turmony.seckillsystem.mapper.SeckillOrderMapper;
+import io.github.turmony.seckillsystem.shard.OrderShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 秒杀订单管理控制器
+ * 订单表按用户分表后，全量统计需要访问所有分表再汇总
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/seckill/order")
+@RequiredArgsConstructor
+public class SeckillOrderAdminController {
+
+    private final SeckillOrderMapper seckillOrderMapper;
+    private final OrderShardRouter orderShardRouter;
+    private final OrderArchiver orderArchiver;
+    private final OrderArchiveStore orderArchiveStore;
+
+    /**
+     * 按订单状态统计订单数量（并行访问所有分表后汇总）
+     */
+    @GetMapping("/stats")
+    public Result<Map<String, Object>> getOrderStats() {
+        List<List<Map<String, Object>>> shardResults = orderShardRouter.scatterGather(() ->
+                seckillOrderMapper.selectMaps(new QueryWrapper<SeckillOrder>()
+                        .select("status", "COUNT(*) AS cnt")
+                        .groupBy("status")));
+
+        Map<Integer, Long> statusCount = new TreeMap<>();
+        List<Long> shardTotals = new ArrayList<>();
+        long total = 0;
+        for (List<Map<String, Object>> rows : shardResults) {
+            long shardTotal = 0;
+            for (Map<String, Object> row : rows) {
+                Integer status = ((Number) row.get("status")).intValue();
+                long count = ((Number) row.get("cnt")).longValue();
+                statusCount.merge(status, count, Long::sum);
+                shardTotal += count;
+            }
+            shardTotals.add(shardTotal);
+            total += shardTotal;
+        }
+
+        // 分表后原表中尚未迁移的历史订单
+        long legacyTotal = 0;
+        if (orderShardRouter.isReadLegacy()) {
+            List<Map<String, Object>> rows = orderShardRouter.route(null, () ->
+                    seckillOrderMapper.selectMaps(new QueryWrapper<SeckillOrder>()
+                            .select("status", "COUNT(*) AS cnt")
+                            .groupBy("status")));
+            for (Map<String, Object> row : rows) {
+                long count = ((Number) row.get("cnt")).longValue();
+                statusCount.merge(((Number) row.get("status")).intValue(), count, Long::sum);
+                legacyTotal += count;
+            }
+            total += legacyTotal;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shardCount", orderShardRouter.getShardCount());
+        stats.put("total", total);
+        stats.put("statusCount", statusCount);
+        stats.put("shardTotals", shardTotals);
+        stats.put("legacyTotal", legacyTotal);
+        return Result.success(stats);
+    }
+
+    /**
+     * 手动触发一次冷订单归档
+     */
+    @PostMapping("/archive")
+    public Result<Map<String, Object>> archive() {
+        log.info("手动触发订单归档");
+        return Result.success(orderArchiver.archive());
+    }
+
+    /**
+     * 查看归档表统计及最近一次归档结果
+     */
+    @GetMapping("/archive/stats")
+    public Result<Map<String, Object>> getArchiveStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", orderArchiveStore.getStats());
+        stats.put("lastResult", orderArchiver.getLastResult());
+        return Result.success(stats);
+    }
+}
@@ -3,14 +3,21 @@ package io.github.turmony.seckillsystem.controller;
 import io.github.turmony.seckillsystem.common.Result;
 import io.github.turmony.seckillsystem.dto.SeckillOrderDTO;
 import io.github.turmony.seckillsystem.service.SeckillOrderService;
+import io.github.turmony.seckillsystem.service.push.OrderResultNotifier;
+import io.github.turmony.seckillsystem.vo.CursorPageVO;
 import io.github.turmony.seckillsystem.vo.SeckillOrderVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 秒杀订单控制器 - 修复后版本（无编译错误）
@@ -23,6 +30,18 @@ import java.util.List;
 public class SeckillOrderController {
 
     private final SeckillOrderService seckillOrderService;
+    private final OrderResultNotifier orderResultNotifier;
+
+    /**
+     * 长轮询 / SSE 的默认与最大等待时间（毫秒）
+     */
+    private static final long DEFAULT_WAIT_MILLIS = 15000L;
+    private static final long MAX_WAIT_MILLIS = 30000L;
+
+    /**
+     * 批量查询订单结果时单次最多订单数
+     */
+    private static final int MAX_BATCH_SIZE = 50;
 
     /**
      * ✅ 异步秒杀下单接口（修复后 - 无编译错误版本）
@@ -98,10 +117,15 @@ public class SeckillOrderController {
     }
 
     /**
-     * ✅ 我的订单列表
+     * ✅ 我的订单列表（游标分页）
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param size 每页大小，默认20，最大100
      */
     @GetMapping("/list")
-    public Result<List<SeckillOrderVO>> getUserOrders(HttpServletRequest request) {
+    public Result<CursorPageVO<SeckillOrderVO>> getUserOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            HttpServletRequest request) {
         Long userId = (Long) request.getAttribute("userId");
 
         if (userId == null) {
@@ -112,10 +136,14 @@ public class SeckillOrderController {
         log.info("查询用户订单列表,用户ID: {}", userId);
 
         try {
-            List<SeckillOrderVO> orderList = seckillOrderService.getUserOrders(userId);
-            log.info("成功返回订单列表,用户ID: {}, 订单数量: {}", userId, orderList.size());
-            return Result.success("查询成功", orderList);
-
+            CursorPageVO<SeckillOrderVO> page = seckillOrderService.getUserOrdersPage(userId, null, cursor, size);
+            log.info("成功返回订单列表,用户ID: {}, 订单数量: {}, 是否有更多: {}",
+                    userId, page.getRecords().size(), page.getHasMore());
+            return Result.success("查询成功", page);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("订单列表游标无效,用户ID: {}, 游标: {}", userId, cursor);
+            return Result.error("分页游标无效");
         } catch (Exception e) {
             log.error("查询订单列表失败,用户ID: {}, 错误: {}", userId, e.getMessage(), e);
             return Result.error("查询订单列表失败");
@@ -123,11 +151,15 @@ public class SeckillOrderController {
     }
 
     /**
-     * ✅ 根据状态查询订单列表
+     * ✅ 根据状态查询订单列表（游标分页）
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param size 每页大小，默认20，最大100
      */
     @GetMapping("/list/status")
-    public Result<List<SeckillOrderVO>> getUserOrdersByStatus(
+    public Result<CursorPageVO<SeckillOrderVO>> getUserOrdersByStatus(
             @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             HttpServletRequest request) {
 
         Long userId = (Long) request.getAttribute("userId");
@@ -145,14 +177,17 @@ public class SeckillOrderController {
         log.info("根据状态查询订单列表,用户ID: {}, 状态: {}", userId, status);
 
         try {
-            List<SeckillOrderVO> orderList = seckillOrderService.getUserOrdersByStatus(userId, status);
+            CursorPageVO<SeckillOrderVO> page = seckillOrderService.getUserOrdersPage(userId, status, cursor, size);
 
             String statusDesc = getStatusDescription(status);
-            log.info("成功返回订单列表,用户ID: {}, 状态: {}, 订单数量: {}",
-                    userId, statusDesc, orderList.size());
+            log.info("成功返回订单列表,用户ID: {}, 状态: {}, 订单数量: {}, 是否有更多: {}",
+                    userId, statusDesc, page.getRecords().size(), page.getHasMore());
 
-            return Result.success("查询成功", orderList);
+            return Result.success("查询成功", page);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("订单列表游标无效,用户ID: {}, 游标: {}", userId, cursor);
+            return Result.error("分页游标无效");
         } catch (Exception e) {
             log.error("查询订单列表失败,用户ID: {}, 状态: {}, 错误: {}",
                     userId, status, e.getMessage(), e);
@@ -237,25 +272,8 @@ public class SeckillOrderController {
             }
 
             // 根据订单状态返回不同的提示信息
-            String message;
-            switch (orderVO.getStatus()) {
-                case 0:
-                    message = "订单排队中,请稍候...";
-                    log.info("【异步轮询】订单仍在排队中,订单ID: {}", orderId);
-                    break;
-                case 1:
-                    message = "秒杀成功!";
-                    log.info("【异步轮询】订单处理成功,订单ID: {}", orderId);
-                    break;
-                case 2:
-                    message = "秒杀失败,请重试";
-                    log.info("【异步轮询】订单处理失败,订单ID: {}", orderId);
-                    break;
-                default:
-                    message = "查询成功";
-            }
-
-            return Result.success(message, orderVO);
+            log.info("【异步轮询】订单ID: {}, 状态: {}", orderId, orderVO.getStatus());
+            return Result.success(getResultMessage(orderVO.getStatus()), orderVO);
 
         } catch (Exception e) {
             log.error("查询订单结果失败,用户ID: {}, 订单ID: {}, 错误: {}",
@@ -264,6 +282,216 @@ public class SeckillOrderController {
         }
     }
 
+    /**
+     * ✅ 批量查询订单结果
+     * 一次请求查询多个订单的处理结果，只返回属于当前用户的订单
+     *
+     * @param orderIds 订单ID列表，最多50个
+     * @return Key为订单ID的订单结果
+     */
+    @PostMapping("/result/batch")
+    public Result<Map<String, SeckillOrderVO>> getOrderResults(
+            @RequestBody List<String> orderIds,
+            HttpServletRequest request) {
+
+        Long userId = (Long) request.getAttribute("userId");
+
+        if (userId == null) {
+            log.warn("用户未登录,无法批量查询订单结果");
+            return Result.error("请先登录");
+        }
+
+        if (orderIds == null || orderIds.isEmpty()) {
+            return Result.error("订单ID不能为空");
+        }
+
+        if (orderIds.size() > MAX_BATCH_SIZE) {
+            return Result.error("单次最多查询" + MAX_BATCH_SIZE + "个订单");
+        }
+
+        try {
+            Map<String, SeckillOrderVO> results = seckillOrderService.getOrderResults(userId, orderIds);
+            return Result.success("查询成功", results);
+        } catch (Exception e) {
+            log.error("批量查询订单结果失败,用户ID: {}, 错误: {}", userId, e.getMessage(), e);
+            return Result.error("批量查询订单结果失败");
+        }
+    }
+
+    /**
+     * ✅ 长轮询查询订单结果
+     *
+     * 订单仍在排队中时挂起请求（不占用Servlet线程），直到收到订单处理结果通知或等待超时：
+     * - 收到通知：立即返回最终结果
+     * - 等待超时：返回当前状态（仍为排队中），客户端可再次发起长轮询
+     *
+     * @param timeoutMs 最长等待时间（毫秒），默认15秒，最大30秒
+     */
+    @GetMapping("/result/{orderId}/wait")
+    public DeferredResult<Result<SeckillOrderVO>> waitOrderResult(
+            @PathVariable String orderId,
+            @RequestParam(required = false) Long timeoutMs,
+            HttpServletRequest request) {
+
+        long timeout = normalizeWaitMillis(timeoutMs);
+        DeferredResult<Result<SeckillOrderVO>> deferredResult = new DeferredResult<>(timeout);
+
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            log.warn("用户未登录,无法查询订单结果");
+            deferredResult.setResult(Result.error("请先登录"));
+            return deferredResult;
+        }
+
+        SeckillOrderVO orderVO = seckillOrderService.getOrderByOrderId(orderId);
+        String error = checkOrderAccess(orderVO, userId, orderId);
+        if (error != null) {
+            deferredResult.setResult(Result.error(error));
+            return deferredResult;
+        }
+
+        // 订单已有结果，直接返回
+        if (orderVO.getStatus() != 0) {
+            deferredResult.setResult(Result.success(getResultMessage(orderVO.getStatus()), orderVO));
+            return deferredResult;
+        }
+
+        // 挂起请求，等待订单结果通知
+        Runnable unregister = orderResultNotifier.register(orderId, status -> {
+            orderVO.setStatus(status);
+            deferredResult.setResult(Result.success(getResultMessage(status), orderVO));
+        });
+        deferredResult.onCompletion(unregister);
+        deferredResult.onTimeout(() -> {
+            SeckillOrderVO current = seckillOrderService.getOrderByOrderId(orderId);
+            SeckillOrderVO result = current != null ? current : orderVO;
+            deferredResult.setResult(Result.success(getResultMessage(result.getStatus()), result));
+        });
+
+        // 注册前订单可能已处理完成，注册后再确认一次，避免错过通知
+        SeckillOrderVO latest = seckillOrderService.getOrderByOrderId(orderId);
+        if (latest != null && latest.getStatus() != 0) {
+            deferredResult.setResult(Result.success(getResultMessage(latest.getStatus()), latest));
+        }
+
+        log.info("【长轮询】订单排队中,挂起等待结果,用户ID: {}, 订单ID: {}, 超时: {}ms", userId, orderId, timeout);
+        return deferredResult;
+    }
+
+    /**
+     * ✅ SSE推送订单结果
+     *
+     * 连接建立后先推送一次当前状态（event: status），
+     * 订单处理完成时推送最终结果（event: result）并关闭连接
+     *
+     * @param timeoutMs 最长等待时间（毫秒），默认15秒，最大30秒
+     */
+    @GetMapping(value = "/result/{orderId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderResult(
+            @PathVariable String orderId,
+            @RequestParam(required = false) Long timeoutMs,
+            HttpServletRequest request) throws IOException {
+
+        SseEmitter emitter = new SseEmitter(normalizeWaitMillis(timeoutMs));
+
+        Long userId = (Long) request.getAttribute("userId");
+        if (userId == null) {
+            emitter.send(SseEmitter.event().name("error").data(Result.error("请先登录")));
+            emitter.complete();
+            return emitter;
+        }
+
+        SeckillOrderVO orderVO = seckillOrderService.getOrderByOrderId(orderId);
+        String error = checkOrderAccess(orderVO, userId, orderId);
+        if (error != null) {
+            emitter.send(SseEmitter.event().name("error").data(Result.error(error)));
+            emitter.complete();
+            return emitter;
+        }
+
+        emitter.send(SseEmitter.event().name("status")
+                .data(Result.success(getResultMessage(orderVO.getStatus()), orderVO)));
+        if (orderVO.getStatus() != 0) {
+            emitter.complete();
+            return emitter;
+        }
+
+        Runnable unregister = orderResultNotifier.register(orderId, status -> {
+            orderVO.setStatus(status);
+            sendResultAndComplete(emitter, orderVO);
+        });
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(e -> unregister.run());
+
+        // 注册前订单可能已处理完成，注册后再确认一次，避免错过通知
+        SeckillOrderVO latest = seckillOrderService.getOrderByOrderId(orderId);
+        if (latest != null && latest.getStatus() != 0) {
+            unregister.run();
+            sendResultAndComplete(emitter, latest);
+        }
+
+        log.info("【SSE】订单排队中,等待推送结果,用户ID: {}, 订单ID: {}", userId, orderId);
+        return emitter;
+    }
+
+    /**
+     * 校验订单存在且属于当前用户
+     * @return 错误信息，校验通过返回null
+     */
+    private String checkOrderAccess(SeckillOrderVO orderVO, Long userId, String orderId) {
+        if (orderVO == null) {
+            log.warn("订单不存在,用户ID: {}, 订单ID: {}", userId, orderId);
+            return "订单不存在";
+        }
+        if (!orderVO.getUserId().equals(userId)) {
+            log.warn("无权访问该订单,用户ID: {}, 订单用户ID: {}, 订单ID: {}",
+                    userId, orderVO.getUserId(), orderId);
+            return "无权访问该订单";
+        }
+        return null;
+    }
+
+    /**
+     * 推送最终结果并关闭SSE连接
+     */
+    private void sendResultAndComplete(SseEmitter emitter, SeckillOrderVO orderVO) {
+        try {
+            emitter.send(SseEmitter.event().name("result")
+                    .data(Result.success(getResultMessage(orderVO.getStatus()), orderVO)));
+            emitter.complete();
+        } catch (Exception e) {
+            log.debug("SSE推送订单结果失败（客户端可能已断开）,订单ID: {}", orderVO.getOrderId());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private long normalizeWaitMillis(Long timeoutMs) {
+        if (timeoutMs == null || timeoutMs <= 0) {
+            return DEFAULT_WAIT_MILLIS;
+        }
+        return Math.min(timeoutMs, MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * 根据订单状态获取结果提示信息
+     */
+    private String getResultMessage(Integer status) {
+        if (status == null) {
+            return "查询成功";
+        }
+        switch (status) {
+            case 0:
+                return "订单排队中,请稍候...";
+            case 1:
+                return "秒杀成功!";
+            case 2:
+                return "秒杀失败,请重试";
+            default:
+                return "查询成功";
+        }
+    }
+
     /**
      * 获取订单状态描述
      */
@@ -4,10 +4,18 @@ package io.github.turmony.seckillsystem.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import io.github.turmony.seckillsystem.entity.SeckillGoods;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.cursor.Cursor;
 
 /**
  * 秒杀商品Mapper接口
  */
 @Mapper
 public interface SeckillGoodsMapper extends BaseMapper<SeckillGoods> {
+
+    /**
+     * 流式读取全部秒杀商品（预热用，需在事务内遍历）
+     *
+     * @return 秒杀商品游标
+     */
+    Cursor<SeckillGoods> selectAllForWarmup();
 }
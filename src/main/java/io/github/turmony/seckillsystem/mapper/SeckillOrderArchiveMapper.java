@@ -0,0 +1,53 @@
+package io.github.turmony.seckillsystem.mapper;
+
+import io.github.turmony.seckillsystem.entity.SeckillOrder;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 秒杀订单归档表Mapper（seckill_order_archive，建表语句见 sql/seckill_order_archive.sql）
+ */
+@Mapper
+public interface SeckillOrderArchiveMapper {
+
+    /**
+     * 批量写入归档订单，order_id 已存在的忽略
+     *
+     * @param orders 订单列表
+     * @return 实际写入条数
+     */
+    int insertIgnoreBatch(@Param("orders") List<SeckillOrder> orders);
+
+    /**
+     * 游标分页查询用户的归档订单（按创建时间、主键倒序）
+     *
+     * @param userId     用户ID
+     * @param status     订单状态，null表示全部
+     * @param cursorTime 游标位置的创建时间，null表示第一页
+     * @param cursorId   游标位置的主键，null表示第一页
+     * @param limit      最多返回条数
+     * @return 订单列表
+     */
+    List<SeckillOrder> selectUserOrdersAfter(@Param("userId") Long userId,
+                                             @Param("status") Integer status,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+
+    /**
+     * 按订单ID批量查询归档订单
+     *
+     * @param orderIds 订单ID
+     * @return 订单列表
+     */
+    List<SeckillOrder> selectByOrderIds(@Param("orderIds") Collection<String> orderIds);
+
+    /**
+     * 归档订单总数
+     */
+    long count();
+}
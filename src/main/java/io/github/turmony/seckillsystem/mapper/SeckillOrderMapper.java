@@ -4,10 +4,43 @@ package io.github.turmony.seckillsystem.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import io.github.turmony.seckillsystem.entity.SeckillOrder;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 秒杀订单Mapper
  */
 @Mapper
 public interface SeckillOrderMapper extends BaseMapper<SeckillOrder> {
+
+    /**
+     * 游标分页查询用户订单（按创建时间、主键倒序）
+     *
+     * @param userId     用户ID
+     * @param status     订单状态，null表示全部
+     * @param cursorTime 游标位置的创建时间，null表示第一页
+     * @param cursorId   游标位置的主键，null表示第一页
+     * @param limit      最多返回条数
+     * @return 订单列表
+     */
+    List<SeckillOrder> selectUserOrdersAfter(@Param("userId") Long userId,
+                                             @Param("status") Integer status,
+                                             @Param("cursorTime") LocalDateTime cursorTime,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+
+    /**
+     * 分批读取可归档的订单（已完成且创建时间早于before，按主键升序）
+     * 表名由动态表名插件按当前分表路由改写
+     *
+     * @param before  创建时间上限（不含）
+     * @param afterId 上一批最后一条的主键，null表示从头开始
+     * @param limit   最多返回条数
+     * @return 订单列表
+     */
+    List<SeckillOrder> selectArchivableOrders(@Param("before") LocalDateTime before,
+                                              @Param("afterId") Long afterId,
+                                              @Param("limit") int limit);
 }
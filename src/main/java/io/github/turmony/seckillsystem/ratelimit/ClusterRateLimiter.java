@@ -0,0 +1,202 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集群限流器（@RateLimit scope = CLUSTER）
+ *
+ * 所有节点共享一个Redis GCRA限流Key（见 lua/rate_limit_gcra.lua），总速率与节点数无关：
+ * 1. 本地预取：每次从Redis获取一批许可（每秒许可数 × prefetch-ms，不超过 max-prefetch），
+ *    批内的请求只扣减本地计数，不访问Redis；未用完的许可 prefetch-ms 后作废，避免空闲节点囤积
+ * 2. Redis返回没有许可时，同时返回下一个许可可用的时间，此前本节点的请求直接拒绝，不再访问Redis
+ * 3. Redis不可用时降级为本地Guava限流（每秒许可数 / node-count），retry-ms 后再尝试Redis
+ *
+ * 按用户/IP/商品限流（tryAcquireKey）时每个键的请求量很小，不做预取，每次请求直接执行一次脚本
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterRateLimiter {
+
+    private final LuaScriptUtil luaScriptUtil;
+
+    /**
+     * 预取许可的有效时间（毫秒），同时决定每次预取的许可数
+     */
+    @Value("${seckill.ratelimit.cluster.prefetch-ms:50}")
+    private long prefetchMs;
+
+    /**
+     * 每次最多预取的许可数
+     */
+    @Value("${seckill.ratelimit.cluster.max-prefetch:100}")
+    private long maxPrefetch;
+
+    /**
+     * 集群节点数，降级为本地限流时每个节点按 每秒许可数 / node-count 限流
+     */
+    @Value("${seckill.ratelimit.cluster.node-count:1}")
+    private int nodeCount;
+
+    /**
+     * Redis不可用后多久再尝试（毫秒）
+     */
+    @Value("${seckill.ratelimit.cluster.retry-ms:1000}")
+    private long retryMs;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 在此之前不访问Redis，直接使用本地限流
+     */
+    private volatile long redisDownUntil;
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param name             限流器名称（同一名称在所有节点共享速率）
+     * @param permitsPerSecond 集群每秒许可数
+     * @return true-获取成功
+     */
+    public boolean tryAcquire(String name, double permitsPerSecond) {
+        Bucket bucket = buckets.computeIfAbsent(name, k -> new Bucket(k, permitsPerSecond));
+        return bucket.tryAcquire();
+    }
+
+    /**
+     * 按键获取一个许可（不预取，每次访问Redis）
+     *
+     * @param name             限流Key名称（限流器名称 + 键）
+     * @param permitsPerSecond 每个键每秒许可数
+     * @return true-获取成功，false-被限流，null-Redis不可用（由调用方降级为本地限流）
+     */
+    public Boolean tryAcquireKey(String name, double permitsPerSecond) {
+        long now = System.currentTimeMillis();
+        if (now < redisDownUntil) {
+            return null;
+        }
+        try {
+            long intervalMicros = Math.max(1, Math.round(1_000_000 / permitsPerSecond));
+            long burst = Math.max(1, (long) Math.ceil(permitsPerSecond));
+            List<Long> result = luaScriptUtil.acquireRateLimit(name, intervalMicros, burst, 1);
+            return result.get(0) > 0;
+        } catch (Exception e) {
+            redisDownUntil = now + retryMs;
+            log.warn("集群限流访问Redis失败，{}ms内降级为本地限流，限流器: {}, 错误: {}",
+                    retryMs, name, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 单个限流器的本地状态
+     */
+    private final class Bucket {
+
+        final String name;
+        final long intervalMicros;
+        final long batch;
+        final long burst;
+
+        /**
+         * Redis不可用时的本地限流
+         */
+        final RateLimiter fallback;
+
+        /**
+         * 本地剩余的预取许可
+         */
+        final AtomicLong permits = new AtomicLong();
+
+        /**
+         * 预取许可的作废时间
+         */
+        volatile long expireAt;
+
+        /**
+         * Redis返回没有许可后，下一个许可可用的时间
+         */
+        volatile long blockedUntil;
+
+        Bucket(String name, double permitsPerSecond) {
+            this.name = name;
+            this.intervalMicros = Math.max(1, Math.round(1_000_000 / permitsPerSecond));
+            this.batch = Math.max(1, Math.min(maxPrefetch, (long) (permitsPerSecond * prefetchMs / 1000)));
+            // 与Guava一致允许1秒的突发，至少能容纳一批预取
+            this.burst = Math.max(batch, (long) Math.ceil(permitsPerSecond));
+            this.fallback = RateLimiter.create(permitsPerSecond / Math.max(nodeCount, 1));
+        }
+
+        boolean tryAcquire() {
+            if (takeLocal()) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            if (now < redisDownUntil) {
+                return fallback.tryAcquire();
+            }
+            if (now < blockedUntil) {
+                return false;
+            }
+            return refill();
+        }
+
+        /**
+         * 从Redis预取一批许可（同一限流器同时只有一个线程访问Redis，其余线程等待后直接使用新许可）
+         */
+        synchronized boolean refill() {
+            if (takeLocal()) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            if (now < redisDownUntil) {
+                return fallback.tryAcquire();
+            }
+            if (now < blockedUntil) {
+                return false;
+            }
+
+            List<Long> result;
+            try {
+                result = luaScriptUtil.acquireRateLimit(name, intervalMicros, burst, batch);
+            } catch (Exception e) {
+                redisDownUntil = now + retryMs;
+                log.warn("集群限流访问Redis失败，{}ms内降级为本地限流，限流器: {}, 错误: {}",
+                        retryMs, name, e.getMessage());
+                return fallback.tryAcquire();
+            }
+
+            long granted = result.get(0);
+            if (granted <= 0) {
+                blockedUntil = now + (result.get(1) + 999) / 1000;
+                return false;
+            }
+            // 先设置作废时间再放入许可，其他线程看到许可时作废时间已经更新
+            expireAt = now + prefetchMs;
+            permits.set(granted - 1);
+            return true;
+        }
+
+        private boolean takeLocal() {
+            if (System.currentTimeMillis() >= expireAt) {
+                return false;
+            }
+            long current;
+            while ((current = permits.get()) > 0) {
+                if (permits.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import java.util.Arrays;
+
+/**
+ * 按 long 键（用户ID、IP、商品ID）限流的本地限流表
+ *
+ * 每个键只保存一个 long：GCRA 理论到达时间（TAT，纳秒），键和TAT都放在原始类型数组中，不产生装箱对象：
+ * 1. 总槽位数固定（capacity），分成多个段，每段一把锁；内存只与 capacity 有关，与出现过的用户数无关
+ * 2. TAT 不晚于当前时间的键与不存在的键等价，槽位可以直接复用，不需要单独的过期清理
+ * 3. 线性探测最多 probe 个槽位；都被占用时淘汰其中TAT最早（最接近过期）的键，被淘汰的键重新获得完整的突发额度
+ */
+final class KeyedRateLimiter {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private final long intervalNanos;
+
+    /**
+     * TAT 最多领先当前时间的量，(突发容量 - 1) × 间隔
+     */
+    private final long toleranceNanos;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int probe;
+
+    /**
+     * @param permitsPerSecond 每个键每秒许可数（允许1秒的突发，与Guava一致）
+     * @param capacity         总槽位数
+     * @param segmentCount     段数（取2的幂）
+     * @param probe            最多探测的槽位数
+     */
+    KeyedRateLimiter(double permitsPerSecond, int capacity, int segmentCount, int probe) {
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000L / permitsPerSecond));
+        long burst = Math.max(1, (long) Math.ceil(permitsPerSecond));
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        int segmentsSize = ceilingPowerOfTwo(Math.max(segmentCount, 1));
+        int segmentCapacity = ceilingPowerOfTwo(Math.max(capacity / segmentsSize, probe));
+        this.segments = new Segment[segmentsSize];
+        for (int i = 0; i < segmentsSize; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.segmentMask = segmentsSize - 1;
+        this.probe = Math.min(probe, segmentCapacity);
+    }
+
+    /**
+     * 尝试为指定键获取一个许可
+     */
+    boolean tryAcquire(long key) {
+        if (key == EMPTY_KEY) {
+            key++;
+        }
+        long h = key * 0x9E3779B97F4A7C15L;
+        int hash = (int) (h ^ (h >>> 32));
+        return segments[(hash >>> 16) & segmentMask].tryAcquire(key, hash, System.nanoTime());
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    private final class Segment {
+
+        final long[] keys;
+        final long[] tats;
+        final int mask;
+
+        Segment(int capacity) {
+            this.keys = new long[capacity];
+            this.tats = new long[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, EMPTY_KEY);
+        }
+
+        synchronized boolean tryAcquire(long key, int hash, long now) {
+            int start = hash & mask;
+            int victim = -1;
+            boolean victimFree = false;
+            long victimTat = Long.MAX_VALUE;
+            for (int i = 0; i < probe; i++) {
+                int index = (start + i) & mask;
+                if (keys[index] == key) {
+                    return acquire(index, now);
+                }
+                // 空槽位或已过期的键可以直接复用，优先于淘汰未过期的键
+                boolean free = keys[index] == EMPTY_KEY || tats[index] - now <= 0;
+                if (!victimFree && (free || tats[index] - victimTat < 0 || victim < 0)) {
+                    victim = index;
+                    victimFree = free;
+                    victimTat = tats[index];
+                }
+            }
+            keys[victim] = key;
+            tats[victim] = now;
+            return acquire(victim, now);
+        }
+
+        private boolean acquire(int index, long now) {
+            long tat = tats[index];
+            if (tat - now < 0) {
+                tat = now;
+            }
+            if (tat - now > toleranceNanos) {
+                return false;
+            }
+            tats[index] = tat + intervalNanos;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import io.github.turmony.seckillsystem.common.RateLimit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流规则注册表
+ *
+ * 每个方法第一次被调用时解析其上的全部 @RateLimit，生成 RateLimitSpec 并缓存；
+ * 之后的请求直接使用缓存的规则：GOODS 维度的参数位置、请求体的 getGoodsId() 都在解析时确定（MethodHandle），请求时不做反射
+ *
+ * 按键限流的规则排在 METHOD 规则之前：被单个用户/IP/商品规则拒绝的请求不再消耗接口总量的许可，
+ * 否则一个刷接口的客户端会占满总量，挤掉其他正常请求
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitRegistry {
+
+    private static final String GOODS_ID = "goodsId";
+
+    private final ClusterRateLimiter clusterRateLimiter;
+
+    /**
+     * 每条按键限流规则的本地限流表总槽位数（内存约为 槽位数 × 16 字节）
+     */
+    @Value("${seckill.ratelimit.key.capacity:65536}")
+    private int capacity;
+
+    /**
+     * 本地限流表分段数（每段一把锁）
+     */
+    @Value("${seckill.ratelimit.key.segments:64}")
+    private int segments;
+
+    /**
+     * 本地限流表最多探测的槽位数
+     */
+    @Value("${seckill.ratelimit.key.probe:8}")
+    private int probe;
+
+    private final ConcurrentHashMap<Method, RateLimitSpec[]> specs = new ConcurrentHashMap<>();
+
+    /**
+     * 获取方法上的全部限流规则（先按键限流，再按接口总量限流；同类规则保持声明顺序）
+     *
+     * @param method 被限流的方法
+     */
+    public RateLimitSpec[] specsOf(Method method) {
+        return specs.computeIfAbsent(method, this::parse);
+    }
+
+    private RateLimitSpec[] parse(Method method) {
+        Set<RateLimit> rateLimits = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, RateLimit.class);
+        String methodName = method.getDeclaringClass().getName() + "." + method.getName();
+        RateLimitSpec[] result = new RateLimitSpec[rateLimits.size()];
+        int i = 0;
+        for (RateLimit rateLimit : rateLimits) {
+            if (rateLimit.dimension() == RateLimit.Dimension.METHOD) {
+                result[i++] = new RateLimitSpec(methodName, rateLimit, clusterRateLimiter, null, null);
+            } else {
+                result[i++] = new RateLimitSpec(methodName + ":" + rateLimit.dimension(), rateLimit, clusterRateLimiter,
+                        new KeyedRateLimiter(rateLimit.permitsPerSecond(), capacity, segments, probe),
+                        resolverOf(method, rateLimit.dimension()));
+            }
+            log.info("限流规则: {}, 维度: {}, 范围: {}, {}请求/秒",
+                    methodName, rateLimit.dimension(), rateLimit.scope(), rateLimit.permitsPerSecond());
+        }
+        // 稳定排序：非 METHOD 维度在前
+        Arrays.sort(result, Comparator.comparing(
+                spec -> spec.getRateLimit().dimension() == RateLimit.Dimension.METHOD));
+        return result;
+    }
+
+    private static RateLimitSpec.KeyResolver resolverOf(Method method, RateLimit.Dimension dimension) {
+        switch (dimension) {
+            case USER:
+                return args -> userKey();
+            case IP:
+                return args -> ipKey();
+            case GOODS:
+                return goodsResolverOf(method);
+            default:
+                throw new IllegalArgumentException("不支持的限流维度: " + dimension);
+        }
+    }
+
+    /**
+     * 登录拦截器写入的请求属性 userId
+     */
+    private static long userKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object userId = attributes == null ? null : attributes.getAttribute("userId", RequestAttributes.SCOPE_REQUEST);
+        return userId instanceof Long ? (Long) userId : RateLimitSpec.NO_KEY;
+    }
+
+    /**
+     * 客户端IP：只取连接地址，不直接读取 X-Forwarded-For（客户端可以任意伪造，每次换一个地址即可绕过限流）
+     * 部署在反向代理之后时由 server.forward-headers-strategy 只信任可信代理写入的转发头，getRemoteAddr 返回真实客户端地址
+     */
+    private static long ipKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return RateLimitSpec.NO_KEY;
+        }
+        String ip = ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+        return ip == null || ip.isEmpty() ? RateLimitSpec.NO_KEY : ipToLong(ip);
+    }
+
+    /**
+     * IPv4 转为32位整数，其他格式（IPv6）取64位FNV-1a哈希（最高位置1，与IPv4不重叠）
+     * 忽略首尾空格，不创建子字符串
+     */
+    static long ipToLong(String ip) {
+        int end = ip.length();
+        int start = 0;
+        while (start < end && ip.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && ip.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        long value = 0;
+        long octet = -1;
+        int dots = 0;
+        boolean ipv4 = start < end;
+        for (int i = start; i < end && ipv4; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                ipv4 = octet <= 255;
+            } else if (c == '.' && octet >= 0 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = -1;
+                dots++;
+            } else {
+                ipv4 = false;
+            }
+        }
+        if (ipv4 && dots == 3 && octet >= 0) {
+            return (value << 8) | octet;
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ ip.charAt(i)) * 0x100000001b3L;
+        }
+        hash |= Long.MIN_VALUE;
+        return hash == RateLimitSpec.NO_KEY ? hash + 1 : hash;
+    }
+
+    /**
+     * GOODS 维度：优先使用名为 goodsId 的 Long 参数（@RequestParam / @PathVariable / 参数名），
+     * 否则使用带 getGoodsId() 的参数（如请求体DTO）
+     */
+    private static RateLimitSpec.KeyResolver goodsResolverOf(Method method) {
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameters[i].getType();
+            if ((type == Long.class || type == long.class) && GOODS_ID.equals(parameterName(parameters[i]))) {
+                int index = i;
+                return args -> args[index] == null ? RateLimitSpec.NO_KEY : (Long) args[index];
+            }
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            MethodHandle getter = goodsIdGetterOf(parameters[i].getType());
+            if (getter != null) {
+                int index = i;
+                return args -> {
+                    if (args[index] == null) {
+                        return RateLimitSpec.NO_KEY;
+                    }
+                    try {
+                        Object goodsId = getter.invoke(args[index]);
+                        return goodsId == null ? RateLimitSpec.NO_KEY : (Long) goodsId;
+                    } catch (Throwable e) {
+                        return RateLimitSpec.NO_KEY;
+                    }
+                };
+            }
+        }
+        throw new IllegalStateException("@RateLimit(dimension = GOODS) 的方法没有goodsId参数: " + method);
+    }
+
+    private static String parameterName(Parameter parameter) {
+        // 直接读取的注解不处理 @AliasFor，value 和 name 都要检查
+        RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
+        if (requestParam != null && !requestParam.value().isEmpty()) {
+            return requestParam.value();
+        }
+        if (requestParam != null && !requestParam.name().isEmpty()) {
+            return requestParam.name();
+        }
+        PathVariable pathVariable = parameter.getAnnotation(PathVariable.class);
+        if (pathVariable != null && !pathVariable.value().isEmpty()) {
+            return pathVariable.value();
+        }
+        if (pathVariable != null && !pathVariable.name().isEmpty()) {
+            return pathVariable.name();
+        }
+        return parameter.getName();
+    }
+
+    private static MethodHandle goodsIdGetterOf(Class<?> type) {
+        if (type.isPrimitive() || type.getName().startsWith("java.")) {
+            return null;
+        }
+        try {
+            Method getter = type.getMethod("getGoodsId");
+            if (getter.getReturnType() != Long.class && getter.getReturnType() != long.class) {
+                return null;
+            }
+            return MethodHandles.publicLookup().unreflect(getter);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.github.turmony.seckillsystem.common.RateLimit;
+
+/**
+ * 一个 @RateLimit 解析后的限流规则（每个方法只解析一次，请求时不再读取注解、不做反射）
+ *
+ * METHOD 维度：整个接口一个限流器（LOCAL 为Guava RateLimiter，CLUSTER 为 ClusterRateLimiter）
+ * 其他维度：先由 KeyResolver 从请求/参数中取出 long 键，再按键限流
+ * （LOCAL 为 KeyedRateLimiter，CLUSTER 为每个键一个Redis GCRA Key，Redis不可用时降级为 KeyedRateLimiter）
+ */
+public final class RateLimitSpec {
+
+    /**
+     * KeyResolver 取不到键时的返回值，该请求不受这条规则限制
+     */
+    static final long NO_KEY = Long.MIN_VALUE;
+
+    private final String name;
+    private final RateLimit rateLimit;
+    private final ClusterRateLimiter clusterRateLimiter;
+    private final RateLimiter methodLimiter;
+    private final KeyedRateLimiter keyedLimiter;
+    private final KeyResolver keyResolver;
+
+    RateLimitSpec(String name, RateLimit rateLimit, ClusterRateLimiter clusterRateLimiter,
+                  KeyedRateLimiter keyedLimiter, KeyResolver keyResolver) {
+        this.name = name;
+        this.rateLimit = rateLimit;
+        this.clusterRateLimiter = clusterRateLimiter;
+        this.methodLimiter = keyResolver == null && rateLimit.scope() == RateLimit.Scope.LOCAL
+                ? RateLimiter.create(rateLimit.permitsPerSecond())
+                : null;
+        this.keyedLimiter = keyedLimiter;
+        this.keyResolver = keyResolver;
+    }
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param args 被限流方法的参数
+     * @return true-获取成功（或取不到限流键）
+     */
+    public boolean tryAcquire(Object[] args) {
+        if (keyResolver == null) {
+            return methodLimiter != null
+                    ? methodLimiter.tryAcquire()
+                    : clusterRateLimiter.tryAcquire(name, rateLimit.permitsPerSecond());
+        }
+
+        long key = keyResolver.resolve(args);
+        if (key == NO_KEY) {
+            return true;
+        }
+        if (rateLimit.scope() == RateLimit.Scope.CLUSTER) {
+            Boolean acquired = clusterRateLimiter.tryAcquireKey(name + ":" + key, rateLimit.permitsPerSecond());
+            if (acquired != null) {
+                return acquired;
+            }
+        }
+        return keyedLimiter.tryAcquire(key);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * 从请求/方法参数中取出限流键
+     */
+    @FunctionalInterface
+    interface KeyResolver {
+
+        /**
+         * @param args 被限流方法的参数
+         * @return 限流键，取不到时返回 NO_KEY
+         */
+        long resolve(Object[] args);
+    }
+}
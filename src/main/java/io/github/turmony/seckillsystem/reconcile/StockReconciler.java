@@ -0,0 +1,333 @@
+package io.github.turmony.seckillsystem.reconcile;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
+import io.github.turmony.seckillsystem.util.RedisUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 库存对账任务
+ *
+ * 基于库存账本（SeckillStockLedger）的计数器对账，不扫描订单表：
+ * 1. Redis偏差 = 初始库存 - 累计扣减 + 累计回滚 - 剩余库存
+ *    由对账Lua脚本在一个原子操作中计算，不为0说明库存被绕过扣减/回滚脚本修改（手动修改、数据丢失等）
+ * 2. 数据库偏差 = (初始库存 - 累计成功) - seckill_goods.stock_count
+ *    MySQL库存只在订单成功时扣减，不为0说明成功订单与MySQL库存不一致
+ * 3. 处理中 = 累计扣减 - 累计回滚 - 累计成功（已扣Redis库存、尚未成功或失败的订单，活动结束后长期不为0说明消息丢失）
+ *
+ * 同一个偏差连续出现 confirm-rounds 轮才算确认（成功计数在事务提交后累加，数据库偏差会短暂为±1）
+ * 开启自动修正时，已确认且不超过 max-correct 的Redis偏差由对账脚本在下一轮原子修正（只修正与上一轮相同的偏差）
+ * 数据库偏差只报告不修正
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockReconciler {
+
+    private final RedisUtil redisUtil;
+    private final LuaScriptUtil luaScriptUtil;
+    private final SeckillGoodsMapper seckillGoodsMapper;
+
+    @Value("${seckill.stock.reconcile.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每批对账的商品数（一次Lua脚本 + 一次数据库IN查询）
+     */
+    @Value("${seckill.stock.reconcile.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 偏差连续出现多少轮才算确认
+     */
+    @Value("${seckill.stock.reconcile.confirm-rounds:2}")
+    private int confirmRounds;
+
+    /**
+     * 是否自动修正已确认的Redis偏差
+     */
+    @Value("${seckill.stock.reconcile.auto-correct:false}")
+    private boolean autoCorrect;
+
+    /**
+     * 单次自动修正的最大偏差（绝对值），超过只报告
+     */
+    @Value("${seckill.stock.reconcile.max-correct:10}")
+    private long maxCorrect;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 最近一轮每个商品的对账结果
+     */
+    private volatile Map<Long, Record> records = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一轮对账汇总
+     */
+    private volatile Map<String, Object> lastResult = Collections.emptyMap();
+
+    private final LongAdder runCount = new LongAdder();
+    private final LongAdder correctedCount = new LongAdder();
+
+    /**
+     * 定时对账
+     */
+    @Scheduled(initialDelayString = "${seckill.stock.reconcile.interval-ms:10000}",
+            fixedDelayString = "${seckill.stock.reconcile.interval-ms:10000}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("库存对账失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行一轮对账
+     *
+     * @return 对账汇总
+     */
+    public Map<String, Object> reconcile() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            result.put("message", "对账任务正在执行中");
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            Map<Long, Record> previous = records;
+            Map<Long, Record> current = new ConcurrentHashMap<>();
+            Summary summary = new Summary();
+
+            redisUtil.scan(RedisKeyConstant.SECKILL_STOCK_LEDGER_PREFIX + "*", batchSize, keys -> {
+                List<Long> goodsIds = new ArrayList<>(keys.size());
+                for (String key : keys) {
+                    String suffix = key.substring(RedisKeyConstant.SECKILL_STOCK_LEDGER_PREFIX.length());
+                    if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                        Long goodsId = Long.valueOf(suffix);
+                        // SCAN可能返回重复的Key
+                        if (!current.containsKey(goodsId) && !goodsIds.contains(goodsId)) {
+                            goodsIds.add(goodsId);
+                        }
+                    }
+                }
+                if (!goodsIds.isEmpty()) {
+                    reconcileBatch(goodsIds, previous, current, summary);
+                }
+            });
+
+            records = current;
+            runCount.increment();
+            correctedCount.add(summary.corrected);
+
+            long costTime = System.currentTimeMillis() - startTime;
+            result.put("checkTime", LocalDateTime.now());
+            result.put("goodsCount", summary.checked);
+            result.put("untrackedCount", summary.untracked);
+            result.put("missingStockCount", summary.missingStock);
+            result.put("redisDriftCount", summary.redisDrift);
+            result.put("dbDriftCount", summary.dbDrift);
+            result.put("negativeQueuedCount", summary.negativeQueued);
+            result.put("correctedCount", summary.corrected);
+            result.put("queuedTotal", summary.queuedTotal);
+            result.put("costTime", costTime + "ms");
+            lastResult = result;
+
+            if (summary.redisDrift > 0 || summary.dbDrift > 0 || summary.negativeQueued > 0) {
+                log.warn("库存对账发现偏差: {}", result);
+            } else {
+                log.debug("库存对账完成: {}", result);
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 对账统计：汇总、累计修正次数、已确认偏差的商品明细
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> drifts = new ArrayList<>();
+        for (Map.Entry<Long, Record> entry : records.entrySet()) {
+            Record record = entry.getValue();
+            if (record.redisDriftRounds >= confirmRounds || record.dbDriftRounds >= confirmRounds
+                    || record.queued < 0) {
+                drifts.add(record.toMap(entry.getKey()));
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("autoCorrect", autoCorrect);
+        stats.put("maxCorrect", maxCorrect);
+        stats.put("runCount", runCount.sum());
+        stats.put("totalCorrectedCount", correctedCount.sum());
+        stats.put("lastResult", lastResult);
+        stats.put("drifts", drifts);
+        return stats;
+    }
+
+    private void reconcileBatch(List<Long> goodsIds, Map<Long, Record> previous,
+                                Map<Long, Record> current, Summary summary) {
+        // 自动修正：只修正上一轮已确认、且本轮仍然相同的偏差（脚本内比较）
+        List<Long> expectedDrifts = new ArrayList<>(goodsIds.size());
+        for (Long goodsId : goodsIds) {
+            Record last = previous.get(goodsId);
+            boolean correct = autoCorrect && last != null && last.redisDrift != 0
+                    && last.redisDriftRounds + 1 >= confirmRounds && Math.abs(last.redisDrift) <= maxCorrect;
+            expectedDrifts.add(correct ? last.redisDrift : 0L);
+        }
+
+        List<Long> values = luaScriptUtil.reconcileStock(goodsIds, expectedDrifts, maxCorrect);
+        Map<Long, Integer> dbStocks = loadDbStocks(goodsIds);
+
+        for (int i = 0; i < goodsIds.size(); i++) {
+            Long goodsId = goodsIds.get(i);
+            int offset = i * 8;
+            long state = values.get(offset);
+            summary.checked++;
+            if (state == 1) {
+                summary.untracked++;
+                continue;
+            }
+            if (state == 2) {
+                summary.missingStock++;
+                continue;
+            }
+
+            Record record = new Record();
+            record.remaining = values.get(offset + 1);
+            record.initial = values.get(offset + 2);
+            long deducted = values.get(offset + 3);
+            long rolledBack = values.get(offset + 4);
+            record.success = values.get(offset + 5);
+            record.redisDrift = values.get(offset + 6);
+            record.corrected = values.get(offset + 7) == 1;
+            record.queued = deducted - rolledBack - record.success;
+            Integer dbStock = dbStocks.get(goodsId);
+            record.dbStock = dbStock;
+            record.dbDrift = dbStock == null ? 0 : record.initial - record.success - dbStock;
+
+            Record last = previous.get(goodsId);
+            if (record.corrected) {
+                // 本轮已修正，偏差归零
+                log.warn("库存对账自动修正Redis库存，商品ID: {}, 修正量: {}, 修正前库存: {}",
+                        goodsId, record.redisDrift, record.remaining);
+                record.remaining += record.redisDrift;
+                record.redisDrift = 0;
+                summary.corrected++;
+            } else {
+                record.redisDriftRounds = nextRounds(record.redisDrift, last == null ? 0 : last.redisDrift,
+                        last == null ? 0 : last.redisDriftRounds);
+            }
+            record.dbDriftRounds = nextRounds(record.dbDrift, last == null ? 0 : last.dbDrift,
+                    last == null ? 0 : last.dbDriftRounds);
+
+            if (record.redisDriftRounds >= confirmRounds) {
+                summary.redisDrift++;
+                log.warn("库存对账Redis偏差，商品ID: {}, 偏差: {}, 剩余库存: {}, 初始库存: {}, 扣减: {}, 回滚: {}",
+                        goodsId, record.redisDrift, record.remaining, record.initial, deducted, rolledBack);
+            }
+            if (record.dbDriftRounds >= confirmRounds) {
+                summary.dbDrift++;
+                log.warn("库存对账数据库偏差，商品ID: {}, 偏差: {}, MySQL库存: {}, 初始库存: {}, 成功订单: {}",
+                        goodsId, record.dbDrift, dbStock, record.initial, record.success);
+            }
+            if (record.queued < 0) {
+                summary.negativeQueued++;
+            } else {
+                summary.queuedTotal += record.queued;
+            }
+            current.put(goodsId, record);
+        }
+    }
+
+    /**
+     * 偏差连续出现的轮数：与上一轮相同的非0偏差累加，否则重新计数
+     */
+    private static int nextRounds(long drift, long lastDrift, int lastRounds) {
+        if (drift == 0) {
+            return 0;
+        }
+        return drift == lastDrift ? lastRounds + 1 : 1;
+    }
+
+    private Map<Long, Integer> loadDbStocks(List<Long> goodsIds) {
+        List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(new QueryWrapper<SeckillGoods>()
+                .select("goods_id", "stock_count")
+                .in("goods_id", goodsIds));
+        Map<Long, Integer> dbStocks = new HashMap<>(seckillGoodsList.size() * 2);
+        for (SeckillGoods seckillGoods : seckillGoodsList) {
+            dbStocks.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount());
+        }
+        return dbStocks;
+    }
+
+    /**
+     * 单个商品的对账结果
+     */
+    private static final class Record {
+        long remaining;
+        long initial;
+        long success;
+        long queued;
+        Integer dbStock;
+        long redisDrift;
+        long dbDrift;
+        int redisDriftRounds;
+        int dbDriftRounds;
+        boolean corrected;
+
+        Map<String, Object> toMap(Long goodsId) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("goodsId", goodsId);
+            map.put("remaining", remaining);
+            map.put("initial", initial);
+            map.put("success", success);
+            map.put("queued", queued);
+            map.put("dbStock", dbStock);
+            map.put("redisDrift", redisDrift);
+            map.put("redisDriftRounds", redisDriftRounds);
+            map.put("dbDrift", dbDrift);
+            map.put("dbDriftRounds", dbDriftRounds);
+            return map;
+        }
+    }
+
+    /**
+     * 一轮对账的汇总计数（只在对账线程中修改）
+     */
+    private static final class Summary {
+        int checked;
+        int untracked;
+        int missingStock;
+        int redisDrift;
+        int dbDrift;
+        int negativeQueued;
+        int corrected;
+        long queuedTotal;
+    }
+}
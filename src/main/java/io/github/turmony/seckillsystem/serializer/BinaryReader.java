@@ -0,0 +1,99 @@
+package io.github.turmony.seckillsystem.serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 紧凑二进制读取器，编码规则见 {@link BinaryWriter}
+ *
+ * 只在单次反序列化中使用，非线程安全
+ */
+final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() {
+        if (position >= buffer.length) {
+            throw new SerializationException("二进制数据不完整，长度: " + buffer.length);
+        }
+        return buffer[position++];
+    }
+
+    long readVarLong() {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new SerializationException("变长整数格式错误");
+    }
+
+    Long readLong() {
+        return readPresence() ? readVarLong() : null;
+    }
+
+    Integer readInt() {
+        return readPresence() ? (int) readVarLong() : null;
+    }
+
+    String readString() {
+        if (!readPresence()) {
+            return null;
+        }
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    BigDecimal readDecimal() {
+        if (!readPresence()) {
+            return null;
+        }
+        int scale = (int) readVarLong();
+        int type = readByte();
+        if (type == BinaryWriter.DECIMAL_LONG) {
+            return BigDecimal.valueOf(readVarLong(), scale);
+        }
+        if (type == BinaryWriter.DECIMAL_BYTES) {
+            int length = readLength();
+            BigInteger unscaled = new BigInteger(buffer, position, length);
+            position += length;
+            return new BigDecimal(unscaled, scale);
+        }
+        throw new SerializationException("BigDecimal编码类型错误: " + type);
+    }
+
+    LocalDateTime readTime() {
+        if (!readPresence()) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(readVarLong()), ZoneId.systemDefault());
+    }
+
+    private boolean readPresence() {
+        return readByte() != 0;
+    }
+
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > buffer.length - position) {
+            throw new SerializationException("二进制数据长度错误: " + length);
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.turmony.seckillsystem.serializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * 紧凑二进制写入器（Redis值序列化用）
+ *
+ * 编码规则：
+ * 1. 可为null的字段先写1字节标记（0-null，1-有值），null时不再写内容
+ * 2. 整数使用变长编码（zigzag + varint），小数值只占1~2字节
+ * 3. 字符串：长度(varint) + UTF-8字节
+ * 4. BigDecimal：scale(varint) + 未缩放值(varint，超出long范围时写字节数组)
+ * 5. LocalDateTime：毫秒时间戳(varint)
+ *
+ * 只在单次序列化中使用，非线程安全
+ */
+final class BinaryWriter {
+
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+
+    /**
+     * BigDecimal 未缩放值的编码方式
+     */
+    static final byte DECIMAL_LONG = 1;
+    static final byte DECIMAL_BYTES = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    BinaryWriter(int initialCapacity) {
+        buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+        // zigzag：负数也能用较少字节表示
+        long v = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((v & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    void writeLong(Long value) {
+        if (writePresence(value)) {
+            writeVarLong(value);
+        }
+    }
+
+    void writeInt(Integer value) {
+        if (writePresence(value)) {
+            writeVarLong(value);
+        }
+    }
+
+    void writeString(String value) {
+        if (writePresence(value)) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes);
+        }
+    }
+
+    void writeDecimal(BigDecimal value) {
+        if (!writePresence(value)) {
+            return;
+        }
+        writeVarLong(value.scale());
+        if (value.unscaledValue().bitLength() < 64) {
+            writeByte(DECIMAL_LONG);
+            writeVarLong(value.unscaledValue().longValue());
+        } else {
+            byte[] bytes = value.unscaledValue().toByteArray();
+            writeByte(DECIMAL_BYTES);
+            writeVarLong(bytes.length);
+            writeBytes(bytes);
+        }
+    }
+
+    void writeTime(LocalDateTime value) {
+        if (writePresence(value)) {
+            writeVarLong(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private boolean writePresence(Object value) {
+        writeByte(value == null ? NULL : PRESENT);
+        return value != null;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
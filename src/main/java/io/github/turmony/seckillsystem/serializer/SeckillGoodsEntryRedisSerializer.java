@@ -0,0 +1,78 @@
+package io.github.turmony.seckillsystem.serializer;
+
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 秒杀商品展示缓存条目（seckill:goods:vo:{goodsId}）二进制序列化器
+ *
+ * 格式：版本号 + 逻辑过期时间 + 加载耗时 + VO（空值条目VO为null）
+ * 读取到未知版本（如升级前写入的JSON）时返回null，由缓存按未命中重新加载并覆盖
+ */
+public class SeckillGoodsEntryRedisSerializer implements RedisSerializer<SeckillGoodsCache.CacheEntry> {
+
+    static final byte VERSION = 1;
+
+    @Override
+    public byte[] serialize(SeckillGoodsCache.CacheEntry entry) throws SerializationException {
+        if (entry == null) {
+            return new byte[0];
+        }
+        // 商品详情文本较长，按常见大小预分配，避免多次扩容
+        BinaryWriter writer = new BinaryWriter(256);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(entry.getExpireAt());
+        writer.writeVarLong(entry.getLoadCostMs());
+        SeckillGoodsVO vo = entry.getData();
+        writer.writeByte(vo == null ? 0 : 1);
+        if (vo != null) {
+            writer.writeLong(vo.getId());
+            writer.writeLong(vo.getGoodsId());
+            writer.writeString(vo.getGoodsName());
+            writer.writeString(vo.getGoodsTitle());
+            writer.writeString(vo.getGoodsImg());
+            writer.writeString(vo.getGoodsDetail());
+            writer.writeDecimal(vo.getGoodsPrice());
+            writer.writeDecimal(vo.getSeckillPrice());
+            writer.writeInt(vo.getStockCount());
+            writer.writeTime(vo.getStartTime());
+            writer.writeTime(vo.getEndTime());
+            writer.writeInt(vo.getStatus());
+            writer.writeLong(vo.getRemainSeconds());
+            writer.writeLong(vo.getEndRemainSeconds());
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public SeckillGoodsCache.CacheEntry deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != VERSION) {
+            return null;
+        }
+        BinaryReader reader = new BinaryReader(bytes);
+        reader.readByte();
+        long expireAt = reader.readVarLong();
+        long loadCostMs = reader.readVarLong();
+        SeckillGoodsVO vo = null;
+        if (reader.readByte() != 0) {
+            vo = new SeckillGoodsVO();
+            vo.setId(reader.readLong());
+            vo.setGoodsId(reader.readLong());
+            vo.setGoodsName(reader.readString());
+            vo.setGoodsTitle(reader.readString());
+            vo.setGoodsImg(reader.readString());
+            vo.setGoodsDetail(reader.readString());
+            vo.setGoodsPrice(reader.readDecimal());
+            vo.setSeckillPrice(reader.readDecimal());
+            vo.setStockCount(reader.readInt());
+            vo.setStartTime(reader.readTime());
+            vo.setEndTime(reader.readTime());
+            vo.setStatus(reader.readInt());
+            vo.setRemainSeconds(reader.readLong());
+            vo.setEndRemainSeconds(reader.readLong());
+        }
+        return new SeckillGoodsCache.CacheEntry(vo, expireAt, loadCostMs);
+    }
+}
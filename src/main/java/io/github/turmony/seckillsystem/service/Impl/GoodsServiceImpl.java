@@ -3,6 +3,7 @@ package io.github.turmony.seckillsystem.service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
 import io.github.turmony.seckillsystem.entity.Goods;
 import io.github.turmony.seckillsystem.mapper.GoodsMapper;
 import io.github.turmony.seckillsystem.service.GoodsService;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class GoodsServiceImpl implements GoodsService {
 
     private final GoodsMapper goodsMapper;
+    private final SeckillGoodsCache seckillGoodsCache;
 
     @Override
     public Page<GoodsVO> getGoodsList(Long current, Long size) {
@@ -63,12 +65,21 @@ public class GoodsServiceImpl implements GoodsService {
 
     @Override
     public boolean updateGoods(Goods goods) {
-        return goodsMapper.updateById(goods) > 0;
+        boolean result = goodsMapper.updateById(goods) > 0;
+        if (result) {
+            // 秒杀商品缓存中包含商品名称、图片等信息，需要同步失效
+            seckillGoodsCache.invalidate(goods.getId());
+        }
+        return result;
     }
 
     @Override
     public boolean deleteGoods(Long id) {
-        return goodsMapper.deleteById(id) > 0;
+        boolean result = goodsMapper.deleteById(id) > 0;
+        if (result) {
+            seckillGoodsCache.invalidate(id);
+        }
+        return result;
     }
 
     /**
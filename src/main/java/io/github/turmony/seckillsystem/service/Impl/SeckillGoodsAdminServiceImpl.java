@@ -0,0 +1,210 @@
+package io.github.turmony.seckillsystem.service.Impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockMirror;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.service.SeckillGoodsAdminService;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
+import io.github.turmony.seckillsystem.util.RedisUtil;
+import io.github.turmony.seckillsystem.warmup.SeckillGoodsWarmer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 秒杀商品管理端批量操作实现
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeckillGoodsAdminServiceImpl implements SeckillGoodsAdminService {
+
+    /**
+     * SCAN每批Key数量、MGET/MSET/UNLINK每批数量
+     */
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    /**
+     * 每批查询数据库的商品数
+     */
+    private static final int DB_BATCH_SIZE = 500;
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final RedisUtil redisUtil;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillStockMirror seckillStockMirror;
+    private final LuaScriptUtil luaScriptUtil;
+    private final SeckillGoodsWarmer seckillGoodsWarmer;
+
+    @Override
+    public long clearCache() {
+        AtomicLong deleted = new AtomicLong();
+        // seckill:goods:{goodsId}（活动数据）和 seckill:goods:vo:{goodsId}（展示缓存），跳过列表索引等其他Key
+        redisUtil.scan(RedisKeyConstant.SECKILL_GOODS_PREFIX + "*", SCAN_BATCH_SIZE, keys -> {
+            List<String> targets = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                if (parseGoodsId(key, RedisKeyConstant.SECKILL_GOODS_PREFIX) != null
+                        || parseGoodsId(key, RedisKeyConstant.SECKILL_GOODS_VO_PREFIX) != null) {
+                    targets.add(key);
+                }
+            }
+            deleted.addAndGet(redisUtil.unlink(targets));
+        });
+        // seckill:stock:{goodsId} 和 seckill:stock:ledger:{goodsId}（库存账本），跳过库存回滚记录
+        redisUtil.scan(RedisKeyConstant.SECKILL_STOCK_PREFIX + "*", SCAN_BATCH_SIZE, keys -> {
+            List<String> targets = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                if (parseGoodsId(key, RedisKeyConstant.SECKILL_STOCK_PREFIX) != null
+                        || parseGoodsId(key, RedisKeyConstant.SECKILL_STOCK_LEDGER_PREFIX) != null) {
+                    targets.add(key);
+                }
+            }
+            deleted.addAndGet(redisUtil.unlink(targets));
+        });
+
+        // 通知所有节点清除本地缓存
+        seckillGoodsCache.invalidateAllLocal();
+        log.info("秒杀商品缓存清除完成，删除Key数量: {}", deleted.get());
+        return deleted.get();
+    }
+
+    @Override
+    public long scanStock(Consumer<Map<Long, Long>> consumer) {
+        AtomicLong total = new AtomicLong();
+        redisUtil.scan(RedisKeyConstant.SECKILL_STOCK_PREFIX + "*", SCAN_BATCH_SIZE, keys -> {
+            List<String> stockKeys = new ArrayList<>(keys.size());
+            List<Long> goodsIds = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Long goodsId = parseGoodsId(key, RedisKeyConstant.SECKILL_STOCK_PREFIX);
+                if (goodsId != null) {
+                    stockKeys.add(key);
+                    goodsIds.add(goodsId);
+                }
+            }
+            if (stockKeys.isEmpty()) {
+                return;
+            }
+            List<Long> stocks = redisUtil.multiGetLong(stockKeys);
+            Map<Long, Long> batch = new LinkedHashMap<>(goodsIds.size() * 2);
+            for (int i = 0; i < goodsIds.size(); i++) {
+                // SCAN到之后被删除的Key不返回
+                if (stocks.get(i) != null) {
+                    batch.put(goodsIds.get(i), stocks.get(i));
+                }
+            }
+            total.addAndGet(batch.size());
+            consumer.accept(batch);
+        });
+        return total.get();
+    }
+
+    @Override
+    public Map<String, Object> resetStock(List<Long> goodsIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(goodsIds));
+        Map<Long, Long> stocks = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+
+        for (int from = 0; from < distinctIds.size(); from += DB_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + DB_BATCH_SIZE, distinctIds.size()));
+            List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(new QueryWrapper<SeckillGoods>()
+                    .select("goods_id", "stock_count")
+                    .in("goods_id", batch));
+
+            Map<Long, Long> batchStocks = new LinkedHashMap<>();
+            for (SeckillGoods seckillGoods : seckillGoodsList) {
+                batchStocks.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount().longValue());
+            }
+            for (Long goodsId : batch) {
+                if (!batchStocks.containsKey(goodsId)) {
+                    notFound.add(goodsId);
+                }
+            }
+            // 库存与库存账本在一个Lua脚本中一起写入
+            luaScriptUtil.initStock(batchStocks, false);
+            batchStocks.forEach(seckillStockMirror::put);
+            stocks.putAll(batchStocks);
+        }
+
+        log.info("批量重置库存完成，重置数量: {}, 不存在的商品: {}", stocks.size(), notFound);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resetCount", stocks.size());
+        result.put("notFound", notFound);
+        result.put("stocks", stocks);
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> restoreFromDb(Integer status, LocalDateTime startFrom, LocalDateTime startTo) {
+        long startTime = System.currentTimeMillis();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger skippedCount = new AtomicInteger();
+        AtomicInteger verifyFailCount = new AtomicInteger();
+        int totalCount = 0;
+
+        // 按主键分页（id > lastId），不使用OFFSET，也不一次加载全部商品
+        long lastId = 0;
+        while (true) {
+            List<SeckillGoods> page = seckillGoodsMapper.selectList(new QueryWrapper<SeckillGoods>()
+                    .gt("id", lastId)
+                    .eq(status != null, "status", status)
+                    .ge(startFrom != null, "start_time", startFrom)
+                    .le(startTo != null, "start_time", startTo)
+                    .orderByAsc("id")
+                    .last("LIMIT " + DB_BATCH_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            totalCount += page.size();
+            seckillGoodsWarmer.restore(page, successCount, skippedCount, verifyFailCount);
+            lastId = page.get(page.size() - 1).getId();
+            if (page.size() < DB_BATCH_SIZE) {
+                break;
+            }
+        }
+
+        if (totalCount > 0) {
+            seckillGoodsCache.invalidateAllLocal();
+        }
+
+        long costTime = System.currentTimeMillis() - startTime;
+        log.info("按条件恢复秒杀商品完成，条件: status={}, startFrom={}, startTo={}, 总数={}, 成功={}, 跳过={}, 校验失败={}, 耗时={}ms",
+                status, startFrom, startTo, totalCount, successCount.get(), skippedCount.get(),
+                verifyFailCount.get(), costTime);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalCount", totalCount);
+        result.put("successCount", successCount.get());
+        result.put("skippedCount", skippedCount.get());
+        result.put("verifyFailCount", verifyFailCount.get());
+        result.put("costTime", costTime + "ms");
+        return result;
+    }
+
+    /**
+     * 从 前缀 + 商品ID 格式的Key中解析商品ID，格式不符（如 seckill:stock:rollback:1）时返回null
+     */
+    private static Long parseGoodsId(String key, String prefix) {
+        if (!key.startsWith(prefix) || key.length() == prefix.length()) {
+            return null;
+        }
+        for (int i = prefix.length(); i < key.length(); i++) {
+            if (!Character.isDigit(key.charAt(i))) {
+                return null;
+            }
+        }
+        return Long.valueOf(key.substring(prefix.length()));
+    }
+}
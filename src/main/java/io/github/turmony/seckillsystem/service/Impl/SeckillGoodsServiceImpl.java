@@ -1,29 +1,34 @@
 package io.github.turmony.seckillsystem.service.Impl;
 
-import com.alibaba.fastjson.JSON;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsHashCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsListCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockMirror;
 import io.github.turmony.seckillsystem.common.RedisKeyConstant;
-import io.github.turmony.seckillsystem.entity.Goods;
 import io.github.turmony.seckillsystem.entity.SeckillGoods;
-import io.github.turmony.seckillsystem.mapper.GoodsMapper;
 import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
 import io.github.turmony.seckillsystem.service.SeckillGoodsService;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
 import io.github.turmony.seckillsystem.util.RedisUtil;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsDynamicVO;
 import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
+import io.github.turmony.seckillsystem.warmup.SeckillActivityScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * 秒杀商品服务实现类
- * 集成Redis缓存，优先从缓存读取数据
+ * 商品基础信息走两级缓存（本地 + Redis），展示库存读本节点库存镜像，秒杀状态每次请求计算
  */
 @Slf4j
 @Service
@@ -31,24 +36,34 @@ import java.util.stream.Collectors;
 public class SeckillGoodsServiceImpl implements SeckillGoodsService {
 
     private final SeckillGoodsMapper seckillGoodsMapper;
-    private final GoodsMapper goodsMapper;
     private final RedisUtil redisUtil;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+    private final SeckillGoodsListCache seckillGoodsListCache;
+    private final SeckillGoodsHashCache seckillGoodsHashCache;
+    private final SeckillStockMirror seckillStockMirror;
+    private final SeckillActivityScheduler seckillActivityScheduler;
+    private final LuaScriptUtil luaScriptUtil;
 
     @Override
     public Page<SeckillGoodsVO> getSeckillGoodsList(Long current, Long size) {
-        // 从数据库查询秒杀商品（这里也可以优化为从Redis读取）
-        Page<SeckillGoods> page = new Page<>(current, size);
-        Page<SeckillGoods> seckillGoodsPage = seckillGoodsMapper.selectPage(page,
-                new QueryWrapper<SeckillGoods>()
-                        .orderByDesc("create_time"));
+        long pageNo = current == null || current < 1 ? 1 : current;
+        long pageSize = size == null || size < 1 ? 10 : size;
+
+        // 1. 从Redis列表索引读取当前页的商品ID和总数（ZREVRANGE + ZCARD）
+        List<Long> goodsIds = seckillGoodsListCache.page((pageNo - 1) * pageSize, pageSize);
+        Page<SeckillGoodsVO> voPage = new Page<>(pageNo, pageSize, seckillGoodsListCache.count());
+        if (goodsIds.isEmpty()) {
+            voPage.setRecords(new ArrayList<>());
+            return voPage;
+        }
 
-        // 转换为VO，并从Redis获取库存信息
-        Page<SeckillGoodsVO> voPage = new Page<>(seckillGoodsPage.getCurrent(),
-                seckillGoodsPage.getSize(), seckillGoodsPage.getTotal());
+        // 2. 批量读取商品基础信息（两级缓存）
+        List<SeckillGoodsVO> voList = seckillGoodsCache.multiGet(goodsIds);
 
-        List<SeckillGoodsVO> voList = seckillGoodsPage.getRecords().stream()
-                .map(this::convertToVO)
-                .collect(Collectors.toList());
+        // 3. 填充库存（本地镜像，未命中的一次MGET），并计算秒杀状态
+        fillStock(voList);
+        voList.forEach(this::calculateSeckillStatus);
 
         voPage.setRecords(voList);
         return voPage;
@@ -56,44 +71,46 @@ public class SeckillGoodsServiceImpl implements SeckillGoodsService {
 
     @Override
     public SeckillGoodsVO getSeckillGoodsByGoodsId(Long goodsId) {
-        // 1. 先从Redis获取秒杀商品信息
-        String goodsKey = RedisKeyConstant.getSeckillGoodsKey(goodsId);
-        Object cacheObj = redisUtil.get(goodsKey);
+        // 1. 从两级缓存获取商品基础信息（本地 -> Redis -> MySQL）
+        SeckillGoodsVO vo = seckillGoodsCache.get(goodsId);
+        if (vo == null) {
+            return null;
+        }
 
-        SeckillGoods seckillGoods;
+        // 2. 填充库存（本地镜像，未命中时读Redis）
+        fillStock(Collections.singletonList(vo));
 
-        if (cacheObj != null) {
-            // 从缓存中读取
-            log.info("从Redis缓存读取秒杀商品信息，商品ID: {}", goodsId);
-            seckillGoods = JSON.parseObject(JSON.toJSONString(cacheObj), SeckillGoods.class);
-        } else {
-            // 缓存未命中，从数据库查询
-            log.info("缓存未命中，从数据库查询秒杀商品信息，商品ID: {}", goodsId);
-            seckillGoods = seckillGoodsMapper.selectOne(
-                    new QueryWrapper<SeckillGoods>().eq("goods_id", goodsId)
-            );
-
-            if (seckillGoods != null) {
-                // 写入缓存
-                redisUtil.set(goodsKey, seckillGoods);
-                log.info("秒杀商品信息已写入Redis缓存，商品ID: {}", goodsId);
-            }
-        }
+        // 3. 计算秒杀状态和倒计时
+        calculateSeckillStatus(vo);
+        return vo;
+    }
 
-        if (seckillGoods == null) {
-            return null;
+    @Override
+    public List<SeckillGoodsDynamicVO> getSeckillGoodsDynamic(List<Long> goodsIds) {
+        if (goodsIds == null || goodsIds.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // 2. 从Redis获取实时库存
-        String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
-        Long stock = redisUtil.getLong(stockKey);
-        if (stock != null) {
-            seckillGoods.setStockCount(stock.intValue());
-            log.info("从Redis读取实时库存，商品ID: {}, 库存: {}", goodsId, stock);
+        // 1. 开始/结束时间取自两级缓存（不存在的商品被过滤掉）
+        List<SeckillGoodsVO> voList = seckillGoodsCache.multiGet(goodsIds);
+
+        // 2. 填充库存（本地镜像，未命中的一次MGET），并计算秒杀状态
+        fillStock(voList);
+        long serverTime = System.currentTimeMillis();
+        List<SeckillGoodsDynamicVO> result = new ArrayList<>(voList.size());
+        for (SeckillGoodsVO vo : voList) {
+            calculateSeckillStatus(vo);
+
+            SeckillGoodsDynamicVO dynamicVO = new SeckillGoodsDynamicVO();
+            dynamicVO.setGoodsId(vo.getGoodsId());
+            dynamicVO.setStockCount(vo.getStockCount());
+            dynamicVO.setStatus(vo.getStatus());
+            dynamicVO.setRemainSeconds(vo.getRemainSeconds());
+            dynamicVO.setEndRemainSeconds(vo.getEndRemainSeconds());
+            dynamicVO.setServerTime(serverTime);
+            result.add(dynamicVO);
         }
-
-        // 3. 转换为VO返回
-        return convertToVO(seckillGoods);
+        return result;
     }
 
     @Override
@@ -102,12 +119,16 @@ public class SeckillGoodsServiceImpl implements SeckillGoodsService {
         boolean result = seckillGoodsMapper.insert(seckillGoods) > 0;
 
         if (result) {
-            // 2. 同步到Redis缓存
-            String goodsKey = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
-            String stockKey = RedisKeyConstant.getSeckillStockKey(seckillGoods.getGoodsId());
-
-            redisUtil.set(goodsKey, seckillGoods);
-            redisUtil.set(stockKey, seckillGoods.getStockCount());
+            // 2. 同步到Redis缓存（库存与库存账本一起写入）
+            seckillGoodsHashCache.put(seckillGoods);
+            luaScriptUtil.initStock(seckillGoods.getGoodsId(), seckillGoods.getStockCount(), false);
+            seckillStockMirror.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount());
+            // 先放入布隆过滤器，再清除空值缓存
+            seckillGoodsBloomFilter.add(seckillGoods.getGoodsId());
+            seckillGoodsCache.invalidate(seckillGoods.getGoodsId());
+            seckillGoodsListCache.add(seckillGoods);
+            // 登记活动开始、结束时间点
+            seckillActivityScheduler.schedule(seckillGoods);
 
             log.info("新增秒杀商品并同步到Redis，商品ID: {}", seckillGoods.getGoodsId());
         }
@@ -121,12 +142,23 @@ public class SeckillGoodsServiceImpl implements SeckillGoodsService {
         boolean result = seckillGoodsMapper.updateById(seckillGoods) > 0;
 
         if (result) {
-            // 2. 更新Redis缓存
-            String goodsKey = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
-            String stockKey = RedisKeyConstant.getSeckillStockKey(seckillGoods.getGoodsId());
-
-            redisUtil.set(goodsKey, seckillGoods);
-            redisUtil.set(stockKey, seckillGoods.getStockCount());
+            // 2. 更新Redis缓存：活动数据只写变化的字段，缓存不存在时写入完整数据
+            if (!seckillGoodsHashCache.updateFields(seckillGoods)) {
+                SeckillGoods latest = seckillGoodsMapper.selectById(seckillGoods.getId());
+                if (latest != null) {
+                    seckillGoodsHashCache.put(latest);
+                    seckillActivityScheduler.schedule(latest);
+                }
+            } else if (seckillGoods.getStartTime() != null || seckillGoods.getEndTime() != null) {
+                // 活动时间修改后重新登记（时间未变化时调度器不做任何事）
+                seckillActivityScheduler.schedule(seckillGoodsMapper.selectById(seckillGoods.getId()));
+            }
+            if (seckillGoods.getStockCount() != null) {
+                luaScriptUtil.initStock(seckillGoods.getGoodsId(), seckillGoods.getStockCount(), false);
+                seckillStockMirror.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount());
+            }
+            seckillGoodsCache.invalidate(seckillGoods.getGoodsId());
+            seckillGoodsListCache.addIfAbsent(seckillGoods);
 
             log.info("更新秒杀商品并同步到Redis，商品ID: {}", seckillGoods.getGoodsId());
         }
@@ -150,7 +182,13 @@ public class SeckillGoodsServiceImpl implements SeckillGoodsService {
             String goodsKey = RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId());
             String stockKey = RedisKeyConstant.getSeckillStockKey(seckillGoods.getGoodsId());
 
-            redisUtil.del(goodsKey, stockKey);
+            redisUtil.del(goodsKey, stockKey, RedisKeyConstant.getSeckillStockLedgerKey(seckillGoods.getGoodsId()));
+            seckillGoodsCache.invalidate(seckillGoods.getGoodsId());
+            seckillGoodsListCache.remove(seckillGoods.getGoodsId());
+            seckillStockMirror.remove(seckillGoods.getGoodsId());
+            seckillActivityScheduler.unschedule(seckillGoods.getGoodsId());
+            // 布隆过滤器不支持删除，通知各节点重建
+            seckillGoodsBloomFilter.requestRebuild();
 
             log.info("删除秒杀商品并清除Redis缓存，商品ID: {}", seckillGoods.getGoodsId());
         }
@@ -159,27 +197,34 @@ public class SeckillGoodsServiceImpl implements SeckillGoodsService {
     }
 
     /**
-     * 将SeckillGoods转换为SeckillGoodsVO
-     * 包含关联的商品基本信息和秒杀状态计算
+     * 填充展示库存：优先读本节点库存镜像，未命中的商品一次MGET读Redis并回填镜像
+     * 展示库存允许短暂延迟；扣减库存只走Redis Lua脚本，不经过这里
+     * @param voList 秒杀商品VO列表
      */
-    private SeckillGoodsVO convertToVO(SeckillGoods seckillGoods) {
-        SeckillGoodsVO vo = new SeckillGoodsVO();
-        BeanUtils.copyProperties(seckillGoods, vo);
-
-        // 查询关联的商品基本信息
-        Goods goods = goodsMapper.selectById(seckillGoods.getGoodsId());
-        if (goods != null) {
-            vo.setGoodsName(goods.getName());
-            vo.setGoodsTitle(goods.getTitle());
-            vo.setGoodsImg(goods.getImg());
-            vo.setGoodsDetail(goods.getDetail());
-            vo.setGoodsPrice(goods.getPrice());
+    private void fillStock(List<SeckillGoodsVO> voList) {
+        List<SeckillGoodsVO> missList = new ArrayList<>();
+        for (SeckillGoodsVO vo : voList) {
+            Long stock = seckillStockMirror.get(vo.getGoodsId());
+            if (stock != null) {
+                vo.setStockCount(stock.intValue());
+            } else {
+                missList.add(vo);
+            }
+        }
+        if (missList.isEmpty()) {
+            return;
         }
 
-        // 计算秒杀状态和倒计时
-        calculateSeckillStatus(vo);
-
-        return vo;
+        List<Long> stocks = redisUtil.multiGetLong(missList.stream()
+                .map(vo -> RedisKeyConstant.getSeckillStockKey(vo.getGoodsId()))
+                .collect(Collectors.toList()));
+        for (int i = 0; i < missList.size(); i++) {
+            Long stock = stocks.get(i);
+            if (stock != null) {
+                missList.get(i).setStockCount(stock.intValue());
+                seckillStockMirror.put(missList.get(i).getGoodsId(), stock);
+            }
+        }
     }
 
     /**
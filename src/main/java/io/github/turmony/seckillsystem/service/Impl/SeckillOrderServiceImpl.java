@@ -2,6 +2,10 @@ package io.github.turmony.seckillsystem.service.Impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import io.github.turmony.seckillsystem.archive.OrderArchiveStore;
+import io.github.turmony.seckillsystem.cache.OrderStatusCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockLedger;
 import io.github.turmony.seckillsystem.common.RedisKeyConstant;
 import io.github.turmony.seckillsystem.dto.SeckillMessageDTO;
 import io.github.turmony.seckillsystem.dto.SeckillOrderDTO;
@@ -13,22 +17,40 @@ import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
 import io.github.turmony.seckillsystem.mapper.SeckillOrderMapper;
 import io.github.turmony.seckillsystem.service.SeckillOrderService;
 import io.github.turmony.seckillsystem.service.mq.MQSender;
+import io.github.turmony.seckillsystem.service.push.OrderResultNotifier;
+import io.github.turmony.seckillsystem.shard.OrderShardRouter;
+import io.github.turmony.seckillsystem.util.CursorUtil;
 import io.github.turmony.seckillsystem.util.LuaScriptUtil;
 import io.github.turmony.seckillsystem.util.RedisUtil;
 import io.github.turmony.seckillsystem.util.RedissonLockUtil;
+import io.github.turmony.seckillsystem.vo.CursorPageVO;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
 import io.github.turmony.seckillsystem.vo.SeckillOrderVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +62,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SeckillOrderServiceImpl implements SeckillOrderService {
 
+    /**
+     * 订单列表默认与最大每页大小
+     */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 订单按 (create_time, id) 倒序，与游标分页的排序一致
+     */
+    private static final Comparator<SeckillOrder> ORDER_TIME_DESC = Comparator
+            .comparing(SeckillOrder::getCreateTime, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(SeckillOrder::getId, Comparator.nullsLast(Comparator.<Long>reverseOrder()));
+
     private final SeckillOrderMapper seckillOrderMapper;
     private final SeckillGoodsMapper seckillGoodsMapper;
     private final GoodsMapper goodsMapper;
@@ -47,24 +82,33 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
     private final LuaScriptUtil luaScriptUtil;
     private final RedissonLockUtil redissonLockUtil;
     private final MQSender mqSender;
+    private final OrderStatusCache orderStatusCache;
+    private final OrderResultNotifier orderResultNotifier;
+    private final OrderShardRouter orderShardRouter;
+    private final OrderArchiveStore orderArchiveStore;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillStockLedger seckillStockLedger;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 不分页的订单列表最多合并的归档订单数（按创建时间取最近的，完整历史通过游标分页查询）
+     */
+    @Value("${seckill.order.archive.list-limit:100}")
+    private int archiveListLimit;
 
     @Override
     public SeckillOrderVO getOrderByUserIdAndGoodsId(Long userId, Long goodsId) {
-        SeckillOrder order = seckillOrderMapper.selectOne(
+        SeckillOrder order = orderShardRouter.findByUser(userId, () -> seckillOrderMapper.selectOne(
                 new QueryWrapper<SeckillOrder>()
                         .eq("user_id", userId)
                         .eq("goods_id", goodsId)
-        );
+        ));
 
         if (order == null) {
             return null;
         }
 
-        SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
-                new QueryWrapper<SeckillGoods>().eq("goods_id", goodsId)
-        );
-
-        return convertToVO(order, seckillGoods);
+        return convertToVO(order);
     }
 
     /**
@@ -75,45 +119,47 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
     public String doSeckill(Long userId, Long goodsId) {
         log.info("=== 【异步秒杀】开始 === 用户ID: {}, 商品ID: {}", userId, goodsId);
 
-        // ============ Step 1: 查询秒杀商品信息 ============
-        SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
-                new QueryWrapper<SeckillGoods>().eq("goods_id", goodsId)
-        );
+        // ============ Step 1: 查询秒杀商品信息（两级缓存，带击穿保护） ============
+        SeckillGoodsVO seckillGoods = seckillGoodsCache.get(goodsId);
 
         if (seckillGoods == null) {
             log.warn("❌ 秒杀商品不存在，商品ID: {}", goodsId);
             throw new RuntimeException("秒杀商品不存在");
         }
 
-        // ============ Step 2: 校验秒杀时间 ============
-        LocalDateTime now = LocalDateTime.now();
-        if (now.isBefore(seckillGoods.getStartTime())) {
-            log.warn("❌ 秒杀未开始，商品ID: {}, 开始时间: {}", goodsId, seckillGoods.getStartTime());
-            throw new RuntimeException("秒杀活动尚未开始");
-        }
-        if (now.isAfter(seckillGoods.getEndTime())) {
-            log.warn("❌ 秒杀已结束，商品ID: {}, 结束时间: {}", goodsId, seckillGoods.getEndTime());
-            throw new RuntimeException("秒杀活动已结束");
-        }
-
-        // ============ Step 3: 检查是否已经购买过（防止重复下单） ============
-        SeckillOrder existOrder = seckillOrderMapper.selectOne(
+        // ============ Step 2: 检查是否已经购买过（防止重复下单） ============
+        SeckillOrder existOrder = orderShardRouter.findByUser(userId, () -> seckillOrderMapper.selectOne(
                 new QueryWrapper<SeckillOrder>()
                         .eq("user_id", userId)
                         .eq("goods_id", goodsId)
-        );
+        ));
 
         if (existOrder != null) {
             log.warn("⚠️ 用户已购买过该商品，返回现有订单，用户ID: {}, 商品ID: {}", userId, goodsId);
             return existOrder.getOrderId();
         }
 
-        // ============ Step 4: 使用Lua脚本原子扣减Redis库存 ============
-        String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
-        Long luaResult = luaScriptUtil.deductStock(stockKey);
+        // ============ Step 3: 使用Lua脚本原子校验活动时间并扣减Redis库存（按Redis服务器时间，不受各节点时钟偏差影响） ============
+        Long luaResult = luaScriptUtil.deductStock(goodsId);
+
+        if (LuaScriptUtil.isNotStarted(luaResult)) {
+            log.warn("❌ 秒杀未开始，商品ID: {}, 开始时间: {}", goodsId, seckillGoods.getStartTime());
+            throw new RuntimeException("秒杀活动尚未开始");
+        }
+
+        if (LuaScriptUtil.isEnded(luaResult)) {
+            log.warn("❌ 秒杀已结束，商品ID: {}, 结束时间: {}", goodsId, seckillGoods.getEndTime());
+            throw new RuntimeException("秒杀活动已结束");
+        }
+
+        if (LuaScriptUtil.isEvicted(luaResult)) {
+            // 活动结束超过清理时间后Redis数据已被活动调度器删除（由脚本根据清理标记判断，不使用本节点时钟）
+            log.warn("❌ 秒杀已结束（活动数据已清理），商品ID: {}", goodsId);
+            throw new RuntimeException("秒杀活动已结束");
+        }
 
         if (LuaScriptUtil.isKeyNotExist(luaResult)) {
-            log.error("❌ Redis库存Key不存在，商品ID: {}", goodsId);
+            log.error("❌ Redis库存Key或活动数据不存在，商品ID: {}", goodsId);
             throw new RuntimeException("系统异常，请稍后重试");
         }
 
@@ -124,9 +170,10 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
 
         log.info("✅ Lua脚本扣减Redis库存成功，商品ID: {}", goodsId);
 
-        // ============ Step 5: 创建"排队中"状态的订单 ============
+        // ============ Step 4: 创建"排队中"状态的订单 ============
         String orderNo = generateOrderNo();
-        String orderId = generateOrderId();
+        // 订单ID中带有分表下标，后续按订单ID查询时可直接路由
+        String orderId = orderShardRouter.generateOrderId(userId);
 
         SeckillOrder order = new SeckillOrder();
         order.setUserId(userId);
@@ -135,29 +182,32 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         order.setOrderNo(orderNo);
         order.setOrderId(orderId);
 
-        // 查询商品基本信息
-        Goods goods = goodsMapper.selectById(goodsId);
-        if (goods != null) {
-            order.setGoodsName(goods.getName());
-        }
+        // 商品名称取自缓存中的商品基本信息
+        order.setGoodsName(seckillGoods.getGoodsName());
 
         order.setSeckillPrice(seckillGoods.getSeckillPrice());
         order.setStatus(0);  // 0-排队中
         order.setSeckillStatus(0);  // 0-秒杀中
         order.setCreateTime(LocalDateTime.now());
 
-        int insertCount = seckillOrderMapper.insert(order);
+        int insertCount = orderShardRouter.routeByUser(userId, () -> seckillOrderMapper.insert(order));
 
         if (insertCount == 0) {
-            // 订单创建失败，需要回滚Redis库存
-            redisUtil.incr(stockKey, 1);
+            // 订单创建失败，需要回滚Redis库存（按订单ID幂等）
+            luaScriptUtil.rollbackStock(goodsId, orderId);
             log.error("❌ 订单创建失败，已回滚Redis库存，用户ID: {}, 商品ID: {}", userId, goodsId);
             throw new RuntimeException("订单创建失败");
         }
 
         log.info("✅ 订单创建成功（排队中状态），订单ID: {}, 订单号: {}", orderId, orderNo);
 
-        // ============ Step 6: 发送MQ消息（异步处理） ============
+        // 写入订单状态缓存（排队中），结果轮询直接读Redis；事务回滚时由缓存删除
+        SeckillOrderVO statusVO = new SeckillOrderVO();
+        BeanUtils.copyProperties(order, statusVO);
+        statusVO.setGoodsImg(seckillGoods.getGoodsImg());
+        orderStatusCache.put(statusVO);
+
+        // ============ Step 5: 发送MQ消息（异步处理） ============
         try {
             SeckillMessageDTO message = new SeckillMessageDTO();
             message.setUserId(userId);
@@ -171,18 +221,15 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
 
         } catch (Exception e) {
             log.error("❌ MQ消息发送失败，订单ID: {}, 错误: {}", orderId, e.getMessage(), e);
-            // 消息发送失败，更新订单状态为失败
-            seckillOrderMapper.update(null,
-                    new UpdateWrapper<SeckillOrder>()
-                            .set("status", 2)  // 2-失败
-                            .eq("order_id", orderId)
-            );
+            // 消息发送失败，订单不会再被消费，回滚Redis库存（按订单ID幂等）
+            luaScriptUtil.rollbackStock(goodsId, orderId);
+            // 抛出异常后事务回滚，订单记录和订单状态缓存都不会保留，不需要再标记失败
             throw new RuntimeException("系统繁忙，请稍后重试");
         }
 
         log.info("=== 【异步秒杀】完成 === 订单ID: {}，请稍后查询订单结果", orderId);
 
-        // ============ Step 7: 立即返回订单ID（不阻塞用户） ============
+        // ============ Step 6: 立即返回订单ID（不阻塞用户） ============
         return orderId;
     }
 
@@ -198,7 +245,10 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         // ============ Step 1: 使用分布式锁（防止重复消费） ============
         String lockKey = RedisKeyConstant.getSeckillOrderLockKey(userId, goodsId);
 
-        redissonLockUtil.executeWithLock(lockKey, () -> {
+        // 整个处理过程路由到订单所在分表（订单ID中带有分表下标；分表前生成的订单先定位所在的表）
+        Integer shard = orderShardRouter.locateOrder(orderId, () -> seckillOrderMapper.selectCount(
+                new QueryWrapper<SeckillOrder>().eq("order_id", orderId)) > 0);
+        orderShardRouter.route(shard, () -> redissonLockUtil.executeWithLock(lockKey, () -> {
             try {
                 // ============ Step 2: 查询订单 ============
                 SeckillOrder order = seckillOrderMapper.selectOne(
@@ -228,9 +278,8 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
                     // MySQL库存不足，更新订单状态为失败，并回滚Redis库存
                     log.warn("❌ MySQL库存不足，订单处理失败，订单ID: {}", orderId);
 
-                    // 回滚Redis库存
-                    String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
-                    redisUtil.incr(stockKey, 1);
+                    // 回滚Redis库存（按订单ID幂等，消息重投不会重复回滚）
+                    luaScriptUtil.rollbackStock(goodsId, orderId);
 
                     // 更新订单状态为失败
                     seckillOrderMapper.update(null,
@@ -241,6 +290,8 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
                                     .eq("order_id", orderId)
                     );
 
+                    orderStatusCache.updateStatus(orderId, 2);
+                    orderResultNotifier.publish(orderId, 2);
                     log.info("订单状态已更新为失败，订单ID: {}", orderId);
                     return null;
                 }
@@ -256,6 +307,10 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
                                 .eq("order_id", orderId)
                 );
 
+                orderStatusCache.updateStatus(orderId, 1);
+                orderResultNotifier.publish(orderId, 1);
+                // 库存账本累加成功订单数（事务提交后）
+                seckillStockLedger.recordSuccess(goodsId);
                 log.info("✅ 订单处理成功，订单ID: {}, 订单号: {}", orderId, order.getOrderNo());
 
                 return null;
@@ -263,44 +318,99 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
             } catch (Exception e) {
                 log.error("❌ 订单处理异常，订单ID: {}, 错误: {}", orderId, e.getMessage(), e);
 
-                // 更新订单状态为失败
-                seckillOrderMapper.update(null,
-                        new UpdateWrapper<SeckillOrder>()
-                                .set("status", 2)  // 2-失败
-                                .set("seckill_status", 2)  // 2-秒杀失败
-                                .set("update_time", LocalDateTime.now())
-                                .eq("order_id", orderId)
-                );
-
-                // 回滚Redis库存
-                String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
-                redisUtil.incr(stockKey, 1);
+                // 当前事务随异常回滚，在这里更新订单状态也会被回滚；
+                // 改为事务回滚后在新事务中标记订单失败，标记成功后再回滚Redis库存
+                compensateAfterRollback(goodsId, orderId, shard);
 
                 throw new RuntimeException("订单处理失败: " + e.getMessage(), e);
             }
-        });
+        }));
 
         log.info("=== 【MQ消费者】订单处理完成 === 订单ID: {}", orderId);
     }
 
     /**
      * ✅ Step 14 新增：根据订单ID查询订单
+     * 优先读取Redis订单状态缓存，未命中时回源MySQL并回填缓存
      */
     @Override
     public SeckillOrderVO getOrderByOrderId(String orderId) {
-        SeckillOrder order = seckillOrderMapper.selectOne(
+        SeckillOrderVO cached = orderStatusCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+
+        SeckillOrder order = orderShardRouter.findByOrderId(orderId, () -> seckillOrderMapper.selectOne(
                 new QueryWrapper<SeckillOrder>().eq("order_id", orderId)
-        );
+        ));
+
+        if (order == null) {
+            // 热表中没有时查找已归档的订单
+            order = orderArchiveStore.getByOrderId(orderId);
+        }
 
         if (order == null) {
             return null;
         }
 
-        SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
-                new QueryWrapper<SeckillGoods>().eq("goods_id", order.getGoodsId())
-        );
+        SeckillOrderVO vo = convertToVO(order);
+        orderStatusCache.put(vo);
+        return vo;
+    }
+
+    /**
+     * 批量查询订单结果
+     * 1. 一次Pipeline批量读取Redis订单状态
+     * 2. 未命中的订单用一次 IN 查询回源MySQL，并批量回填缓存
+     * 3. 批量校验订单归属，不属于该用户的订单直接丢弃
+     *
+     * @param userId 用户ID
+     * @param orderIds 订单ID列表
+     * @return Key为订单ID的订单结果（按入参顺序）
+     */
+    @Override
+    public Map<String, SeckillOrderVO> getOrderResults(Long userId, List<String> orderIds) {
+        Map<String, SeckillOrderVO> result = new LinkedHashMap<>();
+        if (orderIds == null || orderIds.isEmpty()) {
+            return result;
+        }
+
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        Map<String, SeckillOrderVO> found = orderStatusCache.multiGet(distinctIds);
+
+        List<String> missIds = distinctIds.stream()
+                .filter(orderId -> !found.containsKey(orderId))
+                .collect(Collectors.toList());
+
+        if (!missIds.isEmpty()) {
+            // 按订单ID中的分表下标分组，每个分表一次 IN 查询（分表前生成的订单由路由器定位）
+            List<SeckillOrder> orderList = orderShardRouter.listByOrderIds(missIds,
+                    ids -> seckillOrderMapper.selectList(new QueryWrapper<SeckillOrder>().in("order_id", ids)),
+                    SeckillOrder::getOrderId);
+            // 热表中没有的再查一次归档表（开启归档时）
+            if (orderArchiveStore.isEnabled() && orderList.size() < missIds.size()) {
+                Set<String> hotIds = orderList.stream().map(SeckillOrder::getOrderId).collect(Collectors.toSet());
+                orderList.addAll(orderArchiveStore.getByOrderIds(missIds.stream()
+                        .filter(orderId -> !hotIds.contains(orderId))
+                        .collect(Collectors.toList())));
+            }
+            List<SeckillOrderVO> loaded = convertToVOList(orderList);
+            orderStatusCache.putAll(loaded);
+            for (SeckillOrderVO vo : loaded) {
+                found.put(vo.getOrderId(), vo);
+            }
+        }
+
+        for (String orderId : distinctIds) {
+            SeckillOrderVO vo = found.get(orderId);
+            if (vo != null && userId.equals(vo.getUserId())) {
+                result.put(orderId, vo);
+            }
+        }
 
-        return convertToVO(order, seckillGoods);
+        log.info("批量查询订单结果，用户ID: {}, 请求数: {}, 缓存未命中: {}, 返回数: {}",
+                userId, distinctIds.size(), missIds.size(), result.size());
+        return result;
     }
 
     // ==================== Step 15 新增方法 ====================
@@ -317,23 +427,25 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         log.info("查询用户订单列表，用户ID: {}", userId);
 
         // 查询用户的所有订单，按创建时间倒序排列
-        List<SeckillOrder> orderList = seckillOrderMapper.selectList(
+        List<SeckillOrder> orderList = orderShardRouter.listByUser(userId, () -> seckillOrderMapper.selectList(
                 new QueryWrapper<SeckillOrder>()
                         .eq("user_id", userId)
                         .orderByDesc("create_time")
-        );
+        ));
 
-        if (orderList == null || orderList.isEmpty()) {
+        // 合并已归档的冷数据（只合并最近的 archiveListLimit 条，完整历史通过游标分页查询）
+        orderList = mergeOrders(orderList,
+                orderArchiveStore.getUserOrders(userId, null, null, null, archiveListLimit), Integer.MAX_VALUE);
+
+        if (orderList.isEmpty()) {
             log.info("用户暂无订单，用户ID: {}", userId);
             return new ArrayList<>();
         }
 
         log.info("查询到用户订单数量: {}, 用户ID: {}", orderList.size(), userId);
 
-        // 转换为VO并返回
-        return orderList.stream()
-                .map(this::convertToVOWithGoods)
-                .collect(Collectors.toList());
+        // 批量转换为VO并返回
+        return convertToVOList(orderList);
     }
 
     /**
@@ -359,19 +471,69 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         // 按创建时间倒序排列
         queryWrapper.orderByDesc("create_time");
 
-        List<SeckillOrder> orderList = seckillOrderMapper.selectList(queryWrapper);
+        List<SeckillOrder> orderList = orderShardRouter.listByUser(userId,
+                () -> seckillOrderMapper.selectList(queryWrapper));
 
-        if (orderList == null || orderList.isEmpty()) {
+        // 合并已归档的冷数据（只合并最近的 archiveListLimit 条，完整历史通过游标分页查询）
+        orderList = mergeOrders(orderList,
+                orderArchiveStore.getUserOrders(userId, status, null, null, archiveListLimit), Integer.MAX_VALUE);
+
+        if (orderList.isEmpty()) {
             log.info("未查询到符合条件的订单，用户ID: {}, 状态: {}", userId, status);
             return new ArrayList<>();
         }
 
         log.info("查询到订单数量: {}, 用户ID: {}, 状态: {}", orderList.size(), userId, status);
 
-        // 转换为VO并返回
-        return orderList.stream()
-                .map(this::convertToVOWithGoods)
-                .collect(Collectors.toList());
+        // 批量转换为VO并返回
+        return convertToVOList(orderList);
+    }
+
+    /**
+     * 游标分页查询用户的订单列表
+     * 按 (create_time, id) 倒序做keyset翻页：多查一条用于判断是否还有下一页，
+     * 不需要 COUNT(*)，翻到多深都不会产生 OFFSET 扫描
+     *
+     * @param userId 用户ID
+     * @param status 订单状态：0-排队中 1-成功 2-失败 null-全部
+     * @param cursor 上一页返回的游标，null表示第一页
+     * @param size 每页大小，默认20，最大100
+     * @return 当前页订单及下一页游标
+     */
+    @Override
+    public CursorPageVO<SeckillOrderVO> getUserOrdersPage(Long userId, Integer status, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            cursorTime = CursorUtil.decodeTime(cursor);
+            cursorId = CursorUtil.decodeId(cursor);
+        }
+
+        log.info("游标分页查询用户订单，用户ID: {}, 状态: {}, 游标: {}, 每页: {}", userId, status, cursor, pageSize);
+
+        LocalDateTime afterTime = cursorTime;
+        Long afterId = cursorId;
+        List<SeckillOrder> orderList = orderShardRouter.listByUser(userId,
+                () -> seckillOrderMapper.selectUserOrdersAfter(userId, status, afterTime, afterId, pageSize + 1));
+
+        // 合并已归档的冷数据：归档表按同样的 (create_time, id) 游标条件查询后归并，保证翻页连续
+        orderList = mergeOrders(orderList,
+                orderArchiveStore.getUserOrders(userId, status, afterTime, afterId, pageSize + 1), pageSize + 1);
+
+        boolean hasMore = orderList.size() > pageSize;
+        if (hasMore) {
+            orderList = orderList.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            SeckillOrder last = orderList.get(orderList.size() - 1);
+            nextCursor = CursorUtil.encode(last.getCreateTime(), last.getId());
+        }
+
+        return new CursorPageVO<>(convertToVOList(orderList), nextCursor, hasMore, pageSize);
     }
 
     /**
@@ -387,11 +549,19 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         log.info("查询订单详情，用户ID: {}, 订单ID: {}", userId, orderId);
 
         // 查询订单（同时验证用户ID和订单ID）
-        SeckillOrder order = seckillOrderMapper.selectOne(
+        SeckillOrder order = orderShardRouter.findByUser(userId, () -> seckillOrderMapper.selectOne(
                 new QueryWrapper<SeckillOrder>()
                         .eq("user_id", userId)
                         .eq("order_id", orderId)
-        );
+        ));
+
+        if (order == null) {
+            // 热表中没有时查找已归档的订单
+            SeckillOrder archived = orderArchiveStore.getByOrderId(orderId);
+            if (archived != null && userId.equals(archived.getUserId())) {
+                order = archived;
+            }
+        }
 
         if (order == null) {
             log.warn("订单不存在或无权访问，用户ID: {}, 订单ID: {}", userId, orderId);
@@ -401,7 +571,7 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         log.info("查询到订单详情，订单号: {}, 状态: {}", order.getOrderNo(), order.getStatus());
 
         // 转换为VO并返回
-        return convertToVOWithGoods(order);
+        return convertToVO(order);
     }
 
     // ==================== 私有辅助方法 ====================
@@ -418,62 +588,127 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
     }
 
     /**
-     * 生成订单ID（用于支付系统）
-     * 使用UUID去掉横线，保证全局唯一
+     * 合并热表订单与归档订单
+     * 按orderId去重（以热表为准），按 (create_time, id) 倒序排列
+     *
+     * @param hotOrders      热表订单（仍读取原表时为分表与原表两段结果的拼接，需要重新排序）
+     * @param archivedOrders 归档订单（与热表查询条件相同，已按创建时间倒序）
+     * @param limit          最多返回条数
      */
-    private String generateOrderId() {
-        return UUID.randomUUID().toString().replace("-", "");
+    private List<SeckillOrder> mergeOrders(List<SeckillOrder> hotOrders, List<SeckillOrder> archivedOrders,
+                                           int limit) {
+        List<SeckillOrder> hot = hotOrders == null ? Collections.emptyList() : hotOrders;
+        if (archivedOrders.isEmpty() && !orderShardRouter.isReadLegacy()) {
+            return hot.size() > limit ? hot.subList(0, limit) : hot;
+        }
+
+        Set<String> hotOrderIds = hot.stream().map(SeckillOrder::getOrderId).collect(Collectors.toSet());
+        List<SeckillOrder> merged = new ArrayList<>(hot);
+        for (SeckillOrder order : archivedOrders) {
+            if (!hotOrderIds.contains(order.getOrderId())) {
+                merged.add(order);
+            }
+        }
+        merged.sort(ORDER_TIME_DESC);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
     }
 
     /**
-     * 转换为VO（原有方法，保留用于向后兼容）
+     * 订单处理异常的补偿：注册到当前事务，事务回滚后执行 markOrderFailed
      */
-    private SeckillOrderVO convertToVO(SeckillOrder order, SeckillGoods seckillGoods) {
-        SeckillOrderVO vo = new SeckillOrderVO();
-        BeanUtils.copyProperties(order, vo);
+    private void compensateAfterRollback(Long goodsId, String orderId, Integer shard) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    log.error("❌ 订单处理异常但事务未回滚（状态: {}），不执行补偿，订单ID: {}", status, orderId);
+                    return;
+                }
+                markOrderFailed(goodsId, orderId, shard);
+            }
+        });
+    }
 
-        if (seckillGoods != null) {
-            vo.setSeckillPrice(seckillGoods.getSeckillPrice());
+    /**
+     * 在新事务中把排队中的订单标记为失败，提交成功后回滚Redis库存并通知
+     * 只更新 status = 0 的订单，并发处理或重复补偿时不会重复回滚库存
+     */
+    private void markOrderFailed(Long goodsId, String orderId, Integer shard) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Integer updateCount;
+        try {
+            updateCount = orderShardRouter.route(shard, () -> transactionTemplate.execute(status ->
+                    seckillOrderMapper.update(null,
+                            new UpdateWrapper<SeckillOrder>()
+                                    .set("status", 2)  // 2-失败
+                                    .set("seckill_status", 2)  // 2-秒杀失败
+                                    .set("update_time", LocalDateTime.now())
+                                    .eq("order_id", orderId)
+                                    .eq("status", 0)
+                    )));
+        } catch (Exception e) {
+            // 订单仍为排队中，Redis库存不回滚，由库存对账发现偏差
+            log.error("❌ 订单补偿失败，订单ID: {}, 错误: {}", orderId, e.getMessage(), e);
+            return;
+        }
 
-            // 查询商品基本信息
-            Goods goods = goodsMapper.selectById(seckillGoods.getGoodsId());
-            if (goods != null) {
-                vo.setGoodsName(goods.getName());
-                vo.setGoodsImg(goods.getImg());
-            }
+        if (updateCount == null || updateCount == 0) {
+            log.warn("⚠️ 订单已不是排队中状态，跳过补偿，订单ID: {}", orderId);
+            return;
         }
 
-        return vo;
+        // 回滚Redis库存（按订单ID幂等，消息重投不会重复回滚）
+        luaScriptUtil.rollbackStock(goodsId, orderId);
+        orderStatusCache.updateStatus(orderId, 2);
+        orderResultNotifier.publish(orderId, 2);
+        log.info("订单处理异常，已标记失败并回滚Redis库存，订单ID: {}", orderId);
+    }
+
+    /**
+     * 转换单个订单为VO
+     */
+    private SeckillOrderVO convertToVO(SeckillOrder order) {
+        return convertToVOList(Collections.singletonList(order)).get(0);
     }
 
     /**
-     * ✅ Step 15 新增：转换为VO（增强版，自动查询关联商品信息）
-     * 功能：根据订单实体转换为VO，同时查询关联的商品和秒杀商品信息
+     * 批量转换订单为VO
+     * 秒杀价格、商品名称直接使用订单上的冗余字段，
+     * 商品图片按去重后的goodsId一次 selectBatchIds 批量查询，在内存中组装，避免N+1查询
      *
-     * @param order 订单实体
-     * @return 订单VO
+     * @param orderList 订单实体列表
+     * @return 订单VO列表（顺序与入参一致）
      */
-    private SeckillOrderVO convertToVOWithGoods(SeckillOrder order) {
-        SeckillOrderVO vo = new SeckillOrderVO();
-        BeanUtils.copyProperties(order, vo);
-
-        // 查询秒杀商品信息
-        SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
-                new QueryWrapper<SeckillGoods>().eq("goods_id", order.getGoodsId())
-        );
-
-        if (seckillGoods != null) {
-            // 设置秒杀价格
-            vo.setSeckillPrice(seckillGoods.getSeckillPrice());
+    private List<SeckillOrderVO> convertToVOList(List<SeckillOrder> orderList) {
+        if (orderList == null || orderList.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // 查询商品基本信息
-        Goods goods = goodsMapper.selectById(order.getGoodsId());
-        if (goods != null) {
-            vo.setGoodsName(goods.getName());
-            vo.setGoodsImg(goods.getImg());
-        }
+        Set<Long> goodsIds = orderList.stream()
+                .map(SeckillOrder::getGoodsId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
 
-        return vo;
+        Map<Long, Goods> goodsMap = goodsIds.isEmpty()
+                ? Collections.<Long, Goods>emptyMap()
+                : goodsMapper.selectBatchIds(goodsIds).stream()
+                        .collect(Collectors.toMap(Goods::getId, Function.identity(), (a, b) -> a));
+
+        List<SeckillOrderVO> voList = new ArrayList<>(orderList.size());
+        for (SeckillOrder order : orderList) {
+            SeckillOrderVO vo = new SeckillOrderVO();
+            BeanUtils.copyProperties(order, vo);
+
+            Goods goods = goodsMap.get(order.getGoodsId());
+            if (goods != null) {
+                if (vo.getGoodsName() == null) {
+                    vo.setGoodsName(goods.getName());
+                }
+                vo.setGoodsImg(goods.getImg());
+            }
+            voList.add(vo);
+        }
+        return voList;
     }
-}
\ No newline at end of file
+}
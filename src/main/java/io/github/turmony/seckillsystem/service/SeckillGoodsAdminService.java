@@ -0,0 +1,46 @@
+package io.github.turmony.seckillsystem.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 秒杀商品管理端批量操作接口
+ * 遍历Redis使用SCAN（按Key前缀），批量读写使用MGET/MSET/UNLINK，不再全表查询后逐个商品访问Redis
+ */
+public interface SeckillGoodsAdminService {
+
+    /**
+     * 清除所有秒杀商品的活动数据、库存和展示缓存（SCAN + UNLINK），并通知各节点清除本地缓存
+     *
+     * @return 删除的Key数量
+     */
+    long clearCache();
+
+    /**
+     * 分批读取Redis中的全部库存（SCAN + MGET），每批回调一次
+     *
+     * @param consumer 每批的 商品ID -> 库存
+     * @return 商品总数
+     */
+    long scanStock(Consumer<Map<Long, Long>> consumer);
+
+    /**
+     * 批量把库存重置为数据库中的库存（分批查询，每批由 stock_init Lua脚本写入库存并重置库存账本）
+     *
+     * @param goodsIds 商品ID列表
+     * @return resetCount、notFound（不存在的商品ID）、stocks（商品ID -> 重置后的库存）
+     */
+    Map<String, Object> resetStock(List<Long> goodsIds);
+
+    /**
+     * 按条件从数据库恢复活动数据和库存（按主键分页读取，每页一次Pipeline写入），并清除展示缓存
+     *
+     * @param status    商品状态，null表示不限
+     * @param startFrom 开始时间下限，null表示不限
+     * @param startTo   开始时间上限，null表示不限
+     * @return totalCount、successCount、skippedCount、verifyFailCount、costTime
+     */
+    Map<String, Object> restoreFromDb(Integer status, LocalDateTime startFrom, LocalDateTime startTo);
+}
@@ -3,8 +3,11 @@ package io.github.turmony.seckillsystem.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsDynamicVO;
 import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
 
+import java.util.List;
+
 /**
  * 秒杀商品服务接口
  */
@@ -20,6 +23,12 @@ public interface SeckillGoodsService {
      */
     SeckillGoodsVO getSeckillGoodsByGoodsId(Long goodsId);
 
+    /**
+     * 批量查询秒杀商品的实时库存、秒杀状态和倒计时（配合静态快照使用）
+     * 不存在的商品不返回
+     */
+    List<SeckillGoodsDynamicVO> getSeckillGoodsDynamic(List<Long> goodsIds);
+
     /**
      * 添加秒杀商品
      */
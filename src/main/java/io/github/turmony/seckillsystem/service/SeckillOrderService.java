@@ -1,9 +1,11 @@
 package io.github.turmony.seckillsystem.service;
 
 import io.github.turmony.seckillsystem.dto.SeckillOrderDTO;
+import io.github.turmony.seckillsystem.vo.CursorPageVO;
 import io.github.turmony.seckillsystem.vo.SeckillOrderVO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 秒杀订单服务接口
@@ -42,6 +44,14 @@ public interface SeckillOrderService {
      */
     SeckillOrderVO getOrderByOrderId(String orderId);
 
+    /**
+     * 批量查询订单结果（只返回属于该用户的订单）
+     * @param userId 用户ID
+     * @param orderIds 订单ID列表
+     * @return Key为订单ID的订单结果，不存在或不属于该用户的订单不包含在结果中
+     */
+    Map<String, SeckillOrderVO> getOrderResults(Long userId, List<String> orderIds);
+
     /**
      * ✅ Step 15: 查询用户的订单列表
      * @param userId 用户ID
@@ -57,6 +67,16 @@ public interface SeckillOrderService {
      */
     List<SeckillOrderVO> getUserOrdersByStatus(Long userId, Integer status);
 
+    /**
+     * 游标分页查询用户的订单列表（按创建时间倒序）
+     * @param userId 用户ID
+     * @param status 订单状态：0-排队中 1-成功 2-失败 null-全部
+     * @param cursor 上一页返回的游标，null表示第一页
+     * @param size 每页大小
+     * @return 当前页订单及下一页游标
+     */
+    CursorPageVO<SeckillOrderVO> getUserOrdersPage(Long userId, Integer status, String cursor, Integer size);
+
     /**
      * ✅ Step 15: 查询订单详情（根据订单ID）
      * @param userId 用户ID
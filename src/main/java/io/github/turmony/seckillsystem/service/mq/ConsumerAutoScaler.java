@@ -0,0 +1,308 @@
+package io.github.turmony.seckillsystem.service.mq;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import io.github.turmony.seckillsystem.common.MQConstant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 秒杀订单消费者并发自适应调节器
+ *
+ * 周期性采集以下指标，动态调整订单队列的消费者数量和预取数量：
+ * 1. 队列积压消息数（RabbitMQ队列messageCount）
+ * 2. 端到端延迟（消息发送时间戳 -> 开始消费）
+ * 3. processOrder 处理耗时
+ * 4. Druid连接池使用率（activeCount / maxActive）
+ *
+ * 调节策略：
+ * - 连接池饱和 或 处理耗时过高 -> 缩容（下游已是瓶颈，继续加消费者只会排队等连接）
+ * - 积压过多 或 端到端延迟过高 -> 扩容
+ * - 队列空闲 -> 逐步回落到最小值
+ *
+ * 注意：预取数量只对新建的消费者生效，已存在的消费者在重启后才会使用新值
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsumerAutoScaler {
+
+    /**
+     * 保留的调节决策记录条数
+     */
+    private static final int MAX_DECISION_HISTORY = 50;
+
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final DataSource dataSource;
+
+    @Value("${seckill.mq.autoscale.enabled:true}")
+    private volatile boolean enabled;
+
+    @Value("${spring.rabbitmq.listener.simple.concurrency:3}")
+    private int minConsumers;
+
+    @Value("${spring.rabbitmq.listener.simple.max-concurrency:10}")
+    private int maxConsumers;
+
+    @Value("${spring.rabbitmq.listener.simple.prefetch:1}")
+    private int minPrefetch;
+
+    @Value("${seckill.mq.autoscale.max-prefetch:20}")
+    private int maxPrefetch;
+
+    @Value("${seckill.mq.autoscale.backlog-high:500}")
+    private long backlogHigh;
+
+    @Value("${seckill.mq.autoscale.lag-high-ms:2000}")
+    private long lagHighMs;
+
+    @Value("${seckill.mq.autoscale.latency-high-ms:200}")
+    private long latencyHighMs;
+
+    @Value("${seckill.mq.autoscale.pool-usage-high:0.85}")
+    private double poolUsageHigh;
+
+    /**
+     * 当前生效的消费者数量与预取数量
+     */
+    private volatile int currentConsumers;
+    private volatile int currentPrefetch;
+
+    /**
+     * 采样窗口内的统计（每次调节后清零）
+     */
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder totalCostMs = new LongAdder();
+    private final LongAdder totalLagMs = new LongAdder();
+    private final AtomicLong maxLagMs = new AtomicLong();
+
+    /**
+     * 最近一次采样的指标快照
+     */
+    private volatile Map<String, Object> lastMetrics = new LinkedHashMap<>();
+
+    /**
+     * 最近的调节决策
+     */
+    private final Deque<ScaleDecision> decisions = new ArrayDeque<>();
+
+    /**
+     * 记录一条消息的处理情况（MQ消费者调用）
+     *
+     * @param costMs processOrder 耗时（毫秒）
+     * @param lagMs  端到端延迟（毫秒），未知时传负数
+     */
+    public void recordProcessed(long costMs, long lagMs) {
+        processedCount.increment();
+        totalCostMs.add(costMs);
+        if (lagMs >= 0) {
+            totalLagMs.add(lagMs);
+            maxLagMs.accumulateAndGet(lagMs, Math::max);
+        }
+    }
+
+    /**
+     * 周期性调节消费者并发
+     */
+    @Scheduled(fixedDelayString = "${seckill.mq.autoscale.interval-ms:5000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+
+        SimpleMessageListenerContainer container = getContainer();
+        if (container == null) {
+            return;
+        }
+
+        if (currentConsumers == 0) {
+            currentConsumers = minConsumers;
+            currentPrefetch = minPrefetch;
+        }
+
+        // ============ Step 1: 采集窗口指标 ============
+        long count = processedCount.sumThenReset();
+        long costSum = totalCostMs.sumThenReset();
+        long lagSum = totalLagMs.sumThenReset();
+        long maxLag = maxLagMs.getAndSet(0);
+
+        long avgCostMs = count == 0 ? 0 : costSum / count;
+        long avgLagMs = count == 0 ? 0 : lagSum / count;
+        long backlog = getQueueBacklog();
+        double poolUsage = getPoolUsage();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("processed", count);
+        metrics.put("avgCostMs", avgCostMs);
+        metrics.put("avgLagMs", avgLagMs);
+        metrics.put("maxLagMs", maxLag);
+        metrics.put("backlog", backlog);
+        metrics.put("poolUsage", poolUsage);
+        lastMetrics = metrics;
+
+        // ============ Step 2: 计算目标值 ============
+        int targetConsumers = currentConsumers;
+        int targetPrefetch = currentPrefetch;
+        String reason;
+
+        if (poolUsage >= poolUsageHigh) {
+            targetConsumers = Math.max(minConsumers, currentConsumers - 1);
+            targetPrefetch = Math.max(minPrefetch, currentPrefetch / 2);
+            reason = String.format("连接池饱和(%.2f)，缩容", poolUsage);
+        } else if (avgCostMs > latencyHighMs) {
+            targetConsumers = Math.max(minConsumers, currentConsumers - 1);
+            targetPrefetch = Math.max(minPrefetch, currentPrefetch / 2);
+            reason = "处理耗时过高(" + avgCostMs + "ms)，缩容";
+        } else if (backlog > backlogHigh || avgLagMs > lagHighMs) {
+            targetConsumers = Math.min(maxConsumers, currentConsumers + 2);
+            targetPrefetch = Math.min(maxPrefetch, currentPrefetch * 2);
+            reason = "积压(" + backlog + ")或延迟(" + avgLagMs + "ms)过高，扩容";
+        } else if (backlog == 0) {
+            targetConsumers = Math.max(minConsumers, currentConsumers - 1);
+            targetPrefetch = Math.max(minPrefetch, currentPrefetch - 1);
+            reason = "队列空闲，回落";
+        } else {
+            reason = "保持";
+        }
+
+        if (targetConsumers == currentConsumers && targetPrefetch == currentPrefetch) {
+            return;
+        }
+
+        // ============ Step 3: 应用到监听容器 ============
+        try {
+            applyToContainer(container, targetConsumers, targetPrefetch);
+        } catch (Exception e) {
+            log.error("调整消费者并发失败: {}", e.getMessage(), e);
+            return;
+        }
+
+        ScaleDecision decision = new ScaleDecision(LocalDateTime.now(),
+                currentConsumers, targetConsumers, currentPrefetch, targetPrefetch, reason, metrics);
+        synchronized (decisions) {
+            decisions.addFirst(decision);
+            while (decisions.size() > MAX_DECISION_HISTORY) {
+                decisions.removeLast();
+            }
+        }
+
+        log.info("消费者并发已调整: consumers {} -> {}, prefetch {} -> {}, 原因: {}",
+                currentConsumers, targetConsumers, currentPrefetch, targetPrefetch, reason);
+
+        currentConsumers = targetConsumers;
+        currentPrefetch = targetPrefetch;
+    }
+
+    /**
+     * 获取当前状态（管理端展示）
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("currentConsumers", currentConsumers == 0 ? minConsumers : currentConsumers);
+        status.put("currentPrefetch", currentPrefetch == 0 ? minPrefetch : currentPrefetch);
+        status.put("minConsumers", minConsumers);
+        status.put("maxConsumers", maxConsumers);
+        status.put("minPrefetch", minPrefetch);
+        status.put("maxPrefetch", maxPrefetch);
+        status.put("lastMetrics", lastMetrics);
+        return status;
+    }
+
+    /**
+     * 获取最近的调节决策（最新的在前）
+     */
+    public List<ScaleDecision> getDecisions() {
+        synchronized (decisions) {
+            return new ArrayList<>(decisions);
+        }
+    }
+
+    /**
+     * 开启或关闭自动调节
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        log.info("消费者并发自动调节已{}", enabled ? "开启" : "关闭");
+    }
+
+    /**
+     * 将目标值应用到监听容器
+     * 由本类接管并发数，因此将最小与最大并发设置为同一值，关闭容器自带的弹性伸缩
+     * 扩容时先调大上限，缩容时先调小下限，避免出现 concurrentConsumers > maxConcurrentConsumers
+     */
+    private void applyToContainer(SimpleMessageListenerContainer container, int consumers, int prefetch) {
+        container.setPrefetchCount(prefetch);
+        if (consumers >= currentConsumers) {
+            container.setMaxConcurrentConsumers(consumers);
+            container.setConcurrentConsumers(consumers);
+        } else {
+            container.setConcurrentConsumers(consumers);
+            container.setMaxConcurrentConsumers(consumers);
+        }
+    }
+
+    private SimpleMessageListenerContainer getContainer() {
+        MessageListenerContainer container =
+                listenerEndpointRegistry.getListenerContainer(MQConstant.SECKILL_LISTENER_ID);
+        if (container instanceof SimpleMessageListenerContainer) {
+            return (SimpleMessageListenerContainer) container;
+        }
+        return null;
+    }
+
+    private long getQueueBacklog() {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(MQConstant.SECKILL_QUEUE);
+            return info == null ? 0 : info.getMessageCount();
+        } catch (Exception e) {
+            log.warn("获取队列积压数失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private double getPoolUsage() {
+        if (!(dataSource instanceof DruidDataSource)) {
+            return 0;
+        }
+        DruidDataSource druidDataSource = (DruidDataSource) dataSource;
+        int maxActive = druidDataSource.getMaxActive();
+        return maxActive <= 0 ? 0 : (double) druidDataSource.getActiveCount() / maxActive;
+    }
+
+    /**
+     * 一次调节决策
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ScaleDecision {
+        private LocalDateTime time;
+        private Integer fromConsumers;
+        private Integer toConsumers;
+        private Integer fromPrefetch;
+        private Integer toPrefetch;
+        private String reason;
+        private Map<String, Object> metrics;
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.stereotype.Service;
 public class MQReceiver {
 
     private final SeckillOrderService seckillOrderService;
+    private final ConsumerAutoScaler consumerAutoScaler;
 
     /**
      * 监听秒杀订单队列
@@ -40,7 +41,7 @@ public class MQReceiver {
      * @param channel RabbitMQ通道，用于手动确认
      * @param deliveryTag 消息投递标签
      */
-    @RabbitListener(queues = MQConstant.SECKILL_QUEUE)
+    @RabbitListener(id = MQConstant.SECKILL_LISTENER_ID, queues = MQConstant.SECKILL_QUEUE)
     public void receiveSeckillMessage(
             @Payload SeckillMessageDTO message,
             Channel channel,
@@ -67,6 +68,7 @@ public class MQReceiver {
             // 3. 更新订单状态为成功或失败
             // 4. 异常情况回滚Redis库存
             long startTime = System.currentTimeMillis();
+            long lagMs = message.getTimestamp() == null ? -1 : startTime - message.getTimestamp();
 
             seckillOrderService.processOrder(
                     message.getUserId(),
@@ -75,6 +77,7 @@ public class MQReceiver {
             );
 
             long costTime = System.currentTimeMillis() - startTime;
+            consumerAutoScaler.recordProcessed(costTime, lagMs);
 
             log.info("✅ 秒杀订单处理成功: orderId={}, 耗时: {}ms",
                     message.getOrderId(), costTime);
@@ -0,0 +1,136 @@
+package io.github.turmony.seckillsystem.service.push;
+
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 订单结果通知器
+ *
+ * 1. processOrder 处理完订单后，通过Redis Pub/Sub广播 {orderId}:{status}
+ * 2. 每个节点都订阅该频道，收到通知后回调本节点上等待该订单的请求（长轮询 / SSE）
+ *
+ * 等待中的请求只以回调形式保存在内存中，不占用Servlet线程
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderResultNotifier implements MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 本节点等待中的回调
+     * Key: 订单ID
+     * Value: 等待该订单结果的回调列表（参数为订单最终状态）
+     */
+    private final Map<String, List<Consumer<Integer>>> waiters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(RedisKeyConstant.SECKILL_ORDER_RESULT_CHANNEL));
+        log.info("订单结果通知频道订阅成功: {}", RedisKeyConstant.SECKILL_ORDER_RESULT_CHANNEL);
+    }
+
+    /**
+     * 发布订单结果通知
+     * 如果当前处于事务中，则在事务提交后再发布，避免等待方回源查询时读到未提交的状态；事务回滚时不发布
+     *
+     * @param orderId 订单ID
+     * @param status  订单状态：1-成功 2-失败
+     */
+    public void publish(String orderId, Integer status) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doPublish(orderId, status);
+                }
+            });
+        } else {
+            doPublish(orderId, status);
+        }
+    }
+
+    /**
+     * 注册等待回调
+     *
+     * @param orderId  订单ID
+     * @param callback 收到结果后的回调（在Redis监听线程中执行，应尽快返回）
+     * @return 取消注册的操作（请求超时或完成时调用）
+     */
+    public Runnable register(String orderId, Consumer<Integer> callback) {
+        waiters.computeIfAbsent(orderId, k -> new CopyOnWriteArrayList<>()).add(callback);
+        return () -> waiters.computeIfPresent(orderId, (k, list) -> {
+            list.remove(callback);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * 当前节点等待中的订单数（监控用）
+     */
+    public int getWaitingOrderCount() {
+        return waiters.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.lastIndexOf(':');
+        if (index <= 0) {
+            log.warn("订单结果通知格式错误: {}", body);
+            return;
+        }
+
+        String orderId = body.substring(0, index);
+        Integer status;
+        try {
+            status = Integer.valueOf(body.substring(index + 1));
+        } catch (NumberFormatException e) {
+            log.warn("订单结果通知格式错误: {}", body);
+            return;
+        }
+
+        List<Consumer<Integer>> callbacks = waiters.remove(orderId);
+        if (callbacks == null) {
+            return;
+        }
+
+        log.debug("收到订单结果通知，订单ID: {}, 状态: {}, 等待请求数: {}", orderId, status, callbacks.size());
+        for (Consumer<Integer> callback : callbacks) {
+            try {
+                callback.accept(status);
+            } catch (Exception e) {
+                log.warn("订单结果回调执行失败，订单ID: {}, 错误: {}", orderId, e.getMessage());
+            }
+        }
+    }
+
+    private void doPublish(String orderId, Integer status) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstant.SECKILL_ORDER_RESULT_CHANNEL, orderId + ":" + status);
+        } catch (Exception e) {
+            // 通知失败不影响订单处理，等待方会在超时后自行查询
+            log.warn("发布订单结果通知失败，订单ID: {}, 错误: {}", orderId, e.getMessage());
+        }
+    }
+}
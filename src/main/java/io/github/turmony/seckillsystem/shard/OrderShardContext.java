@@ -0,0 +1,34 @@
+package io.github.turmony.seckillsystem.shard;
+
+/**
+ * 订单分表路由上下文
+ * 以ThreadLocal保存当前线程要访问的 seckill_order 分表下标，
+ * 由 MybatisPlusConfig 中的动态表名拦截器读取并改写SQL中的表名
+ *
+ * 为null时不改写，访问逻辑表 seckill_order 本身
+ */
+public class OrderShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private OrderShardContext() {
+    }
+
+    /**
+     * 获取当前线程的分表下标
+     */
+    public static Integer get() {
+        return SHARD.get();
+    }
+
+    /**
+     * 设置当前线程的分表下标，null表示访问逻辑表
+     */
+    public static void set(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+}
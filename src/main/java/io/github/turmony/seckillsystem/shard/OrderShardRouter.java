@@ -0,0 +1,357 @@
+package io.github.turmony.seckillsystem.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 秒杀订单分表路由器
+ *
+ * 分表规则：
+ * 1. 物理表为 seckill_order_0 ... seckill_order_{N-1}，按 userId % N 路由
+ * 2. 分表后生成的订单ID以 "s" + 两位分表下标 开头，按订单ID查询时直接解析出分表，无需广播
+ * 3. 分表前生成的订单ID（32位UUID，不含前缀）无法解析分表：仍需读取原表时先查原表，
+ *    未找到（或历史订单已迁移、read-legacy 为false）时通过 scatterGather 查询所有分表
+ * 4. 管理端的全量查询通过 scatterGather 并行访问所有分表后汇总
+ * 5. 分表前的历史订单仍在原表中，迁移完成之前（read-legacy 为true）按用户的查询同时读取原表
+ *
+ * seckill.order.shard.count 为1（默认）时不分表，所有访问都落在 seckill_order
+ */
+@Slf4j
+@Component
+public class OrderShardRouter {
+
+    /**
+     * 逻辑表名
+     */
+    public static final String LOGIC_TABLE = "seckill_order";
+
+    /**
+     * 分表订单ID前缀
+     */
+    private static final String SHARDED_ORDER_ID_PREFIX = "s";
+
+    /**
+     * 订单ID中分表下标为两位数字，最多支持100张分表
+     */
+    private static final int MAX_SHARD_COUNT = 100;
+
+    @Value("${seckill.order.shard.count:1}")
+    private int shardCount;
+
+    /**
+     * 分表后是否继续读取原表 seckill_order（历史订单迁移到分表并从原表删除后关闭）
+     */
+    @Value("${seckill.order.shard.read-legacy:true}")
+    private boolean readLegacy;
+
+    /**
+     * 全分表并行查询使用的线程池
+     */
+    private ExecutorService scatterExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (shardCount < 1 || shardCount > MAX_SHARD_COUNT) {
+            throw new IllegalStateException("seckill.order.shard.count 取值范围为 1~" + MAX_SHARD_COUNT);
+        }
+        if (isSharded()) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            scatterExecutor = Executors.newFixedThreadPool(Math.min(shardCount, 16), r -> {
+                Thread thread = new Thread(r, "order-shard-scatter-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        log.info("秒杀订单分表数量: {}, 读取原表: {}", shardCount, isReadLegacy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 是否启用分表
+     */
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    /**
+     * 分表后是否仍需读取原表中的历史订单
+     */
+    public boolean isReadLegacy() {
+        return isSharded() && readLegacy;
+    }
+
+    /**
+     * 分表数量
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * 根据用户ID计算分表下标
+     *
+     * @param userId 用户ID
+     * @return 分表下标，未分表时返回null
+     */
+    public Integer shardOfUser(Long userId) {
+        if (!isSharded() || userId == null) {
+            return null;
+        }
+        return (int) Math.floorMod(userId, (long) shardCount);
+    }
+
+    /**
+     * 根据订单ID解析分表下标
+     *
+     * @param orderId 订单ID
+     * @return 分表下标，未分表或分表前生成的订单返回null（访问原表）
+     */
+    public Integer shardOfOrderId(String orderId) {
+        if (!isSharded() || orderId == null || orderId.length() < 3
+                || !orderId.startsWith(SHARDED_ORDER_ID_PREFIX)) {
+            return null;
+        }
+        try {
+            int shard = Integer.parseInt(orderId.substring(1, 3));
+            return shard < shardCount ? shard : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成订单ID
+     * 未分表时为32位UUID；分表时为 "s" + 两位分表下标 + 29位UUID，总长度同样为32位
+     *
+     * @param userId 用户ID
+     * @return 订单ID
+     */
+    public String generateOrderId(Long userId) {
+        String uuid = UUID.randomUUID().toString().replace("-", "");
+        Integer shard = shardOfUser(userId);
+        if (shard == null) {
+            return uuid;
+        }
+        return SHARDED_ORDER_ID_PREFIX + String.format("%02d", shard) + uuid.substring(3);
+    }
+
+    /**
+     * 在用户所在分表上执行操作
+     */
+    public <T> T routeByUser(Long userId, Supplier<T> action) {
+        return route(shardOfUser(userId), action);
+    }
+
+    /**
+     * 按用户查询单条数据：先查用户所在分表，未找到且仍需读取原表时再查原表
+     */
+    public <T> T findByUser(Long userId, Supplier<T> action) {
+        T result = routeByUser(userId, action);
+        if (result == null && isReadLegacy()) {
+            result = route(null, action);
+        }
+        return result;
+    }
+
+    /**
+     * 按用户查询列表：用户所在分表的结果，仍需读取原表时追加原表的结果
+     * 两部分各自有序，合并后的排序和截断由调用方负责
+     */
+    public <T> List<T> listByUser(Long userId, Supplier<List<T>> action) {
+        List<T> result = routeByUser(userId, action);
+        if (!isReadLegacy()) {
+            return result;
+        }
+        List<T> legacy = route(null, action);
+        if (legacy == null || legacy.isEmpty()) {
+            return result;
+        }
+        List<T> merged = new ArrayList<>(result == null ? Collections.emptyList() : result);
+        merged.addAll(legacy);
+        return merged;
+    }
+
+    /**
+     * 是否为分表后仍无法按订单ID直接路由的订单（分表前生成、不含分表下标）
+     */
+    public boolean isLegacyOrderId(String orderId) {
+        return isSharded() && orderId != null && shardOfOrderId(orderId) == null;
+    }
+
+    /**
+     * 在订单所在分表上执行操作（订单ID中带有分表下标或未分表时使用）
+     */
+    public <T> T routeByOrderId(String orderId, Supplier<T> action) {
+        return route(shardOfOrderId(orderId), action);
+    }
+
+    /**
+     * 定位订单所在的表
+     * 订单ID带分表下标或未分表时直接解析，不访问数据库；
+     * 分表前生成的订单先查原表（仍需读取原表时），未找到再并行查询所有分表
+     *
+     * @param orderId 订单ID
+     * @param exists  在当前路由的表中判断订单是否存在
+     * @return 分表下标，订单在原表或都不存在时返回null
+     */
+    public Integer locateOrder(String orderId, Supplier<Boolean> exists) {
+        if (!isLegacyOrderId(orderId)) {
+            return shardOfOrderId(orderId);
+        }
+        if (isReadLegacy() && Boolean.TRUE.equals(route(null, exists))) {
+            return null;
+        }
+        List<Boolean> found = scatterGather(exists);
+        for (int i = 0; i < found.size(); i++) {
+            if (Boolean.TRUE.equals(found.get(i))) {
+                return i;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按订单ID查询单条数据
+     * 订单ID带分表下标或未分表时只查一张表；分表前生成的订单先查原表（仍需读取原表时），未找到再并行查询所有分表
+     */
+    public <T> T findByOrderId(String orderId, Supplier<T> action) {
+        if (!isLegacyOrderId(orderId)) {
+            return routeByOrderId(orderId, action);
+        }
+        if (isReadLegacy()) {
+            T result = route(null, action);
+            if (result != null) {
+                return result;
+            }
+        }
+        for (T result : scatterGather(action)) {
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按订单ID批量查询
+     * 带分表下标的订单按分表分组，每个分表一次查询；分表前生成的订单先查原表（仍需读取原表时），
+     * 未找到的再并行查询所有分表
+     *
+     * @param orderIds  订单ID
+     * @param query     按一组订单ID查询当前路由的表
+     * @param orderIdOf 取出结果的订单ID
+     * @return 查询结果（不保证顺序）
+     */
+    public <T> List<T> listByOrderIds(Collection<String> orderIds, Function<List<String>, List<T>> query,
+                                      Function<T, String> orderIdOf) {
+        Map<Integer, List<String>> idsByShard = new HashMap<>();
+        List<String> legacyIds = new ArrayList<>();
+        for (String orderId : orderIds) {
+            if (isLegacyOrderId(orderId)) {
+                legacyIds.add(orderId);
+            } else {
+                idsByShard.computeIfAbsent(shardOfOrderId(orderId), k -> new ArrayList<>()).add(orderId);
+            }
+        }
+
+        List<T> result = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : idsByShard.entrySet()) {
+            result.addAll(route(entry.getKey(), () -> query.apply(entry.getValue())));
+        }
+        if (legacyIds.isEmpty()) {
+            return result;
+        }
+
+        if (isReadLegacy()) {
+            List<T> legacy = route(null, () -> query.apply(legacyIds));
+            result.addAll(legacy);
+            Set<String> foundIds = legacy.stream().map(orderIdOf).collect(Collectors.toSet());
+            legacyIds.removeIf(foundIds::contains);
+        }
+        if (!legacyIds.isEmpty()) {
+            for (List<T> shardResult : scatterGather(() -> query.apply(legacyIds))) {
+                result.addAll(shardResult);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 在指定分表上执行操作
+     *
+     * @param shard  分表下标，null表示逻辑表
+     * @param action 操作（内部的 seckill_order 访问会被改写到对应分表）
+     */
+    public <T> T route(Integer shard, Supplier<T> action) {
+        Integer previous = OrderShardContext.get();
+        OrderShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            OrderShardContext.set(previous);
+        }
+    }
+
+    /**
+     * 并行在所有分表上执行操作并汇总结果（管理端全量查询使用）
+     *
+     * @param action 操作
+     * @return 每个分表的结果，顺序与分表下标一致；未分表时只有一个元素
+     */
+    public <T> List<T> scatterGather(Supplier<T> action) {
+        List<T> results = new ArrayList<>();
+        if (!isSharded()) {
+            results.add(route(null, action));
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            futures.add(scatterExecutor.submit(() -> route(shard, action)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("分表查询被中断", e);
+            } catch (Exception e) {
+                throw new RuntimeException("分表查询失败，分表: " + i + ", 错误: " + e.getMessage(), e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 获取分表的物理表名
+     */
+    public static String physicalTable(int shard) {
+        return LOGIC_TABLE + "_" + shard;
+    }
+}
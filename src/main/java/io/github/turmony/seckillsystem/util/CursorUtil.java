@@ -0,0 +1,71 @@
+package io.github.turmony.seckillsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+/**
+ * 分页游标工具类
+ * 将 (create_time, id) 编码为不透明的URL安全字符串，客户端只需原样回传
+ *
+ * 编码格式: Base64Url("{createTime毫秒时间戳}:{id}")
+ */
+public class CursorUtil {
+
+    private CursorUtil() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param createTime 最后一条记录的创建时间
+     * @param id         最后一条记录的主键
+     * @return 游标字符串
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        long millis = createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String raw = millis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标中的创建时间
+     *
+     * @param cursor 游标字符串
+     * @return 创建时间
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static LocalDateTime decodeTime(String cursor) {
+        long millis = Long.parseLong(split(cursor)[0]);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 解码游标中的主键
+     *
+     * @param cursor 游标字符串
+     * @return 主键
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static Long decodeId(String cursor) {
+        return Long.valueOf(split(cursor)[1]);
+    }
+
+    private static String[] split(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("游标格式错误");
+            }
+            // 提前校验数字格式
+            Long.parseLong(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("游标格式错误", e);
+        }
+    }
+}
@@ -2,7 +2,11 @@ package io.github.turmony.seckillsystem.util;
 
 
 import lombok.extern.slf4j.Slf4j;
+import io.github.turmony.seckillsystem.cache.HotKeyDetector;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsHashCache;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
@@ -10,8 +14,11 @@ import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Lua脚本工具类
@@ -26,11 +33,45 @@ public class LuaScriptUtil {
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 扣减、回滚按采样记录库存Key访问，用于发现热点商品
+     */
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
     /**
      * 库存扣减Lua脚本
      */
     private DefaultRedisScript<Long> stockDeductScript;
 
+    /**
+     * 库存回滚Lua脚本（按订单ID幂等）
+     */
+    private DefaultRedisScript<Long> stockRollbackScript;
+
+    /**
+     * 库存初始化Lua脚本（批量，库存与库存账本一起写入）
+     */
+    private DefaultRedisScript<Long> stockInitScript;
+
+    /**
+     * 库存对账Lua脚本（批量）
+     */
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> stockReconcileScript;
+
+    /**
+     * 集群限流Lua脚本（GCRA）
+     */
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> rateLimitScript;
+
+    /**
+     * 回滚记录集合的过期时间（秒），默认7天
+     */
+    @Value("${seckill.stock.rollback-ttl:604800}")
+    private long rollbackTtlSeconds;
+
     /**
      * 初始化Lua脚本
      */
@@ -41,24 +82,54 @@ public class LuaScriptUtil {
         stockDeductScript.setScriptSource(new ResourceScriptSource(
                 new ClassPathResource("lua/stock_deduct.lua")
         ));
+
+        stockRollbackScript = new DefaultRedisScript<>();
+        stockRollbackScript.setResultType(Long.class);
+        stockRollbackScript.setScriptSource(new ResourceScriptSource(
+                new ClassPathResource("lua/stock_rollback.lua")
+        ));
+
+        stockInitScript = new DefaultRedisScript<>();
+        stockInitScript.setResultType(Long.class);
+        stockInitScript.setScriptSource(new ResourceScriptSource(
+                new ClassPathResource("lua/stock_init.lua")
+        ));
+
+        stockReconcileScript = new DefaultRedisScript<>();
+        stockReconcileScript.setResultType(List.class);
+        stockReconcileScript.setScriptSource(new ResourceScriptSource(
+                new ClassPathResource("lua/stock_reconcile.lua")
+        ));
+
+        rateLimitScript = new DefaultRedisScript<>();
+        rateLimitScript.setResultType(List.class);
+        rateLimitScript.setScriptSource(new ResourceScriptSource(
+                new ClassPathResource("lua/rate_limit_gcra.lua")
+        ));
         log.info("Lua脚本加载成功");
     }
 
     /**
      * 执行库存扣减
+     * 活动时间（活动数据Hash中的毫秒时间戳）在脚本内与Redis服务器时间比较，与扣减在同一个原子操作中完成
      *
-     * @param stockKey 库存Key，格式：seckill:stock:{goodsId}
+     * @param goodsId  商品ID
      * @param quantity 扣减数量，默认为1
-     * @return 1-扣减成功，0-库存不足，-1-库存Key不存在
+     * @return 1-扣减成功，0-库存不足，-1-库存Key或活动数据不存在，-2-活动未开始，-3-活动已结束，-4-活动已结束且数据已清理
      */
-    public Long deductStock(String stockKey, Integer quantity) {
+    public Long deductStock(Long goodsId, Integer quantity) {
+        String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
+        String goodsKey = RedisKeyConstant.getSeckillGoodsKey(goodsId);
+        hotKeyDetector.record(stockKey);
         try {
-            List<String> keys = Collections.singletonList(stockKey);
             String quantityStr = quantity == null ? "1" : quantity.toString();
             Long result = stringRedisTemplate.execute(
                     stockDeductScript,
-                    keys,
-                    quantityStr
+                    Arrays.asList(stockKey, goodsKey, RedisKeyConstant.getSeckillStockLedgerKey(goodsId),
+                            RedisKeyConstant.getSeckillGoodsEvictedKey(goodsId)),
+                    quantityStr,
+                    SeckillGoodsHashCache.FIELD_START_TIME,
+                    SeckillGoodsHashCache.FIELD_END_TIME
             );
             log.info("Lua脚本执行库存扣减，Key: {}, 数量: {}, 结果: {}",
                     stockKey, quantity, result);
@@ -72,11 +143,143 @@ public class LuaScriptUtil {
     /**
      * 执行库存扣减（默认扣减1）
      *
-     * @param stockKey 库存Key
-     * @return 1-扣减成功，0-库存不足，-1-库存Key不存在
+     * @param goodsId 商品ID
+     * @return 1-扣减成功，0-库存不足，-1-库存Key或活动数据不存在，-2-活动未开始，-3-活动已结束，-4-活动已结束且数据已清理
      */
-    public Long deductStock(String stockKey) {
-        return deductStock(stockKey, 1);
+    public Long deductStock(Long goodsId) {
+        return deductStock(goodsId, 1);
+    }
+
+    /**
+     * 按订单ID幂等回滚库存
+     * 同一个订单无论回滚多少次（消息重投、重试、多个补偿分支），库存只会恢复一次
+     *
+     * @param goodsId 商品ID
+     * @param orderId 订单ID
+     * @return 1-回滚成功，0-该订单已回滚过，-1-库存Key不存在或执行失败
+     */
+    public Long rollbackStock(Long goodsId, String orderId) {
+        String stockKey = RedisKeyConstant.getSeckillStockKey(goodsId);
+        String rollbackKey = RedisKeyConstant.getSeckillStockRollbackKey(goodsId);
+        hotKeyDetector.record(stockKey);
+        try {
+            Long result = stringRedisTemplate.execute(
+                    stockRollbackScript,
+                    Arrays.asList(stockKey, rollbackKey, RedisKeyConstant.getSeckillStockLedgerKey(goodsId)),
+                    orderId,
+                    "1",
+                    String.valueOf(rollbackTtlSeconds)
+            );
+            if (isRollbackSuccess(result)) {
+                log.info("Lua脚本回滚库存成功，商品ID: {}, 订单ID: {}", goodsId, orderId);
+            } else if (isAlreadyRolledBack(result)) {
+                log.warn("订单库存已回滚过，忽略本次回滚，商品ID: {}, 订单ID: {}", goodsId, orderId);
+            } else {
+                log.error("库存Key不存在，无法回滚，商品ID: {}, 订单ID: {}", goodsId, orderId);
+            }
+            return result;
+        } catch (Exception e) {
+            log.error("Lua脚本回滚库存失败，商品ID: {}, 订单ID: {}", goodsId, orderId, e);
+            return -1L;
+        }
+    }
+
+    /**
+     * 初始化库存（预热、新增、修改库存、重置库存）
+     * 库存Key与库存账本在同一个原子操作中写入，扣减脚本和对账脚本不会看到新库存配旧账本
+     *
+     * @param stocks       商品ID -> 库存
+     * @param onlyIfAbsent true-只在库存Key不存在时写入（进行中的活动不能被重置库存）
+     * @return 实际写入的商品数
+     */
+    public long initStock(Map<Long, Long> stocks, boolean onlyIfAbsent) {
+        if (stocks.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>(stocks.size() * 2);
+        List<String> args = new ArrayList<>(stocks.size() + 1);
+        args.add(onlyIfAbsent ? "1" : "0");
+        stocks.forEach((goodsId, stock) -> {
+            keys.add(RedisKeyConstant.getSeckillStockKey(goodsId));
+            keys.add(RedisKeyConstant.getSeckillStockLedgerKey(goodsId));
+            args.add(String.valueOf(stock));
+        });
+        Long written = stringRedisTemplate.execute(stockInitScript, keys, args.toArray());
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * 初始化单个商品的库存
+     *
+     * @param goodsId      商品ID
+     * @param stock        库存
+     * @param onlyIfAbsent true-只在库存Key不存在时写入
+     * @return 是否写入
+     */
+    public boolean initStock(Long goodsId, long stock, boolean onlyIfAbsent) {
+        return initStock(Collections.singletonMap(goodsId, stock), onlyIfAbsent) > 0;
+    }
+
+    /**
+     * 批量对账：在一个原子操作中读取每个商品的剩余库存和账本，计算偏差，并修正已确认的偏差
+     *
+     * @param goodsIds       商品ID列表
+     * @param expectedDrifts 与goodsIds一一对应，本次要修正的偏差（上一轮确认的偏差），0表示不修正
+     * @param maxCorrect     单次自动修正的最大偏差（绝对值）
+     * @return 每个商品8个整数：状态、剩余库存、初始库存、累计扣减、累计回滚、累计成功、偏差、是否已修正
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> reconcileStock(List<Long> goodsIds, List<Long> expectedDrifts, long maxCorrect) {
+        List<String> keys = new ArrayList<>(goodsIds.size() * 2);
+        List<String> args = new ArrayList<>(goodsIds.size() + 1);
+        args.add(String.valueOf(maxCorrect));
+        for (int i = 0; i < goodsIds.size(); i++) {
+            keys.add(RedisKeyConstant.getSeckillStockKey(goodsIds.get(i)));
+            keys.add(RedisKeyConstant.getSeckillStockLedgerKey(goodsIds.get(i)));
+            args.add(String.valueOf(expectedDrifts.get(i)));
+        }
+        return (List<Long>) stringRedisTemplate.execute(stockReconcileScript, keys, args.toArray());
+    }
+
+    /**
+     * 集群限流：按GCRA一次获取多个许可
+     * Redis不可用时直接抛出异常，由调用方降级为本地限流
+     *
+     * @param name           限流器名称
+     * @param intervalMicros 每个许可的间隔（微秒）
+     * @param burst          突发容量（许可数）
+     * @param permits        本次请求的许可数
+     * @return 两个整数：实际获得的许可数、没有获得许可时距离下一个许可可用的时间（微秒）
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> acquireRateLimit(String name, long intervalMicros, long burst, long permits) {
+        return (List<Long>) stringRedisTemplate.execute(
+                rateLimitScript,
+                Collections.singletonList(RedisKeyConstant.getSeckillRateLimitKey(name)),
+                String.valueOf(intervalMicros),
+                String.valueOf(burst),
+                String.valueOf(permits)
+        );
+    }
+
+    /**
+     * 判断回滚是否成功
+     *
+     * @param result 回滚脚本执行结果
+     * @return true-本次回滚生效
+     */
+    public static boolean isRollbackSuccess(Long result) {
+        return result != null && result == 1L;
+    }
+
+    /**
+     * 判断订单是否已回滚过
+     *
+     * @param result 回滚脚本执行结果
+     * @return true-该订单之前已回滚
+     */
+    public static boolean isAlreadyRolledBack(Long result) {
+        return result != null && result == 0L;
     }
 
     /**
@@ -103,9 +306,39 @@ public class LuaScriptUtil {
      * 判断是否Key不存在
      *
      * @param result Lua脚本执行结果
-     * @return true-Key不存在，false-其他情况
+     * @return true-库存Key或活动数据不存在，false-其他情况
      */
     public static boolean isKeyNotExist(Long result) {
         return result != null && result == -1L;
     }
+
+    /**
+     * 判断活动是否未开始
+     *
+     * @param result Lua脚本执行结果
+     * @return true-活动未开始，false-其他情况
+     */
+    public static boolean isNotStarted(Long result) {
+        return result != null && result == -2L;
+    }
+
+    /**
+     * 判断活动是否已结束
+     *
+     * @param result Lua脚本执行结果
+     * @return true-活动已结束，false-其他情况
+     */
+    public static boolean isEnded(Long result) {
+        return result != null && result == -3L;
+    }
+
+    /**
+     * 判断活动是否已结束且活动数据已被清理
+     *
+     * @param result Lua脚本执行结果
+     * @return true-活动已清理，false-其他情况
+     */
+    public static boolean isEvicted(Long result) {
+        return result != null && result == -4L;
+    }
 }
@@ -1,12 +1,21 @@
 package io.github.turmony.seckillsystem.util;
 
 
+import io.github.turmony.seckillsystem.cache.HotKeyDetector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis工具类
@@ -18,6 +27,18 @@ public class RedisUtil {
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    /**
+     * 计数器（库存等）以纯整数字符串存储，与Lua脚本中的 tonumber/DECRBY 直接兼容
+     */
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 读操作按采样记录Key访问，用于发现热点Key
+     */
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
     // =============================Common============================
 
     /**
@@ -82,7 +103,11 @@ public class RedisUtil {
      * @return 值
      */
     public Object get(String key) {
-        return key == null ? null : redisTemplate.opsForValue().get(key);
+        if (key == null) {
+            return null;
+        }
+        hotKeyDetector.record(key);
+        return redisTemplate.opsForValue().get(key);
     }
 
     /**
@@ -156,24 +181,111 @@ public class RedisUtil {
     }
 
     /**
-     * 获取Long类型的值
+     * 获取Long类型的值（计数器）
      * @param key 键
      * @return Long值
      */
     public Long getLong(String key) {
-        Object obj = get(key);
-        if (obj == null) {
+        if (key == null) {
             return null;
         }
-        return Long.parseLong(obj.toString());
+        hotKeyDetector.record(key);
+        String value = stringRedisTemplate.opsForValue().get(key);
+        return value == null ? null : Long.parseLong(value);
     }
 
     /**
-     * 设置Long类型的值
+     * 批量获取Long类型的值（一次MGET）
+     * @param keys 键列表
+     * @return 与keys顺序一致的值列表，不存在的键对应null
+     */
+    public List<Long> multiGetLong(List<String> keys) {
+        List<Long> result = new ArrayList<>(keys.size());
+        keys.forEach(hotKeyDetector::record);
+        List<String> values = keys.isEmpty() ? null : stringRedisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            result.add(value == null ? null : Long.parseLong(value));
+        }
+        return result;
+    }
+
+    /**
+     * 设置Long类型的值（计数器，存储为整数字符串）
      * @param key   键
      * @param value Long值
      */
-    public void setLong(String key, Long value) {
-        set(key, value);
+    public void setLong(String key, long value) {
+        stringRedisTemplate.opsForValue().set(key, Long.toString(value));
+    }
+
+    /**
+     * 批量设置Long类型的值（一次MSET）
+     * @param values 键 -> 值
+     */
+    public void multiSetLong(Map<String, Long> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        Map<String, String> strings = new LinkedHashMap<>(values.size() * 2);
+        values.forEach((key, value) -> strings.put(key, Long.toString(value)));
+        stringRedisTemplate.opsForValue().multiSet(strings);
+    }
+
+    // ============================Scan============================
+
+    /**
+     * 用SCAN遍历匹配的Key，每攒满一批回调一次（不使用KEYS，不阻塞Redis）
+     * SCAN可能返回重复的Key，调用方的处理需要幂等
+     *
+     * @param pattern   匹配模式，如 seckill:stock:*
+     * @param batchSize 每批Key数量（同时作为SCAN的COUNT）
+     * @param consumer  每批Key的处理
+     * @return 遍历到的Key总数
+     */
+    public long scan(String pattern, int batchSize, Consumer<List<String>> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(batchSize).build();
+        long total = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    total += batch.size();
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            total += batch.size();
+            consumer.accept(batch);
+        }
+        return total;
+    }
+
+    /**
+     * 批量删除（UNLINK，内存在Redis后台线程释放，不阻塞其他命令）
+     * @param keys 键集合
+     * @return 实际删除的Key数量
+     */
+    public long unlink(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        Long count = stringRedisTemplate.unlink(keys);
+        return count == null ? 0 : count;
+    }
+
+    // ============================Set=============================
+
+    /**
+     * 获取Set的元素个数
+     * @param key 键
+     * @return 元素个数
+     */
+    public long sSize(String key) {
+        Long size = redisTemplate.opsForSet().size(key);
+        return size == null ? 0 : size;
     }
 }
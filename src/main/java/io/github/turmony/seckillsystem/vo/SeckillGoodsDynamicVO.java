@@ -0,0 +1,45 @@
+package io.github.turmony.seckillsystem.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 秒杀商品动态信息VO
+ * 只包含随时间变化的实时库存、秒杀状态和倒计时，配合商品静态快照使用
+ */
+@Data
+public class SeckillGoodsDynamicVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 关联的商品ID
+     */
+    private Long goodsId;
+
+    /**
+     * 实时库存
+     */
+    private Integer stockCount;
+
+    /**
+     * 秒杀状态：0-未开始 1-进行中 2-已结束
+     */
+    private Integer status;
+
+    /**
+     * 距离开始剩余秒数（未开始时有值）
+     */
+    private Long remainSeconds;
+
+    /**
+     * 距离结束剩余秒数（进行中时有值）
+     */
+    private Long endRemainSeconds;
+
+    /**
+     * 服务器当前时间（毫秒），供前端校准倒计时
+     */
+    private Long serverTime;
+}
@@ -0,0 +1,466 @@
+package io.github.turmony.seckillsystem.warmup;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsHashCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsListCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockMirror;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
+import io.github.turmony.seckillsystem.util.RedisUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 秒杀活动调度器（按活动时间自动预热、清理）
+ *
+ * 每个活动按 startTime / endTime 在分层时间轮中登记两个时间点：
+ * 1. WARM：开始前 warmup-lead-minutes 分钟，写入活动数据Hash、库存（SETNX，不覆盖已有库存）、列表索引、布隆过滤器，加载展示缓存和库存镜像
+ * 2. EVICT：结束后 evict-grace-minutes 分钟，删除活动数据Hash、库存、库存账本、展示缓存，释放库存镜像和本地缓存；
+ *    删除前写入带过期时间的已清理标记，扣减脚本据此返回"活动已结束"，而不是"数据不存在"
+ * Redis中只保留进行中和即将开始的活动，不再依赖在合适的时间手动预热
+ * 活动是否开始/结束由扣减脚本用活动数据Hash中的开始、结束时间与Redis TIME比较，不需要在开始、结束时刻写入标记
+ *
+ * 时间轮由单独的线程按 tick-ms 推进，到期任务交给任务线程执行
+ * 活动计划每隔 reload-ms 从数据库对账一次（只查询 goods_id、start_time、end_time），商品新增、修改、删除时立即更新
+ * 活动时间修改后旧的时间点不从时间轮删除，到期时与当前计划比对，不一致的直接丢弃
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillActivityScheduler {
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final SeckillGoodsHashCache seckillGoodsHashCache;
+    private final SeckillGoodsListCache seckillGoodsListCache;
+    private final SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillStockMirror seckillStockMirror;
+    private final LuaScriptUtil luaScriptUtil;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisUtil redisUtil;
+
+    @Value("${seckill.activity.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 开始前多少分钟预热
+     */
+    @Value("${seckill.activity.warmup-lead-minutes:5}")
+    private long warmupLeadMinutes;
+
+    /**
+     * 结束后多少分钟清理（期间仍可查询订单、展示库存）
+     */
+    @Value("${seckill.activity.evict-grace-minutes:30}")
+    private long evictGraceMinutes;
+
+    /**
+     * 已清理标记的保留时间（小时）
+     */
+    @Value("${seckill.activity.evicted-ttl-hours:168}")
+    private long evictedTtlHours;
+
+    /**
+     * 时间轮每格时长（毫秒），即预热/清理的最大延迟
+     */
+    @Value("${seckill.activity.tick-ms:100}")
+    private long tickMs;
+
+    /**
+     * 时间轮每层格数
+     */
+    @Value("${seckill.activity.wheel-size:600}")
+    private int wheelSize;
+
+    /**
+     * 当前活动计划：goodsId -> 计划
+     */
+    private final Map<Long, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 计划版本号，每次登记计划时递增；对账只移除在读取数据库之前登记的计划
+     */
+    private final AtomicLong planVersion = new AtomicLong();
+
+    /**
+     * 等待放入时间轮的任务（时间轮只由推进线程访问）
+     */
+    private final Queue<ActivityTask> pending = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder warmCount = new LongAdder();
+    private final LongAdder evictCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+
+    private TimingWheel<ActivityTask> timingWheel;
+    private ScheduledExecutorService tickExecutor;
+    private ExecutorService taskExecutor;
+
+    /**
+     * 时间轮中的任务数（由推进线程更新）
+     */
+    private volatile int wheelTaskCount;
+    private volatile int wheelLevels;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        timingWheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        tickExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seckill-activity-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        taskExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "seckill-activity-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickExecutor.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        log.info("秒杀活动调度器已启动，预热提前: {}分钟, 清理延后: {}分钟, 时间轮: {}ms x {}",
+                warmupLeadMinutes, evictGraceMinutes, tickMs, wheelSize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (tickExecutor != null) {
+            tickExecutor.shutdownNow();
+        }
+        if (taskExecutor != null) {
+            taskExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 登记或更新一个活动（商品新增、修改活动时间时调用）
+     * 时间未变化时不做任何事；已过清理时间的活动直接清理
+     *
+     * @param seckillGoods 秒杀商品（goodsId、startTime、endTime 必填）
+     */
+    public void schedule(SeckillGoods seckillGoods) {
+        if (!enabled || seckillGoods == null || seckillGoods.getGoodsId() == null
+                || seckillGoods.getStartTime() == null || seckillGoods.getEndTime() == null) {
+            return;
+        }
+        long startAt = toMillis(seckillGoods.getStartTime());
+        long endAt = toMillis(seckillGoods.getEndTime());
+        Plan plan = new Plan(startAt, endAt, planVersion.incrementAndGet());
+        Plan previous = plans.put(seckillGoods.getGoodsId(), plan);
+        if (plan.equals(previous)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long evictAt = evictAtOf(endAt);
+        if (now < evictAt) {
+            submit(new ActivityTask(seckillGoods.getGoodsId(), Phase.WARM, warmAtOf(startAt)));
+        }
+        submit(new ActivityTask(seckillGoods.getGoodsId(), Phase.EVICT, evictAt));
+    }
+
+    /**
+     * 移除活动（商品删除时调用，缓存由调用方清除）
+     *
+     * @param goodsId 商品ID
+     */
+    public void unschedule(Long goodsId) {
+        if (goodsId != null) {
+            plans.remove(goodsId);
+        }
+    }
+
+    /**
+     * 活动是否已结束且过了清理时间（全量预热时跳过这些活动）
+     *
+     * @param seckillGoods 秒杀商品
+     */
+    public boolean isEvictable(SeckillGoods seckillGoods) {
+        return enabled && seckillGoods.getEndTime() != null
+                && System.currentTimeMillis() >= evictAtOf(toMillis(seckillGoods.getEndTime()));
+    }
+
+    /**
+     * 定时与数据库对账：登记新活动、更新改过时间的活动、移除已删除的商品
+     * 首次对账时已过清理时间的活动统一批量删除残留Key，不逐个发送失效通知
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${seckill.activity.reload-ms:60000}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long version = planVersion.get();
+            List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(
+                    new QueryWrapper<SeckillGoods>().select("goods_id", "start_time", "end_time"));
+            long now = System.currentTimeMillis();
+            Set<Long> goodsIds = new HashSet<>();
+            List<Long> expired = new ArrayList<>();
+            for (SeckillGoods seckillGoods : seckillGoodsList) {
+                goodsIds.add(seckillGoods.getGoodsId());
+                if (seckillGoods.getStartTime() != null && seckillGoods.getEndTime() != null
+                        && !plans.containsKey(seckillGoods.getGoodsId())
+                        && now >= evictAtOf(toMillis(seckillGoods.getEndTime()))) {
+                    plans.put(seckillGoods.getGoodsId(), new Plan(toMillis(seckillGoods.getStartTime()),
+                            toMillis(seckillGoods.getEndTime()), planVersion.incrementAndGet()));
+                    expired.add(seckillGoods.getGoodsId());
+                    continue;
+                }
+                schedule(seckillGoods);
+            }
+            // 读取数据库之后新增的商品不在本次结果中，只移除之前登记的计划（按值条件删除，不会误删同时更新的计划）
+            plans.entrySet().removeIf(entry -> !goodsIds.contains(entry.getKey()) && entry.getValue().version <= version);
+            if (!expired.isEmpty()) {
+                taskExecutor.execute(() -> evictExpired(expired));
+            }
+        } catch (Exception e) {
+            log.error("秒杀活动计划对账失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 调度器统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("planCount", plans.size());
+        stats.put("wheelTaskCount", wheelTaskCount);
+        stats.put("wheelLevels", wheelLevels);
+        stats.put("pendingCount", pending.size());
+        stats.put("warmCount", warmCount.sum());
+        stats.put("evictCount", evictCount.sum());
+        stats.put("staleCount", staleCount.sum());
+        return stats;
+    }
+
+    private void submit(ActivityTask task) {
+        pending.add(task);
+    }
+
+    /**
+     * 推进时间轮（只在推进线程执行）
+     */
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            ActivityTask task;
+            while ((task = pending.poll()) != null) {
+                if (!timingWheel.add(task.deadline, task)) {
+                    execute(task);
+                }
+            }
+            timingWheel.advance(now, this::execute);
+            wheelTaskCount = timingWheel.size();
+            wheelLevels = timingWheel.levels();
+        } catch (Exception e) {
+            // 异常不能抛出，否则 scheduleAtFixedRate 会停止后续推进
+            log.error("推进秒杀活动时间轮失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行到期任务：与当前计划比对，活动时间已修改或商品已删除的任务直接丢弃
+     */
+    private void execute(ActivityTask task) {
+        Plan plan = plans.get(task.goodsId);
+        if (plan == null || plan.deadlineOf(task.phase) != task.deadline) {
+            staleCount.increment();
+            return;
+        }
+        switch (task.phase) {
+            case WARM -> taskExecutor.execute(() -> warm(task.goodsId));
+            case EVICT -> taskExecutor.execute(() -> evict(task.goodsId));
+        }
+    }
+
+    /**
+     * 预热单个活动：已存在的活动数据和库存不覆盖（进行中的活动重新登记时库存不能被重置）
+     */
+    private void warm(Long goodsId) {
+        try {
+            SeckillGoods seckillGoods = seckillGoodsMapper.selectOne(
+                    new QueryWrapper<SeckillGoods>().eq("goods_id", goodsId));
+            if (seckillGoods == null) {
+                return;
+            }
+            seckillGoodsHashCache.putIfAbsent(seckillGoods);
+            // 活动时间修改后重新开放的活动，清除上一次清理留下的标记
+            stringRedisTemplate.delete(RedisKeyConstant.getSeckillGoodsEvictedKey(goodsId));
+
+            // 库存已存在时不覆盖，账本也不重置
+            luaScriptUtil.initStock(goodsId, seckillGoods.getStockCount(), true);
+            Long stock = redisUtil.getLong(RedisKeyConstant.getSeckillStockKey(goodsId));
+            if (stock != null) {
+                seckillStockMirror.put(goodsId, stock);
+            }
+
+            seckillGoodsListCache.addIfAbsent(seckillGoods);
+            if (!seckillGoodsBloomFilter.mightContain(goodsId)) {
+                seckillGoodsBloomFilter.add(goodsId);
+            }
+            // 加载展示缓存（L1/L2）
+            seckillGoodsCache.get(goodsId);
+
+            warmCount.increment();
+            log.info("秒杀活动预热完成，商品ID: {}, 库存: {}", goodsId, stock);
+        } catch (Exception e) {
+            log.error("秒杀活动预热失败，商品ID: {}, 错误: {}", goodsId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 清理单个活动：写入已清理标记后删除活动数据、库存和库存账本，清除各节点本地缓存，释放库存镜像
+     * 列表索引和布隆过滤器保留（商品仍然存在，详情页按需从数据库加载）
+     */
+    private void evict(Long goodsId) {
+        try {
+            stringRedisTemplate.opsForValue().set(RedisKeyConstant.getSeckillGoodsEvictedKey(goodsId),
+                    "1", evictedTtlHours, TimeUnit.HOURS);
+            redisUtil.del(RedisKeyConstant.getSeckillGoodsKey(goodsId),
+                    RedisKeyConstant.getSeckillStockKey(goodsId),
+                    RedisKeyConstant.getSeckillStockLedgerKey(goodsId));
+            seckillGoodsCache.invalidate(goodsId);
+            seckillStockMirror.remove(goodsId);
+            evictCount.increment();
+            log.info("秒杀活动已清理，商品ID: {}", goodsId);
+        } catch (Exception e) {
+            log.error("秒杀活动清理失败，商品ID: {}, 错误: {}", goodsId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 批量删除早已结束的活动残留的Key（每批一次DEL）
+     */
+    private void evictExpired(List<Long> goodsIds) {
+        int batchSize = 500;
+        for (int from = 0; from < goodsIds.size(); from += batchSize) {
+            List<Long> batch = goodsIds.subList(from, Math.min(from + batchSize, goodsIds.size()));
+            List<String> keys = new ArrayList<>(batch.size() * 4);
+            for (Long goodsId : batch) {
+                keys.add(RedisKeyConstant.getSeckillGoodsKey(goodsId));
+                keys.add(RedisKeyConstant.getSeckillStockKey(goodsId));
+                keys.add(RedisKeyConstant.getSeckillGoodsVoKey(goodsId));
+                keys.add(RedisKeyConstant.getSeckillStockLedgerKey(goodsId));
+                seckillStockMirror.remove(goodsId);
+            }
+            try {
+                markEvicted(batch);
+                stringRedisTemplate.delete(keys);
+                evictCount.add(batch.size());
+            } catch (Exception e) {
+                log.error("批量清理已结束活动失败，数量: {}, 错误: {}", batch.size(), e.getMessage());
+            }
+        }
+        log.info("已结束活动残留数据清理完成，数量: {}", goodsIds.size());
+    }
+
+    /**
+     * 批量写入已清理标记（一次Pipeline）
+     */
+    private void markEvicted(List<Long> goodsIds) {
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                for (Long goodsId : goodsIds) {
+                    operations.opsForValue().set(RedisKeyConstant.getSeckillGoodsEvictedKey(goodsId),
+                            "1", evictedTtlHours, TimeUnit.HOURS);
+                }
+                return null;
+            }
+        });
+    }
+
+    private long warmAtOf(long startAt) {
+        return startAt - TimeUnit.MINUTES.toMillis(warmupLeadMinutes);
+    }
+
+    private long evictAtOf(long endAt) {
+        return endAt + TimeUnit.MINUTES.toMillis(evictGraceMinutes);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private enum Phase {
+        WARM, EVICT
+    }
+
+    /**
+     * 活动计划（开始、结束时间，毫秒；版本号不参与比较）
+     */
+    private final class Plan {
+        final long startAt;
+        final long endAt;
+        final long version;
+
+        Plan(long startAt, long endAt, long version) {
+            this.startAt = startAt;
+            this.endAt = endAt;
+            this.version = version;
+        }
+
+        long deadlineOf(Phase phase) {
+            return switch (phase) {
+                case WARM -> warmAtOf(startAt);
+                case EVICT -> evictAtOf(endAt);
+            };
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Plan other && startAt == other.startAt && endAt == other.endAt;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(startAt) * 31 + Long.hashCode(endAt);
+        }
+    }
+
+    private static final class ActivityTask {
+        final Long goodsId;
+        final Phase phase;
+        final long deadline;
+
+        ActivityTask(Long goodsId, Phase phase, long deadline) {
+            this.goodsId = goodsId;
+            this.phase = phase;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package io.github.turmony.seckillsystem.warmup;
+
+import io.github.turmony.seckillsystem.cache.SeckillGoodsBloomFilter;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsHashCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsListCache;
+import io.github.turmony.seckillsystem.cache.SeckillStockMirror;
+import io.github.turmony.seckillsystem.common.RedisKeyConstant;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.mapper.SeckillGoodsMapper;
+import io.github.turmony.seckillsystem.util.LuaScriptUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 秒杀商品预热引擎（启动预热和管理端手动预热共用）
+ *
+ * 流程：
+ * 1. 在只读事务内用MyBatis游标流式读取秒杀商品，每攒满 chunk-size 条提交一个批次，不把整张表加载到内存
+ * 2. 批次在有界线程池中并行执行：一次Pipeline写入活动数据Hash、库存和列表索引临时Key
+ * 3. 写入后用一次MGET校验库存，并回填本节点库存镜像
+ * 4. 全部批次完成后替换列表索引、重建布隆过滤器，输出吞吐量
+ *
+ * 已结束且过了清理时间的活动只写入列表索引和布隆过滤器，不写活动数据和库存（见 SeckillActivityScheduler）
+ *
+ * 启动预热只在库存Key不存在时写入库存：滚动重启时进行中的活动还有未落库的MQ订单，
+ * 用MySQL库存覆盖会把已扣减的库存加回去；只有管理端手动预热、按条件恢复才覆盖库存并重置账本
+ *
+ * 线程池队列有界且满时由读取线程自己执行批次，读取速度不会超过写入速度，内存中最多只有少量批次
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsWarmer {
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final SeckillGoodsListCache seckillGoodsListCache;
+    private final SeckillGoodsBloomFilter seckillGoodsBloomFilter;
+    private final SeckillGoodsCache seckillGoodsCache;
+    private final SeckillStockMirror seckillStockMirror;
+    private final SeckillActivityScheduler seckillActivityScheduler;
+    private final LuaScriptUtil luaScriptUtil;
+
+    /**
+     * 每批商品数（一次Pipeline）
+     */
+    @Value("${seckill.goods.warmup.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 并行写入的批次数
+     */
+    @Value("${seckill.goods.warmup.parallelism:4}")
+    private int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 执行一次全量预热
+     *
+     * @param invalidateCache 是否同时清除商品展示缓存（手动预热时为true，数据库可能已被直接修改）
+     * @param overwriteStock  是否用MySQL库存覆盖Redis中已存在的库存并重置账本（手动预热时为true，启动预热时为false）
+     * @return 预热结果：总数、成功数、失败数、校验失败数、耗时、吞吐量
+     */
+    public Map<String, Object> warmup(boolean invalidateCache, boolean overwriteStock) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            result.put("message", "预热任务正在执行中");
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger failCount = new AtomicInteger();
+        AtomicInteger verifyFailCount = new AtomicInteger();
+        AtomicInteger skippedCount = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism),
+                r -> new Thread(r, "goods-warmup-" + threadIndex.getAndIncrement()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        boolean rebuilt = false;
+        String listTempKey = seckillGoodsListCache.beginRebuild();
+        seckillGoodsBloomFilter.beginRebuild();
+        try {
+            List<Long> goodsIds = new ArrayList<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+            // Step 1: 流式读取，按批提交
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.executeWithoutResult(status -> {
+                List<SeckillGoods> chunk = new ArrayList<>(chunkSize);
+                try (Cursor<SeckillGoods> cursor = seckillGoodsMapper.selectAllForWarmup()) {
+                    for (SeckillGoods seckillGoods : cursor) {
+                        goodsIds.add(seckillGoods.getGoodsId());
+                        chunk.add(seckillGoods);
+                        if (chunk.size() >= chunkSize) {
+                            futures.add(submit(executor, chunk, listTempKey, invalidateCache, overwriteStock,
+                                    successCount, failCount, verifyFailCount, skippedCount));
+                            chunk = new ArrayList<>(chunkSize);
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        futures.add(submit(executor, chunk, listTempKey, invalidateCache, overwriteStock,
+                                successCount, failCount, verifyFailCount, skippedCount));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            // Step 2: 等待全部批次完成
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            // Step 3: 替换列表索引、重建布隆过滤器、通知各节点清除本地缓存
+            seckillGoodsListCache.finishRebuild(listTempKey, goodsIds.size());
+            rebuilt = true;
+            seckillGoodsBloomFilter.finishRebuild(goodsIds);
+            if (invalidateCache) {
+                seckillGoodsCache.invalidateAllLocal();
+            }
+
+            long costTime = System.currentTimeMillis() - startTime;
+            long throughput = costTime == 0 ? goodsIds.size() : goodsIds.size() * 1000L / costTime;
+            result.put("totalCount", goodsIds.size());
+            result.put("successCount", successCount.get());
+            result.put("failCount", failCount.get());
+            result.put("verifyFailCount", verifyFailCount.get());
+            result.put("skippedCount", skippedCount.get());
+            result.put("chunkCount", futures.size());
+            result.put("costTime", costTime + "ms");
+            result.put("throughput", throughput + "/s");
+
+            log.info("秒杀商品预热完成: 总数={}, 成功={}, 失败={}, 校验失败={}, 已结束跳过={}, 批次数={}, 耗时={}ms, 吞吐量={}/s",
+                    goodsIds.size(), successCount.get(), failCount.get(), verifyFailCount.get(),
+                    skippedCount.get(), futures.size(), costTime, throughput);
+            return result;
+        } finally {
+            if (!rebuilt) {
+                seckillGoodsListCache.abortRebuild(listTempKey);
+                seckillGoodsBloomFilter.abortRebuild();
+            }
+            executor.shutdown();
+            running.set(false);
+        }
+    }
+
+    /**
+     * 按给定商品恢复活动数据和库存（一次Pipeline），并删除展示缓存；用于管理端按条件从数据库恢复
+     * 与全量预热相同，已过清理时间的活动跳过
+     *
+     * @param seckillGoodsList 秒杀商品（完整字段）
+     * @param successCount     累加写入数
+     * @param skippedCount     累加跳过数
+     * @param verifyFailCount  累加校验失败数
+     */
+    public void restore(List<SeckillGoods> seckillGoodsList, AtomicInteger successCount,
+                        AtomicInteger skippedCount, AtomicInteger verifyFailCount) {
+        if (seckillGoodsList.isEmpty()) {
+            return;
+        }
+        List<SeckillGoods> written = writeChunk(seckillGoodsList, null, true, true);
+        successCount.addAndGet(written.size());
+        skippedCount.addAndGet(seckillGoodsList.size() - written.size());
+        verifyFailCount.addAndGet(verifyChunk(written, true));
+    }
+
+    private CompletableFuture<Void> submit(ThreadPoolExecutor executor, List<SeckillGoods> chunk, String listTempKey,
+                                           boolean invalidateCache, boolean overwriteStock,
+                                           AtomicInteger successCount,
+                                           AtomicInteger failCount, AtomicInteger verifyFailCount,
+                                           AtomicInteger skippedCount) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                List<SeckillGoods> written = writeChunk(chunk, listTempKey, invalidateCache, overwriteStock);
+                successCount.addAndGet(written.size());
+                skippedCount.addAndGet(chunk.size() - written.size());
+                verifyFailCount.addAndGet(verifyChunk(written, overwriteStock));
+            } catch (Exception e) {
+                failCount.addAndGet(chunk.size());
+                log.error("预热批次失败，商品ID: {} ~ {}, 数量: {}, 错误: {}",
+                        chunk.get(0).getGoodsId(), chunk.get(chunk.size() - 1).getGoodsId(),
+                        chunk.size(), e.getMessage());
+            }
+        }, executor);
+    }
+
+    /**
+     * 写入整批商品：库存和库存账本由一次Lua脚本写入，活动数据Hash、列表索引临时Key由一次Pipeline写入（手动预热时同时删除展示缓存）
+     * listTempKey 为null时不写列表索引（按条件恢复部分商品时）；overwriteStock 为false时已存在的库存和账本保持不变
+     *
+     * @return 写入了活动数据和库存的商品（不含已过清理时间的活动）
+     */
+    private List<SeckillGoods> writeChunk(List<SeckillGoods> chunk, String listTempKey, boolean invalidateCache,
+                                          boolean overwriteStock) {
+        List<SeckillGoods> written = new ArrayList<>(chunk.size());
+        Map<Long, Long> stocks = new LinkedHashMap<>();
+        for (SeckillGoods seckillGoods : chunk) {
+            if (seckillActivityScheduler.isEvictable(seckillGoods)) {
+                continue;
+            }
+            written.add(seckillGoods);
+            stocks.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount().longValue());
+        }
+        luaScriptUtil.initStock(stocks, !overwriteStock);
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> redisOperations) throws DataAccessException {
+                RedisOperations<String, String> operations = (RedisOperations<String, String>) redisOperations;
+                String tempSuffix = SeckillGoodsHashCache.newTempSuffix();
+                for (SeckillGoods seckillGoods : written) {
+                    SeckillGoodsHashCache.replaceInPipeline(operations,
+                            RedisKeyConstant.getSeckillGoodsKey(seckillGoods.getGoodsId()),
+                            SeckillGoodsHashCache.toHash(seckillGoods), tempSuffix);
+                }
+                for (SeckillGoods seckillGoods : chunk) {
+                    if (listTempKey != null) {
+                        seckillGoodsListCache.addToRebuild(operations, listTempKey, seckillGoods);
+                    }
+                    if (invalidateCache) {
+                        operations.delete(RedisKeyConstant.getSeckillGoodsVoKey(seckillGoods.getGoodsId()));
+                    }
+                }
+                return null;
+            }
+        });
+        return written;
+    }
+
+    /**
+     * 一次MGET校验整批库存，并回填本节点库存镜像
+     * 不覆盖库存时Redis中保留的是进行中活动的剩余库存，只校验库存Key存在，镜像回填实际值
+     *
+     * @return 校验失败的商品数
+     */
+    private int verifyChunk(List<SeckillGoods> chunk, boolean overwriteStock) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<String> keys = new ArrayList<>(chunk.size());
+        for (SeckillGoods seckillGoods : chunk) {
+            keys.add(RedisKeyConstant.getSeckillStockKey(seckillGoods.getGoodsId()));
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        int failed = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            SeckillGoods seckillGoods = chunk.get(i);
+            String expected = String.valueOf(seckillGoods.getStockCount());
+            String actual = values == null ? null : values.get(i);
+            if (expected.equals(actual)) {
+                seckillStockMirror.put(seckillGoods.getGoodsId(), seckillGoods.getStockCount());
+            } else if (!overwriteStock && actual != null) {
+                seckillStockMirror.put(seckillGoods.getGoodsId(), Long.parseLong(actual));
+            } else {
+                failed++;
+                log.warn("预热校验失败 -> 商品ID: {}, 预期库存: {}, 实际库存: {}",
+                        seckillGoods.getGoodsId(), expected, actual);
+            }
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.turmony.seckillsystem.warmup;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮（非线程安全，只能由一个线程调用 add / advance）
+ *
+ * 第0层每格 tickMs，一圈 tickMs * wheelSize；超出一圈的任务放入上一层（每格为下层一圈），按需逐层创建
+ * 下层转到上层某一格的起点时，把该格的任务重新放入下层，越接近到期放得越精确
+ * 添加、到期都是 O(1)，任务数量和时间跨度都不影响推进开销
+ *
+ * 任务只会延后触发（最多一格），不会提前触发
+ *
+ * @param <T> 任务类型
+ */
+final class TimingWheel<T> {
+
+    private final Level<T> root;
+    private int size;
+
+    /**
+     * @param tickMs    第0层每格时长（毫秒）
+     * @param wheelSize 每层格数
+     * @param startMs   起始时间（毫秒）
+     */
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.root = new Level<>(this, tickMs, wheelSize, startMs);
+    }
+
+    /**
+     * 添加任务
+     *
+     * @param deadline 到期时间（毫秒）
+     * @param task     任务
+     * @return 已到期（不需要放入时间轮，由调用方直接执行）时返回false
+     */
+    boolean add(long deadline, T task) {
+        boolean added = root.add(new Entry<>(deadline, task));
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    /**
+     * 推进到指定时间，回调所有已到期的任务
+     *
+     * @param now     当前时间（毫秒）
+     * @param expired 到期任务回调
+     */
+    void advance(long now, Consumer<T> expired) {
+        while (now >= root.currentTime + root.tickMs) {
+            root.currentTime += root.tickMs;
+            // 先触发第0层上一格，再从上层下放任务：上一格与 [currentTime + interval - tickMs, currentTime + interval)
+            // 是同一个槽位，先下放会把这一段的任务放进即将触发的槽位而提前一圈触发
+            ArrayDeque<Entry<T>> bucket = root.bucketOf(root.currentTime - root.tickMs);
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                size--;
+                expired.accept(entry.task);
+            }
+            // 下放的任务到期时间都不小于 currentTime，放入第0层当前一圈内
+            if (root.overflow != null) {
+                root.overflow.cascade(root.currentTime);
+            }
+        }
+    }
+
+    /**
+     * 时间轮中的任务数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 层数（按需创建的上层时间轮数 + 1）
+     */
+    int levels() {
+        int levels = 0;
+        for (Level<T> level = root; level != null; level = level.overflow) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * 任务到期时由上层下放回第0层；时间已过的直接放入第0层当前格，下一次推进时触发
+     */
+    private void reinsert(Entry<T> entry) {
+        if (!root.add(entry)) {
+            root.bucketOf(root.currentTime).add(entry);
+        }
+    }
+
+    private static final class Entry<T> {
+        final long deadline;
+        final T task;
+
+        Entry(long deadline, T task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+
+    private static final class Level<T> {
+
+        final TimingWheel<T> wheel;
+        final long tickMs;
+        final int wheelSize;
+        final long interval;
+        final ArrayDeque<Entry<T>>[] buckets;
+        /**
+         * 当前格的起点（tickMs 的整数倍）
+         */
+        long currentTime;
+        Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(TimingWheel<T> wheel, long tickMs, int wheelSize, long startMs) {
+            this.wheel = wheel;
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = (ArrayDeque<Entry<T>>[]) new ArrayDeque<?>[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = startMs - startMs % tickMs;
+        }
+
+        /**
+         * 第0层接收 [currentTime, currentTime + interval) 的任务；
+         * 上层的当前格已经下放，只接收 [currentTime + tickMs, currentTime + interval) 的任务
+         */
+        boolean add(Entry<T> entry) {
+            long lowest = overflowLevel() ? currentTime + tickMs : currentTime;
+            if (entry.deadline < lowest) {
+                return false;
+            }
+            if (entry.deadline < currentTime + interval) {
+                bucketOf(entry.deadline).add(entry);
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(wheel, interval, wheelSize, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        /**
+         * 下层到达 time 时调用：time 恰好是本层一格的起点时，把这一格的任务放回时间轮
+         */
+        void cascade(long time) {
+            if (time % tickMs != 0) {
+                return;
+            }
+            currentTime = time;
+            if (overflow != null) {
+                overflow.cascade(time);
+            }
+            ArrayDeque<Entry<T>> bucket = bucketOf(time);
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                wheel.reinsert(entry);
+            }
+        }
+
+        ArrayDeque<Entry<T>> bucketOf(long time) {
+            return buckets[(int) ((time / tickMs) % wheelSize)];
+        }
+
+        private boolean overflowLevel() {
+            return this != wheel.root;
+        }
+    }
+}
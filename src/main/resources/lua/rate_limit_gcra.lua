@@ -0,0 +1,39 @@
+-- 集群限流Lua脚本（GCRA，一次获取多个许可）
+-- KEYS[1]: 限流Key，格式：seckill:ratelimit:{限流器名称}，保存理论到达时间(TAT，微秒)
+-- ARGV[1]: 每个许可的间隔（微秒，= 1000000 / 每秒许可数）
+-- ARGV[2]: 突发容量（许可数）
+-- ARGV[3]: 本次请求的许可数
+-- 返回值：{实际获得的许可数(0~ARGV[3]), 没有获得许可时距离下一个许可可用的时间(微秒)}
+
+-- Redis 5 之前脚本中使用TIME后写入需要按命令复制
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+
+local interval = tonumber(ARGV[1])
+local burst = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+-- 使用Redis服务器时间，整个集群只有一个时钟
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+
+local tat = tonumber(redis.call('get', KEYS[1]))
+if not tat or tat < now then
+    tat = now
+end
+
+-- TAT 最多领先当前时间 burst 个间隔，能获得的许可数 = 剩余容量 / 间隔
+local tolerance = burst * interval
+local granted = math.floor((now + tolerance - tat) / interval)
+if granted > requested then
+    granted = requested
+end
+if granted <= 0 then
+    return {0, tat - tolerance + interval - now}
+end
+
+tat = tat + granted * interval
+-- TAT 回落到当前时间后Key不再有意义，按领先时间设置过期
+redis.call('set', KEYS[1], string.format('%d', tat), 'PX', math.floor((tat - now) / 1000) + 1)
+return {granted, 0}
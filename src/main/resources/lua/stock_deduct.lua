@@ -1,12 +1,44 @@
--- 库存扣减Lua脚本
+-- 库存扣减Lua脚本（活动时间校验与扣减在同一个原子操作中完成）
 -- KEYS[1]: 库存的Redis Key，格式：seckill:stock:{goodsId}
-        -- ARGV[1]: 扣减数量，默认为1
--- 返回值：1-扣减成功，0-库存不足，-1-库存Key不存在
+-- KEYS[2]: 秒杀活动数据的Redis Key（Hash），格式：seckill:goods:{goodsId}
+-- KEYS[3]: 库存账本Key（Hash），格式：seckill:stock:ledger:{goodsId}
+-- KEYS[4]: 活动已清理标记Key，格式：seckill:goods:evicted:{goodsId}
+-- ARGV[1]: 扣减数量，默认为1
+-- ARGV[2]: 开始时间字段名（毫秒时间戳）
+-- ARGV[3]: 结束时间字段名（毫秒时间戳）
+-- 返回值：1-扣减成功，0-库存不足，-1-库存Key或活动数据不存在，-2-活动未开始，-3-活动已结束，-4-活动已结束且数据已清理
+
+-- Redis 5 之前脚本中使用TIME后写入需要按命令复制
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+
+-- 读取活动时间
+local times = redis.call('hmget', KEYS[2], ARGV[2], ARGV[3])
+local startTime = tonumber(times[1])
+local endTime = tonumber(times[2])
+if not startTime or not endTime then
+    -- 活动结束后数据已被活动调度器清理，与数据缺失（未预热、被误删）区分开
+    if redis.call('exists', KEYS[4]) == 1 then
+        return -4
+    end
+    return -1
+end
+
+-- 使用Redis服务器时间，整个集群只有一个时钟
+local now = redis.call('time')
+local nowMillis = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000)
+if nowMillis < startTime then
+    return -2
+end
+if nowMillis > endTime then
+    return -3
+end
 
 -- 获取当前库存
 local stock = redis.call('get', KEYS[1])
 
-        -- 判断库存Key是否存在
+-- 判断库存Key是否存在
 if not stock then
     return -1
 end
@@ -14,10 +46,10 @@ end
 -- 转换为数字
 local stockNum = tonumber(stock)
 
-        -- 获取扣减数量
+-- 获取扣减数量
 local deductNum = tonumber(ARGV[1])
 if not deductNum then
-        deductNum = 1
+    deductNum = 1
 end
 
 -- 判断库存是否充足
@@ -25,8 +57,9 @@ if stockNum < deductNum then
     return 0
 end
 
--- 扣减库存
+-- 扣减库存，并在同一个原子操作中累加账本的扣减数（对账用）
 redis.call('decrby', KEYS[1], deductNum)
+redis.call('hincrby', KEYS[3], 'deducted', deductNum)
 
 -- 返回成功
-return 1
\ No newline at end of file
+return 1
@@ -0,0 +1,23 @@
+-- 库存初始化Lua脚本（批量，写入库存与重置库存账本在同一个原子操作中完成）
+-- KEYS: 每个商品两个Key，依次为 库存Key seckill:stock:{goodsId}、账本Key seckill:stock:ledger:{goodsId}
+-- ARGV[1]: 1-只在库存Key不存在时写入（已有库存的商品跳过，账本也不重置），0-覆盖
+-- ARGV[1 + i]: 第i个商品的库存
+-- 返回值：实际写入的商品数
+
+local onlyIfAbsent = ARGV[1] == '1'
+local written = 0
+
+for i = 1, #KEYS / 2 do
+    local stockKey = KEYS[i * 2 - 1]
+    local ledgerKey = KEYS[i * 2]
+    local stock = ARGV[i + 1]
+    if not onlyIfAbsent or redis.call('exists', stockKey) == 0 then
+        redis.call('set', stockKey, stock)
+        -- 账本只记录本次初始化之后的变化，对账不会把初始化前的扣减、回滚算成偏差
+        redis.call('del', ledgerKey)
+        redis.call('hset', ledgerKey, 'initial', stock, 'deducted', 0, 'rolledBack', 0, 'success', 0)
+        written = written + 1
+    end
+end
+
+return written
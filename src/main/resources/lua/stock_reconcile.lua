@@ -0,0 +1,51 @@
+-- 库存对账Lua脚本（批量，读取库存和账本在同一个原子操作中完成，不受并发扣减影响）
+-- KEYS: 每个商品两个Key，依次为 库存Key seckill:stock:{goodsId}、账本Key seckill:stock:ledger:{goodsId}
+-- ARGV[1]: 单次自动修正的最大偏差（绝对值）
+-- ARGV[1 + i]: 第i个商品本次要修正的偏差，0表示不修正；只有与本次计算出的偏差相同时才修正（上一轮已确认的偏差）
+-- 返回值：每个商品8个整数
+--   状态（0-正常对账，1-账本不存在，2-库存Key不存在）、剩余库存、初始库存、累计扣减、累计回滚、累计成功、偏差、是否已修正
+-- 偏差 = 初始库存 - 累计扣减 + 累计回滚 - 剩余库存（库存被绕过扣减/回滚脚本修改时不为0）
+
+local maxCorrect = tonumber(ARGV[1]) or 0
+local result = {}
+
+for i = 1, #KEYS / 2 do
+    local stockKey = KEYS[i * 2 - 1]
+    local ledgerKey = KEYS[i * 2]
+    local stock = redis.call('get', stockKey)
+    local ledger = redis.call('hmget', ledgerKey, 'initial', 'deducted', 'rolledBack', 'success')
+
+    local state = 0
+    local remaining = tonumber(stock) or 0
+    local initial = tonumber(ledger[1])
+    local deducted = tonumber(ledger[2]) or 0
+    local rolledBack = tonumber(ledger[3]) or 0
+    local success = tonumber(ledger[4]) or 0
+    local drift = 0
+    local corrected = 0
+
+    if not stock then
+        state = 2
+    elseif not initial then
+        state = 1
+    else
+        drift = initial - deducted + rolledBack - remaining
+        local expected = tonumber(ARGV[i + 1]) or 0
+        -- 只修正已确认的偏差，且修正后库存不能为负
+        if expected ~= 0 and drift == expected and math.abs(drift) <= maxCorrect and remaining + drift >= 0 then
+            redis.call('incrby', stockKey, drift)
+            corrected = 1
+        end
+    end
+
+    table.insert(result, state)
+    table.insert(result, remaining)
+    table.insert(result, initial or 0)
+    table.insert(result, deducted)
+    table.insert(result, rolledBack)
+    table.insert(result, success)
+    table.insert(result, drift)
+    table.insert(result, corrected)
+end
+
+return result
@@ -0,0 +1,35 @@
+-- 库存回滚Lua脚本（按订单ID幂等）
+-- KEYS[1]: 库存的Redis Key，格式：seckill:stock:{goodsId}
+-- KEYS[2]: 回滚记录集合Key，格式：seckill:stock:rollback:{goodsId}
+-- KEYS[3]: 库存账本Key（Hash），格式：seckill:stock:ledger:{goodsId}
+-- ARGV[1]: 订单ID
+-- ARGV[2]: 回滚数量，默认为1
+-- ARGV[3]: 回滚记录集合过期时间（秒）
+-- 返回值：1-回滚成功，0-该订单已回滚过，-1-库存Key不存在
+
+-- 库存Key不存在时不回滚（避免凭空创建库存）
+if redis.call('exists', KEYS[1]) == 0 then
+    return -1
+end
+
+-- 记录订单ID，已存在说明该订单已回滚过
+if redis.call('sadd', KEYS[2], ARGV[1]) == 0 then
+    return 0
+end
+
+local rollbackNum = tonumber(ARGV[2])
+if not rollbackNum then
+    rollbackNum = 1
+end
+
+-- 回滚库存，并在同一个原子操作中累加账本的回滚数（对账用）
+redis.call('incrby', KEYS[1], rollbackNum)
+redis.call('hincrby', KEYS[3], 'rolledBack', rollbackNum)
+
+-- 刷新回滚记录的过期时间
+local ttl = tonumber(ARGV[3])
+if ttl and ttl > 0 then
+    redis.call('expire', KEYS[2], ttl)
+end
+
+return 1
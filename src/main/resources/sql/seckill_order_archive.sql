@@ -0,0 +1,22 @@
+-- 秒杀订单归档表
+-- 已完成且超过保留天数的订单由 OrderArchiver 从 seckill_order 及各物理分表移入本表（写入与删除在同一个事务内）
+-- 各分表的自增主键可能重复，本表以 order_id 为主键，原表主键 id 只用于排序和游标翻页
+
+CREATE TABLE IF NOT EXISTS seckill_order_archive (
+    order_id         VARCHAR(64)    NOT NULL COMMENT '订单唯一ID',
+    id               BIGINT         NOT NULL COMMENT '原订单表主键',
+    user_id          BIGINT         NOT NULL COMMENT '用户ID',
+    goods_id         BIGINT         NOT NULL COMMENT '商品ID',
+    seckill_goods_id BIGINT                  COMMENT '秒杀商品ID',
+    order_no         VARCHAR(64)             COMMENT '订单号',
+    goods_name       VARCHAR(255)            COMMENT '商品名称',
+    seckill_price    DECIMAL(10, 2)          COMMENT '秒杀价格',
+    status           TINYINT                 COMMENT '订单状态：1-成功 2-失败',
+    seckill_status   TINYINT                 COMMENT '秒杀状态',
+    create_time      DATETIME                COMMENT '创建时间',
+    update_time      DATETIME                COMMENT '更新时间',
+    archive_time     DATETIME       NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (order_id),
+    KEY idx_user_ctime_id (user_id, create_time, id),
+    KEY idx_user_status_ctime_id (user_id, status, create_time, id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4 ROW_FORMAT = COMPRESSED COMMENT = '秒杀订单归档表';
@@ -0,0 +1,14 @@
+-- 秒杀订单分表DDL（seckill.order.shard.count = 4 时的示例）
+-- 分表结构与 seckill_order 完全一致，按 user_id % 4 路由
+-- 开启分表后，分表前生成的订单仍保留在 seckill_order 中，按订单ID查询时会路由到原表
+
+CREATE TABLE IF NOT EXISTS seckill_order_0 LIKE seckill_order;
+CREATE TABLE IF NOT EXISTS seckill_order_1 LIKE seckill_order;
+CREATE TABLE IF NOT EXISTS seckill_order_2 LIKE seckill_order;
+CREATE TABLE IF NOT EXISTS seckill_order_3 LIKE seckill_order;
+
+-- 可选：将历史订单按用户迁移到分表（迁移后按用户查询列表即可看到历史订单）
+-- INSERT INTO seckill_order_0 SELECT * FROM seckill_order WHERE user_id % 4 = 0;
+-- INSERT INTO seckill_order_1 SELECT * FROM seckill_order WHERE user_id % 4 = 1;
+-- INSERT INTO seckill_order_2 SELECT * FROM seckill_order WHERE user_id % 4 = 2;
+-- INSERT INTO seckill_order_3 SELECT * FROM seckill_order WHERE user_id % 4 = 3;
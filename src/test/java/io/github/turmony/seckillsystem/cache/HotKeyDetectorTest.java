@@ -0,0 +1,126 @@
+package io.github.turmony.seckillsystem.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 热点Key探测测试（采样率为1，计数确定）
+ */
+class HotKeyDetectorTest {
+
+    private static final long THRESHOLD = 100;
+
+    private HotKeyDetector detector;
+    private final List<String> promoted = new CopyOnWriteArrayList<>();
+    private final List<String> demoted = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        detector = new HotKeyDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "sampleRate", 1);
+        ReflectionTestUtils.setField(detector, "depth", 4);
+        ReflectionTestUtils.setField(detector, "width", 1024);
+        ReflectionTestUtils.setField(detector, "threshold", THRESHOLD);
+        ReflectionTestUtils.setField(detector, "maxHotKeys", 2);
+        detector.init();
+        detector.addPromotionListener(promoted::add);
+        detector.addDemotionListener(demoted::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        detector.destroy();
+    }
+
+    @Test
+    void promotesWhenEstimateReachesThreshold() {
+        record("seckill:stock:1", THRESHOLD - 1);
+        assertThat(detector.isHot("seckill:stock:1")).isFalse();
+
+        record("seckill:stock:1", 1);
+        assertThat(detector.isHot("seckill:stock:1")).isTrue();
+        awaitNotified(promoted, "seckill:stock:1");
+        assertThat(detector.topKeys(10)).hasSize(1);
+    }
+
+    @Test
+    void decayDemotesBelowHalfThreshold() {
+        record("seckill:stock:1", THRESHOLD);
+
+        // 100 -> 50：不低于阈值的一半，保持热点
+        detector.decay();
+        assertThat(detector.isHot("seckill:stock:1")).isTrue();
+
+        // 50 -> 25：降级
+        detector.decay();
+        assertThat(detector.isHot("seckill:stock:1")).isFalse();
+        awaitNotified(demoted, "seckill:stock:1");
+    }
+
+    @Test
+    void fullHotSetRejectsKeyNoHotterThanColdest() {
+        record("seckill:stock:1", THRESHOLD);
+        record("seckill:stock:2", THRESHOLD);
+
+        // 与当前最冷的热点一样热，不替换
+        record("seckill:stock:3", THRESHOLD);
+        assertThat(detector.isHot("seckill:stock:3")).isFalse();
+        assertThat(detector.topKeys(10)).hasSize(2);
+    }
+
+    @Test
+    void fullHotSetReplacesColdestKey() {
+        record("seckill:stock:1", THRESHOLD);
+        record("seckill:stock:2", THRESHOLD + 50);
+        // 衰减后重新估计：1 -> 50，2 -> 75
+        detector.decay();
+
+        record("seckill:stock:3", THRESHOLD);
+        assertThat(detector.isHot("seckill:stock:3")).isTrue();
+        assertThat(detector.isHot("seckill:stock:1")).isFalse();
+        assertThat(detector.isHot("seckill:stock:2")).isTrue();
+        awaitNotified(demoted, "seckill:stock:1");
+    }
+
+    @Test
+    void disabledDetectorIgnoresAccess() {
+        ReflectionTestUtils.setField(detector, "enabled", false);
+        record("seckill:stock:1", THRESHOLD * 2);
+
+        assertThat(detector.isHot("seckill:stock:1")).isFalse();
+        assertThat(detector.getStats()).containsEntry("sampledCount", 0L);
+    }
+
+    @Test
+    void parsesGoodsIdOnlyFromStockKeys() {
+        assertThat(HotKeyDetector.stockGoodsIdOf("seckill:stock:42")).isEqualTo(42L);
+        assertThat(HotKeyDetector.stockGoodsIdOf("seckill:stock:ledger:42")).isNull();
+        assertThat(HotKeyDetector.stockGoodsIdOf("seckill:stock:")).isNull();
+        assertThat(HotKeyDetector.stockGoodsIdOf("seckill:goods:42")).isNull();
+    }
+
+    /**
+     * 监听器在单独的线程中回调，最多等待1秒
+     */
+    private static void awaitNotified(List<String> notified, String key) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!notified.contains(key) && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(notified).contains(key);
+    }
+
+    private void record(String key, long times) {
+        for (long i = 0; i < times; i++) {
+            detector.record(key);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 按键限流表测试：突发额度、键之间互不影响、槽位淘汰
+ *
+ * 许可在紧凑的循环中连续获取，断言放在之后，避免断言本身的耗时（首次类加载）让许可提前恢复
+ */
+class KeyedRateLimiterTest {
+
+    @Test
+    void allowsOneSecondBurstPerKey() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(5, 1024, 4, 8);
+
+        assertThat(acquire(limiter, 1L, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(2, 1024, 4, 8);
+
+        int first = acquire(limiter, 1L, 5);
+        int second = acquire(limiter, 2L, 5);
+
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(2);
+    }
+
+    @Test
+    void permitsRefillOverTime() throws InterruptedException {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(5, 1024, 4, 8);
+        acquire(limiter, 1L, 10);
+
+        // 间隔200ms，等待超过一个间隔后至少恢复一个许可
+        Thread.sleep(300);
+        assertThat(limiter.tryAcquire(1L)).isTrue();
+    }
+
+    @Test
+    void evictedKeyGetsFullBurstAgain() {
+        // 只有一个槽位：新键会淘汰旧键
+        KeyedRateLimiter limiter = new KeyedRateLimiter(2, 1, 1, 1);
+
+        int first = acquire(limiter, 1L, 5);
+        boolean other = limiter.tryAcquire(2L);
+        int again = acquire(limiter, 1L, 5);
+
+        assertThat(first).isEqualTo(2);
+        assertThat(other).isTrue();
+        assertThat(again).isEqualTo(2);
+    }
+
+    @Test
+    void reservedEmptyKeyValueIsUsable() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 1024, 4, 8);
+
+        assertThat(acquire(limiter, Long.MIN_VALUE, 3)).isEqualTo(1);
+    }
+
+    private static int acquire(KeyedRateLimiter limiter, long key, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(key)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
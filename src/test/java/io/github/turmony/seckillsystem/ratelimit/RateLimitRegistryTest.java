@@ -0,0 +1,58 @@
+package io.github.turmony.seckillsystem.ratelimit;
+
+import io.github.turmony.seckillsystem.common.RateLimit;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 限流规则解析与IP键计算测试
+ */
+class RateLimitRegistryTest {
+
+    @Test
+    void ipv4MapsToUnsigned32BitValue() {
+        assertThat(RateLimitRegistry.ipToLong("0.0.0.0")).isZero();
+        assertThat(RateLimitRegistry.ipToLong("127.0.0.1")).isEqualTo(0x7F000001L);
+        assertThat(RateLimitRegistry.ipToLong("255.255.255.255")).isEqualTo(0xFFFFFFFFL);
+        assertThat(RateLimitRegistry.ipToLong(" 10.1.2.3 ")).isEqualTo(RateLimitRegistry.ipToLong("10.1.2.3"));
+    }
+
+    @Test
+    void nonIpv4IsHashedOutsideIpv4Range() {
+        String[] others = {"::1", "2001:db8::1", "256.1.1.1", "1.2.3", "1.2.3.4.5", "1..2.3", "abc"};
+        for (String other : others) {
+            long key = RateLimitRegistry.ipToLong(other);
+            assertThat(key).as(other).isNegative();
+            assertThat(key).as(other).isNotEqualTo(RateLimitSpec.NO_KEY);
+        }
+        assertThat(RateLimitRegistry.ipToLong("::1")).isNotEqualTo(RateLimitRegistry.ipToLong("::2"));
+    }
+
+    @Test
+    void keyedRulesAreCheckedBeforeMethodRules() throws NoSuchMethodException {
+        RateLimitRegistry registry = new RateLimitRegistry(null);
+        ReflectionTestUtils.setField(registry, "capacity", 1024);
+        ReflectionTestUtils.setField(registry, "segments", 4);
+        ReflectionTestUtils.setField(registry, "probe", 8);
+
+        RateLimitSpec[] specs = registry.specsOf(Endpoints.class.getDeclaredMethod("seckill", Long.class));
+
+        assertThat(Arrays.stream(specs).map(spec -> spec.getRateLimit().dimension()))
+                .containsExactly(RateLimit.Dimension.USER, RateLimit.Dimension.GOODS, RateLimit.Dimension.METHOD);
+        assertThat(registry.specsOf(Endpoints.class.getDeclaredMethod("seckill", Long.class))).isSameAs(specs);
+    }
+
+    static class Endpoints {
+
+        @RateLimit(permitsPerSecond = 500)
+        @RateLimit(permitsPerSecond = 5, dimension = RateLimit.Dimension.USER)
+        @RateLimit(permitsPerSecond = 100, dimension = RateLimit.Dimension.GOODS)
+        void seckill(@RequestParam("goodsId") Long goodsId) {
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.turmony.seckillsystem.serializer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * BinaryWriter / BinaryReader 编解码往返测试
+ */
+class BinaryCodecTest {
+
+    @Test
+    void varLongRoundTrip() {
+        long[] values = {0, 1, -1, 63, -64, 64, 127, 128, 300, -300,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        BinaryWriter writer = new BinaryWriter(4);
+        for (long value : values) {
+            writer.writeVarLong(value);
+        }
+
+        BinaryReader reader = new BinaryReader(writer.toByteArray());
+        for (long value : values) {
+            assertThat(reader.readVarLong()).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void smallValuesUseOneByte() {
+        BinaryWriter writer = new BinaryWriter(16);
+        writer.writeVarLong(-64);
+        writer.writeVarLong(63);
+
+        assertThat(writer.toByteArray()).hasSize(2);
+    }
+
+    @Test
+    void nullableFieldsRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 11, 11, 0, 0, 0, 123_000_000);
+        BinaryWriter writer = new BinaryWriter(8);
+        writer.writeLong(9_876_543_210L);
+        writer.writeLong(null);
+        writer.writeInt(-42);
+        writer.writeInt(null);
+        writer.writeString("秒杀商品 iPhone");
+        writer.writeString("");
+        writer.writeString(null);
+        writer.writeTime(time);
+        writer.writeTime(null);
+
+        BinaryReader reader = new BinaryReader(writer.toByteArray());
+        assertThat(reader.readLong()).isEqualTo(9_876_543_210L);
+        assertThat(reader.readLong()).isNull();
+        assertThat(reader.readInt()).isEqualTo(-42);
+        assertThat(reader.readInt()).isNull();
+        assertThat(reader.readString()).isEqualTo("秒杀商品 iPhone");
+        assertThat(reader.readString()).isEmpty();
+        assertThat(reader.readString()).isNull();
+        assertThat(reader.readTime()).isEqualTo(time);
+        assertThat(reader.readTime()).isNull();
+    }
+
+    @Test
+    void decimalRoundTripKeepsScale() {
+        BigDecimal[] values = {
+                new BigDecimal("5999.00"),
+                new BigDecimal("-0.01"),
+                BigDecimal.ZERO,
+                new BigDecimal("1E+3"),
+                // 未缩放值超出long范围，按字节数组编码
+                new BigDecimal("123456789012345678901234567890.12")
+        };
+        BinaryWriter writer = new BinaryWriter(8);
+        for (BigDecimal value : values) {
+            writer.writeDecimal(value);
+        }
+        writer.writeDecimal(null);
+
+        BinaryReader reader = new BinaryReader(writer.toByteArray());
+        for (BigDecimal value : values) {
+            BigDecimal decoded = reader.readDecimal();
+            assertThat(decoded).isEqualTo(value);
+            assertThat(decoded.scale()).isEqualTo(value.scale());
+        }
+        assertThat(reader.readDecimal()).isNull();
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        BinaryWriter writer = new BinaryWriter(8);
+        writer.writeString("seckill");
+        byte[] bytes = writer.toByteArray();
+
+        BinaryReader reader = new BinaryReader(Arrays.copyOf(bytes, bytes.length - 1));
+        assertThatThrownBy(reader::readString).isInstanceOf(SerializationException.class);
+
+        BinaryReader empty = new BinaryReader(new byte[0]);
+        assertThatThrownBy(empty::readLong).isInstanceOf(SerializationException.class);
+    }
+}
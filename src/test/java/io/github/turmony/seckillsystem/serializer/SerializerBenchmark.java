@@ -0,0 +1,127 @@
+package io.github.turmony.seckillsystem.serializer;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.support.spring.FastJsonRedisSerializer;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsCache;
+import io.github.turmony.seckillsystem.cache.SeckillGoodsHashCache;
+import io.github.turmony.seckillsystem.entity.SeckillGoods;
+import io.github.turmony.seckillsystem.vo.SeckillGoodsVO;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Redis值序列化对比：原通用FastJson序列化 vs 按类型的Hash字段/二进制/整数字符串序列化
+ *
+ * 输出每种值的编码字节数和一次"写入+读取"的平均耗时（ns/op），直接运行main方法即可
+ * 结果受JIT和机器影响，只用于同一台机器上的相对比较
+ */
+public class SerializerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200_000;
+    private static final int MEASURE_ROUNDS = 1_000_000;
+
+    /**
+     * 防止JIT消除无副作用的计算
+     */
+    private static int sink;
+
+    public static void main(String[] args) {
+        FastJsonRedisSerializer<Object> fastJson = new FastJsonRedisSerializer<>(Object.class);
+        SeckillGoodsEntryRedisSerializer entrySerializer = new SeckillGoodsEntryRedisSerializer();
+        StringRedisSerializer stringSerializer = new StringRedisSerializer();
+
+        SeckillGoods goods = sampleGoods();
+        SeckillGoodsCache.CacheEntry entry = new SeckillGoodsCache.CacheEntry(sampleVo(),
+                System.currentTimeMillis() + 3600_000L, 12);
+        Integer stock = 98765;
+
+        System.out.println("值类型            方式                     字节数      ns/op");
+
+        // 秒杀商品：原方式为 FastJson -> JSONObject -> toJSONString -> parseObject
+        report("SeckillGoods", "FastJson(Object)", fastJson.serialize(goods).length, () -> {
+            Object obj = fastJson.deserialize(fastJson.serialize(goods));
+            return JSON.parseObject(JSON.toJSONString(obj), SeckillGoods.class);
+        });
+        // 秒杀商品Hash：下单只HMGET需要的字段，字节数为这些字段值的长度之和
+        List<String> orderFields = List.of(SeckillGoodsHashCache.FIELD_ID, SeckillGoodsHashCache.FIELD_SECKILL_PRICE,
+                SeckillGoodsHashCache.FIELD_START_TIME, SeckillGoodsHashCache.FIELD_END_TIME);
+        Map<String, String> goodsHash = SeckillGoodsHashCache.toHash(goods);
+        int hashBytes = orderFields.stream()
+                .mapToInt(field -> goodsHash.get(field).getBytes(StandardCharsets.UTF_8).length)
+                .sum();
+        report("SeckillGoods", "Hash(HMGET 4 fields)", hashBytes, () -> {
+            Map<String, String> hash = SeckillGoodsHashCache.toHash(goods);
+            Map<String, String> fields = new HashMap<>();
+            for (String field : orderFields) {
+                fields.put(field, hash.get(field));
+            }
+            return SeckillGoodsHashCache.fromHash(fields);
+        });
+
+        // 展示缓存条目：原方式为 JSON字符串
+        report("CacheEntry", "FastJson(String)", JSON.toJSONString(entry).getBytes().length,
+                () -> JSON.parseObject(JSON.toJSONString(entry), SeckillGoodsCache.CacheEntry.class));
+        report("CacheEntry", "Binary", entrySerializer.serialize(entry).length,
+                () -> entrySerializer.deserialize(entrySerializer.serialize(entry)));
+
+        // 库存计数器：原方式为 FastJson数字 -> Object -> toString -> parseLong
+        report("Stock", "FastJson(Object)", fastJson.serialize(stock).length,
+                () -> Long.parseLong(fastJson.deserialize(fastJson.serialize(stock)).toString()));
+        report("Stock", "String", stringSerializer.serialize(Long.toString(stock)).length,
+                () -> Long.parseLong(stringSerializer.deserialize(stringSerializer.serialize(Long.toString(stock)))));
+
+        System.out.println("(sink=" + sink + ")");
+    }
+
+    private static void report(String type, String method, int bytes, Supplier<Object> roundTrip) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += roundTrip.get().hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += roundTrip.get().hashCode();
+        }
+        long nsPerOp = (System.nanoTime() - start) / MEASURE_ROUNDS;
+        System.out.printf("%-16s  %-22s  %8d  %9d%n", type, method, bytes, nsPerOp);
+    }
+
+    private static SeckillGoods sampleGoods() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        SeckillGoods goods = new SeckillGoods();
+        goods.setId(1001L);
+        goods.setGoodsId(2001L);
+        goods.setName("iPhone 15 Pro 256G 秒杀专享");
+        goods.setSeckillPrice(new BigDecimal("6999.00"));
+        goods.setStockCount(100);
+        goods.setStartTime(now.plusHours(1));
+        goods.setEndTime(now.plusHours(3));
+        goods.setStatus(1);
+        goods.setVersion(0);
+        goods.setCreateTime(now);
+        goods.setUpdateTime(now);
+        return goods;
+    }
+
+    private static SeckillGoodsVO sampleVo() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        SeckillGoodsVO vo = new SeckillGoodsVO();
+        vo.setId(1001L);
+        vo.setGoodsId(2001L);
+        vo.setGoodsName("iPhone 15 Pro");
+        vo.setGoodsTitle("iPhone 15 Pro 256G 秒杀专享");
+        vo.setGoodsImg("/img/iphone15pro.png");
+        vo.setGoodsDetail("A17 Pro芯片，钛金属设计，4800万像素主摄，支持USB-C接口");
+        vo.setGoodsPrice(new BigDecimal("8999.00"));
+        vo.setSeckillPrice(new BigDecimal("6999.00"));
+        vo.setStartTime(now.plusHours(1));
+        vo.setEndTime(now.plusHours(3));
+        return vo;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.turmony.seckillsystem.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 订单分表路由测试：重点覆盖分表前生成的订单ID（不含分表下标）
+ *
+ * 用一个内存中的“表”模拟数据：表下标 -> 该表中的订单ID，null 表示原表 seckill_order
+ */
+class OrderShardRouterTest {
+
+    private static final String LEGACY_ORDER_ID = "0f4c2a9e8b7d4c1e9a6b5d3c2e1f0a9b";
+
+    private final Map<Integer, Set<String>> tables = new ConcurrentHashMap<>();
+    private final Set<Integer> visited = ConcurrentHashMap.newKeySet();
+
+    private OrderShardRouter router;
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    @Test
+    void legacyOrderIdIsFoundInShardsWhenReadLegacyIsOff() {
+        router = router(4, false);
+        putOrder(2, LEGACY_ORDER_ID);
+
+        String found = router.findByOrderId(LEGACY_ORDER_ID, lookup(LEGACY_ORDER_ID));
+
+        assertThat(found).isEqualTo(LEGACY_ORDER_ID);
+        // 历史订单已迁移，不再访问原表
+        assertThat(visited).doesNotContain(-1);
+    }
+
+    @Test
+    void legacyOrderIdIsLocatedInItsShardWhenReadLegacyIsOff() {
+        router = router(4, false);
+        putOrder(3, LEGACY_ORDER_ID);
+
+        Integer shard = router.locateOrder(LEGACY_ORDER_ID, () -> lookup(LEGACY_ORDER_ID).get() != null);
+
+        assertThat(shard).isEqualTo(3);
+        assertThat(visited).doesNotContain(-1);
+    }
+
+    @Test
+    void legacyOrderIdPrefersLegacyTableWhenReadLegacyIsOn() {
+        router = router(4, true);
+        putOrder(null, LEGACY_ORDER_ID);
+
+        assertThat(router.findByOrderId(LEGACY_ORDER_ID, lookup(LEGACY_ORDER_ID))).isEqualTo(LEGACY_ORDER_ID);
+        assertThat(router.locateOrder(LEGACY_ORDER_ID, () -> lookup(LEGACY_ORDER_ID).get() != null)).isNull();
+        // 原表命中后不再广播到分表
+        assertThat(visited).containsOnly(-1);
+    }
+
+    @Test
+    void legacyOrderIdFallsBackToShardsWhenMissingFromLegacyTable() {
+        router = router(4, true);
+        putOrder(1, LEGACY_ORDER_ID);
+
+        assertThat(router.findByOrderId(LEGACY_ORDER_ID, lookup(LEGACY_ORDER_ID))).isEqualTo(LEGACY_ORDER_ID);
+    }
+
+    @Test
+    void shardedOrderIdIsRoutedDirectly() {
+        router = router(4, false);
+        String orderId = router.generateOrderId(6L);
+        putOrder(2, orderId);
+
+        assertThat(router.isLegacyOrderId(orderId)).isFalse();
+        assertThat(router.findByOrderId(orderId, lookup(orderId))).isEqualTo(orderId);
+        assertThat(router.locateOrder(orderId, () -> {
+            throw new AssertionError("带分表下标的订单不需要查询定位");
+        })).isEqualTo(2);
+        assertThat(visited).containsOnly(2);
+    }
+
+    @Test
+    void unshardedOrderIdIsNotLegacy() {
+        router = router(1, false);
+
+        assertThat(router.isLegacyOrderId(LEGACY_ORDER_ID)).isFalse();
+        assertThat(router.locateOrder(LEGACY_ORDER_ID, () -> {
+            throw new AssertionError("未分表时不需要查询定位");
+        })).isNull();
+    }
+
+    @Test
+    void listByOrderIdsMergesShardedAndLegacyOrders() {
+        router = router(4, false);
+        String shardedId = router.generateOrderId(5L);
+        String missingLegacyId = "1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d";
+        putOrder(1, shardedId);
+        putOrder(3, LEGACY_ORDER_ID);
+
+        List<String> found = router.listByOrderIds(Arrays.asList(shardedId, LEGACY_ORDER_ID, missingLegacyId),
+                ids -> {
+                    Set<String> table = tables.getOrDefault(OrderShardContext.get(), Collections.emptySet());
+                    visited.add(OrderShardContext.get() == null ? -1 : OrderShardContext.get());
+                    return ids.stream().filter(table::contains).collect(Collectors.toCollection(ArrayList::new));
+                },
+                orderId -> orderId);
+
+        assertThat(found).containsExactlyInAnyOrder(shardedId, LEGACY_ORDER_ID);
+        assertThat(visited).doesNotContain(-1);
+    }
+
+    private OrderShardRouter router(int shardCount, boolean readLegacy) {
+        OrderShardRouter router = new OrderShardRouter();
+        ReflectionTestUtils.setField(router, "shardCount", shardCount);
+        ReflectionTestUtils.setField(router, "readLegacy", readLegacy);
+        router.init();
+        return router;
+    }
+
+    private void putOrder(Integer shard, String orderId) {
+        tables.computeIfAbsent(shard == null ? -1 : shard, k -> ConcurrentHashMap.newKeySet()).add(orderId);
+    }
+
+    /**
+     * 在当前路由的表中按订单ID查询，并记录访问过的表（-1 表示原表）
+     */
+    private Supplier<String> lookup(String orderId) {
+        return () -> {
+            Integer shard = OrderShardContext.get();
+            int table = shard == null ? -1 : shard;
+            visited.add(table);
+            return tables.getOrDefault(table, Collections.emptySet()).contains(orderId) ? orderId : null;
+        };
+    }
+}
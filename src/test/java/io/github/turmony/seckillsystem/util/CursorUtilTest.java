@@ -0,0 +1,68 @@
+package io.github.turmony.seckillsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分页游标编解码测试
+ */
+class CursorUtilTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        LocalDateTime createTime = LocalDateTime.of(2024, 11, 11, 0, 0, 1, 123_000_000);
+        String cursor = CursorUtil.encode(createTime, 1234567890123L);
+
+        assertThat(CursorUtil.decodeTime(cursor)).isEqualTo(createTime);
+        assertThat(CursorUtil.decodeId(cursor)).isEqualTo(1234567890123L);
+    }
+
+    @Test
+    void roundTripsExtremeIds() {
+        LocalDateTime createTime = LocalDateTime.of(2024, 1, 1, 12, 30);
+
+        assertThat(CursorUtil.decodeId(CursorUtil.encode(createTime, 0L))).isZero();
+        assertThat(CursorUtil.decodeId(CursorUtil.encode(createTime, Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        for (long id = 0; id < 200; id++) {
+            String cursor = CursorUtil.encode(LocalDateTime.of(2024, 6, 18, 20, 0).plusSeconds(id * 7919), id * 104729);
+            assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String[] malformed = {
+                "!!!",
+                encodeRaw("1700000000000"),
+                encodeRaw("1700000000000:1:2"),
+                encodeRaw("abc:1"),
+                encodeRaw("1700000000000:abc"),
+                encodeRaw(":"),
+                ""
+        };
+        for (String cursor : malformed) {
+            assertThatThrownBy(() -> CursorUtil.decodeTime(cursor))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("游标格式错误");
+            assertThatThrownBy(() -> CursorUtil.decodeId(cursor))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("游标格式错误");
+        }
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
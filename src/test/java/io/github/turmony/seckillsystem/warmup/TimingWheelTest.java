@@ -0,0 +1,142 @@
+package io.github.turmony.seckillsystem.warmup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分层时间轮测试：到期时间、逐层下放、已过期任务
+ */
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 10;
+
+    @Test
+    void firesWithinOneTickAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        assertThat(wheel.add(35, "a")).isTrue();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(34, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(39, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(40, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineIsRejected() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 1_000);
+        wheel.advance(1_050, task -> { });
+
+        assertThat(wheel.add(1_049, "late")).isFalse();
+        assertThat(wheel.add(0, "long past")).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineInCurrentTickFiresOnNextAdvance() {
+        // 起始时间不是 tickMs 的整数倍时，当前格从 1000 开始
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 1_003);
+        assertThat(wheel.add(1_001, "current")).isTrue();
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1_010, fired::add);
+        assertThat(fired).containsExactly("current");
+    }
+
+    @Test
+    void cascadesFromOverflowLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        // 第0层一圈为100ms，250 放入第1层
+        assertThat(wheel.add(250, "overflow")).isTrue();
+        assertThat(wheel.levels()).isEqualTo(2);
+
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = 0; now <= 400; now += TICK_MS) {
+            long time = now;
+            wheel.advance(now, task -> firedAt.put(task, time));
+        }
+        assertThat(firedAt).containsEntry("overflow", 260L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadedTaskInLastTickOfSlotIsNotFiredEarly() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        // 195 在第1层 [100, 200) 格的最后一个tick，下放时与第0层即将触发的 [90, 100) 是同一个槽位
+        assertThat(wheel.add(195, "last tick")).isTrue();
+
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = 0; now <= 300; now += TICK_MS) {
+            long time = now;
+            wheel.advance(now, task -> firedAt.put(task, time));
+        }
+        assertThat(firedAt).containsEntry("last tick", 200L);
+    }
+
+    @Test
+    void multiLevelOverflowFiresOnce() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, 0);
+        // 各层一圈：100、1000、10000、100000
+        assertThat(wheel.add(12_345, "far")).isTrue();
+        assertThat(wheel.levels()).isEqualTo(4);
+        assertThat(wheel.add(99, "near")).isTrue();
+
+        List<Long> farFiredAt = new ArrayList<>();
+        List<String> fired = new ArrayList<>();
+        for (long now = 0; now <= 20_000; now += TICK_MS) {
+            long time = now;
+            wheel.advance(now, task -> {
+                fired.add(task);
+                if (task.equals("far")) {
+                    farFiredAt.add(time);
+                }
+            });
+        }
+        assertThat(fired).containsExactly("near", "far");
+        assertThat(farFiredAt).containsExactly(12_350L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void randomDeadlinesFireExactlyOnceNeverEarly() {
+        long start = 1_234_567;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, start);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = start + random.nextInt(50_000);
+            if (wheel.add(deadline, deadline)) {
+                deadlines.add(deadline);
+            }
+        }
+        assertThat(wheel.size()).isEqualTo(deadlines.size());
+
+        Map<Long, Integer> fireCount = new HashMap<>();
+        long now = start;
+        while (now <= start + 50_000 + TICK_MS) {
+            // 推进步长不固定，一次推进可能跨过多格
+            now += 1 + random.nextInt(3 * (int) TICK_MS);
+            long time = now;
+            wheel.advance(now, deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(time);
+                fireCount.merge(deadline, 1, Integer::sum);
+            });
+        }
+
+        Map<Long, Integer> expected = new HashMap<>();
+        deadlines.forEach(deadline -> expected.merge(deadline, 1, Integer::sum));
+        assertThat(fireCount).isEqualTo(expected);
+        assertThat(wheel.size()).isZero();
+    }
+}